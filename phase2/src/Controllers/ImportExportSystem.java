@@ -0,0 +1,399 @@
+package Controllers;
+
+import Gateways.ProgramReader;
+import Gateways.ProgramWriter;
+import UseCase.EventManager;
+import UseCase.EventProposal;
+import UseCase.PasswordHasher;
+import UseCase.RoomManager;
+import UseCase.TransactionManager;
+import UseCase.UserManager;
+import UseCase.SessionRequest;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A controller class that imports a whole conference program (rooms, speakers and events) from a CSV or JSON lines file
+ * and exports the current program in the same format.
+ * <p>
+ * Every row has a "type" column (Room, Speaker, Event or Session) followed by the columns for that type:
+ * <ul>
+ *     <li>Room: number, capacity</li>
+ *     <li>Speaker: username, password (as typed, or a hash exported by this program)</li>
+ *     <li>Event: title, vip, start_date, end_date, start_time, end_time, room, speakers, max</li>
+ *     <li>Session: title, vip, start_date, end_date, start_time, end_time, speakers, max, duration</li>
+ * </ul>
+ * Dates and times use the same formats as the create event form (YYYYMMDD and HH:MM:SS) and the speakers of an event
+ * are separated by ";". Each row is checked on its own as it is read, and the rows are then applied in batches of 1000:
+ * the speakers' passwords in a batch are hashed together, and the batch is applied in one transaction. Rows are applied
+ * in file order, so a room or speaker has to come before the events that use it. A bad row is reported with its line
+ * number and does not stop the import.
+ * <p>
+ * A Session is an event that still needs a room and a time: it lasts "duration" minutes somewhere between its start
+ * and end, and more Session rows with the same title add more time windows. Once every row has been applied, the
+ * sessions are placed around the existing events by the timetable solver and created. Sessions are only imported; the
+ * events they become are exported as Event rows.
+ * <p>
+ * Speakers are exported with their hashed passwords, which are imported as they are, so an exported program can be
+ * imported into a new conference with its speakers (and so their events) and their passwords.
+ */
+public class ImportExportSystem {
+    /**
+     * The columns of a program file, in the order they are exported
+     */
+    public static final List<String> COLUMNS = Arrays.asList("type", "number", "capacity", "username", "password",
+            "title", "vip", "start_date", "end_date", "start_time", "end_time", "room", "speakers", "max");
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 200;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final Duration SCHEDULING_BUDGET = Duration.ofSeconds(5);
+
+    EventManager em;
+    RoomManager rm;
+    UserManager um;
+    SchedulingSystem ss;
+    PasswordHasher hasher;
+    TransactionManager tm;
+
+    /**
+     * Constructor for ImportExportSystem
+     * @param eventManager the EventManager for this execution of the program
+     * @param roomManager the RoomManager for this execution of the program
+     * @param userManager the UserManager for this execution of the program
+     * @param schedulingSystem the SchedulingSystem used to validate and create events
+     * @param hasher the PasswordHasher the passwords of imported speakers are hashed with
+     * @param tm the TransactionManager each batch of rows is applied in
+     */
+    public ImportExportSystem(EventManager eventManager, RoomManager roomManager, UserManager userManager,
+                              SchedulingSystem schedulingSystem, PasswordHasher hasher, TransactionManager tm) {
+        em = eventManager;
+        rm = roomManager;
+        um = userManager;
+        ss = schedulingSystem;
+        this.hasher = hasher;
+        this.tm = tm;
+    }
+
+    /**
+     * Import the rooms, speakers, events and sessions in the given file.
+     * @param filename the name of the CSV or JSON lines file to import
+     * @return the lines of the import report: a summary, then one line per rejected row (only the first 200 are listed),
+     * then the scheduling report if the file has sessions
+     */
+    public List<String> importProgram(String filename) {
+        ImportReport report = new ImportReport();
+        Map<String, SessionRequest> sessions = new LinkedHashMap<>();
+        try (ProgramReader reader = new ProgramReader(filename)) {
+            List<ParsedRow> batch = new ArrayList<>(BATCH_SIZE);
+            while (true) {
+                Map<String, String> fields;
+                try {
+                    fields = reader.readRow();
+                } catch (IllegalArgumentException e) {
+                    report.reject(reader.getLineNum(), "Uh-oh! The row is not formatted correctly. " + e.getMessage());
+                    continue;
+                }
+                if (fields == null) {
+                    break;
+                }
+                if (value(fields, "type").equalsIgnoreCase("session")) {
+                    parseSession(reader.getLineNum(), fields, sessions, report);
+                    continue;
+                }
+                ParsedRow row = parseRow(reader.getLineNum(), fields, report);
+                if (row != null) {
+                    batch.add(row);
+                }
+                if (batch.size() == BATCH_SIZE) {
+                    applyBatch(batch, report);
+                    batch.clear();
+                }
+            }
+            applyBatch(batch, report);
+        } catch (IOException e) {
+            report.fail("Uh-oh! The file could not be read: " + e.getMessage());
+            return report.getLines();
+        }
+        List<String> lines = report.getLines();
+        if (!sessions.isEmpty()) {
+            lines.add("Scheduling " + sessions.size() + " session(s):");
+            lines.addAll(ss.scheduleBatch(new ArrayList<>(sessions.values()), SCHEDULING_BUDGET, true));
+        }
+        return lines;
+    }
+
+    /**
+     * Export all rooms, speakers and events to the given file. Speakers' passwords are exported hashed.
+     * @param filename the name of the CSV or JSON lines file to write
+     * @return true iff the program has been successfully exported
+     */
+    public boolean exportProgram(String filename) {
+        try (ProgramWriter writer = new ProgramWriter(filename, COLUMNS)) {
+            for (String roomNum : rm.getAllRoomNum()) {
+                Map<String, String> row = new HashMap<>();
+                row.put("type", "Room");
+                row.put("number", roomNum);
+                row.put("capacity", String.valueOf(rm.getCapacity(roomNum)));
+                writer.writeRow(row);
+            }
+            for (String speaker : um.getAllSpeaker()) {
+                Map<String, String> row = new HashMap<>();
+                row.put("type", "Speaker");
+                row.put("username", speaker);
+                row.put("password", um.getStoredPassword(speaker));
+                writer.writeRow(row);
+            }
+            for (String title : em.getAllEventTitle()) {
+                LocalDateTime start = em.getStartTimeByTitle(title);
+                LocalDateTime end = em.getEndTimeByTitle(title);
+                Map<String, String> row = new HashMap<>();
+                row.put("type", "Event");
+                row.put("title", title);
+                row.put("vip", em.VIP(title) ? "yes" : "no");
+                row.put("start_date", start.format(DATE));
+                row.put("end_date", end.format(DATE));
+                row.put("start_time", start.format(TIME));
+                row.put("end_time", end.format(TIME));
+                row.put("room", em.getRoomNumByTitle(title));
+                row.put("speakers", String.join(";", em.getSpeakerUsernameByTitle(title)));
+                row.put("max", String.valueOf(em.getMaxNumByTitle(title)));
+                writer.writeRow(row);
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    // checks everything about a row that does not depend on the rest of the program (required columns, numbers,
+    // dates and times), so the events are parsed only once
+    private ParsedRow parseRow(int lineNum, Map<String, String> fields, ImportReport report) {
+        String type = value(fields, "type").toLowerCase(Locale.ROOT);
+        switch (type) {
+            case "room": {
+                String number = value(fields, "number");
+                Integer capacity = parsePositive(value(fields, "capacity"));
+                if (number.isEmpty()) {
+                    report.reject(lineNum, "Uh-oh! The room number is missing.");
+                } else if (capacity == null) {
+                    report.reject(lineNum, "Uh-oh! The room capacity should be a positive integer.");
+                } else {
+                    return new ParsedRow(lineNum, type, number, capacity, null, null);
+                }
+                return null;
+            }
+            case "speaker": {
+                String username = value(fields, "username");
+                if (username.isEmpty()) {
+                    report.reject(lineNum, "Uh-oh! The speaker username is missing.");
+                    return null;
+                }
+                return new ParsedRow(lineNum, type, username, 0, value(fields, "password"), null);
+            }
+            case "event": {
+                String vip = value(fields, "vip").toLowerCase(Locale.ROOT);
+                if (!vip.isEmpty() && !Arrays.asList("yes", "no", "true", "false").contains(vip)) {
+                    report.reject(lineNum, "Uh-oh! The vip column should be 'yes' or 'no'.");
+                    return null;
+                }
+                Integer max = parsePositive(value(fields, "max"));
+                List<String> speakers = new ArrayList<>();
+                for (String speaker : value(fields, "speakers").split(";")) {
+                    if (!speaker.trim().isEmpty()) {
+                        speakers.add(speaker.trim());
+                    }
+                }
+                EventProposal proposal = EventProposal.parse(vip.equals("yes") || vip.equals("true"),
+                        value(fields, "title"), value(fields, "start_date"), value(fields, "end_date"),
+                        value(fields, "start_time"), value(fields, "end_time"), value(fields, "room"),
+                        max == null ? 0 : max, speakers);
+                return new ParsedRow(lineNum, type, null, 0, null, proposal);
+            }
+            default:
+                report.reject(lineNum, "Uh-oh! The type should be Room, Speaker, Event or Session.");
+                return null;
+        }
+    }
+
+    // adds the time window of a Session row to the session with its title, creating the session for its first row
+    private void parseSession(int lineNum, Map<String, String> fields, Map<String, SessionRequest> sessions,
+                              ImportReport report) {
+        String title = value(fields, "title");
+        String vip = value(fields, "vip").toLowerCase(Locale.ROOT);
+        Integer max = parsePositive(value(fields, "max"));
+        Integer duration = parsePositive(value(fields, "duration"));
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            start = LocalDateTime.of(LocalDate.parse(value(fields, "start_date"), DATE),
+                    LocalTime.parse(value(fields, "start_time"), TIME));
+            end = LocalDateTime.of(LocalDate.parse(value(fields, "end_date"), DATE),
+                    LocalTime.parse(value(fields, "end_time"), TIME));
+        } catch (DateTimeParseException e) {
+            report.reject(lineNum, "Uh-oh! The session dates should be YYYYMMDD and the times HH:MM:SS.");
+            return;
+        }
+        if (title.isEmpty()) {
+            report.reject(lineNum, "Uh-oh! The session title is missing.");
+        } else if (!vip.isEmpty() && !Arrays.asList("yes", "no", "true", "false").contains(vip)) {
+            report.reject(lineNum, "Uh-oh! The vip column should be 'yes' or 'no'.");
+        } else if (max == null || duration == null) {
+            report.reject(lineNum, "Uh-oh! The session max and duration should be positive integers.");
+        } else if (start.plusMinutes(duration).isAfter(end)) {
+            report.reject(lineNum, "Uh-oh! The session does not fit between its start and end.");
+        } else {
+            List<String> speakers = new ArrayList<>();
+            for (String speaker : value(fields, "speakers").split(";")) {
+                if (!speaker.trim().isEmpty()) {
+                    speakers.add(speaker.trim());
+                }
+            }
+            sessions.computeIfAbsent(title, t -> new SessionRequest(t, speakers, max, Duration.ofMinutes(duration),
+                    vip.equals("yes") || vip.equals("true"))).addWindow(start, end);
+        }
+    }
+
+    // checks each row against the rooms, speakers and events created so far and creates it if it is valid; the
+    // speakers' passwords are hashed for the whole batch at once, on every core, before the batch takes the lock
+    private void applyBatch(List<ParsedRow> batch, ImportReport report) {
+        List<String> passwords = new ArrayList<>();
+        for (ParsedRow row : batch) {
+            if (row.getType().equals("speaker") && !row.getPassword().isEmpty()
+                    && !PasswordHasher.isHashed(row.getPassword())) {
+                passwords.add(row.getPassword());
+            }
+        }
+        Iterator<String> hashes = hasher.hashAll(passwords).iterator();
+        tm.run(() -> applyRows(batch, hashes, report));
+    }
+
+    private void applyRows(List<ParsedRow> batch, Iterator<String> hashes, ImportReport report) {
+        for (ParsedRow row : batch) {
+            switch (row.getType()) {
+                case "room":
+                    if (ss.addRoom(row.getName(), row.getCapacity())) {
+                        report.rooms++;
+                    } else {
+                        report.reject(row.getLineNum(), "Uh-oh! Room " + row.getName() + " already exists.");
+                    }
+                    break;
+                case "speaker":
+                    String password = row.getPassword();
+                    String hash = password.isEmpty() || PasswordHasher.isHashed(password) ? password : hashes.next();
+                    if (um.isUsernameTaken(row.getName())) {
+                        report.reject(row.getLineNum(), "Uh-oh! The username " + row.getName() + " has already been taken.");
+                    } else if (hash.isEmpty()) {
+                        report.reject(row.getLineNum(), "Uh-oh! A password is needed to create the speaker account.");
+                    } else if (!hasher.isValidHash(hash)) {
+                        report.reject(row.getLineNum(), "Uh-oh! The password hash is not valid.");
+                    } else {
+                        um.createSpeakerAccount(row.getName(), hash);
+                        report.speakers++;
+                    }
+                    break;
+                case "event":
+                    EventProposal proposal = row.getProposal();
+                    List<String> violations = ss.addEvent(proposal, !proposal.getSpeakerUserNames().isEmpty());
+                    if (violations.isEmpty()) {
+                        report.events++;
+                    } else {
+                        report.reject(row.getLineNum(), String.join(" ", violations));
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static String value(Map<String, String> fields, String column) {
+        String value = fields.get(column);
+        return value == null ? "" : value.trim();
+    }
+
+    private static Integer parsePositive(String value) {
+        try {
+            int number = Integer.parseInt(value);
+            return number > 0 ? number : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static class ParsedRow {
+        private final int lineNum;
+        private final String type;
+        private final String name;
+        private final int capacity;
+        private final String password;
+        private final EventProposal proposal;
+
+        ParsedRow(int lineNum, String type, String name, int capacity, String password, EventProposal proposal) {
+            this.lineNum = lineNum;
+            this.type = type;
+            this.name = name;
+            this.capacity = capacity;
+            this.password = password;
+            this.proposal = proposal;
+        }
+
+        int getLineNum() { return lineNum; }
+
+        String getType() { return type; }
+
+        String getName() { return name; }
+
+        int getCapacity() { return capacity; }
+
+        String getPassword() { return password; }
+
+        EventProposal getProposal() { return proposal; }
+    }
+
+    // counts what was imported and keeps only the first few error messages, so a bad file cannot fill up memory
+    private static class ImportReport {
+        private int rooms;
+        private int speakers;
+        private int events;
+        private int rejected;
+        private final List<String> errors = new ArrayList<>();
+
+        void reject(int lineNum, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + lineNum + ": " + message);
+            }
+        }
+
+        void fail(String message) {
+            errors.add(message);
+        }
+
+        List<String> getLines() {
+            List<String> lines = new ArrayList<>();
+            lines.add("Imported " + rooms + " room(s), " + speakers + " speaker(s) and " + events + " event(s); "
+                    + rejected + " row(s) rejected.");
+            lines.addAll(errors);
+            if (rejected > MAX_REPORTED_ERRORS) {
+                lines.add("... and " + (rejected - MAX_REPORTED_ERRORS) + " more rejected row(s).");
+            }
+            return lines;
+        }
+    }
+}
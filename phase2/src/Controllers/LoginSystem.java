@@ -1,37 +1,107 @@
 package Controllers;
 
-import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import UseCase.PasswordHasher;
+import UseCase.TransactionManager;
 import UseCase.UserManager;
 
 /**
  * How Users or any type are able to login into the app. The run method will also hold information on what Usertype it
  * is in userType to be used in the corresponding UserMenu.
- *
+ * <p>
+ * Passwords are hashed with a PasswordHasher. Hashing is slow on purpose, so it is done on the hasher's pool and never
+ * while holding the transaction lock: only reading and replacing the stored password run as transactions. A password
+ * stored as plain text or at an old cost is hashed again the next time its user logs in.
  */
-public class LoginSystem implements Serializable {
+public class LoginSystem {
     UserManager manager;
+    PasswordHasher hasher;
+    TransactionManager tm;
 
     /**
      * Constructor for loginSystem
      * @param manager The usermanager to execute the class
+     * @param hasher The PasswordHasher passwords are hashed and checked with
+     * @param tm The TransactionManager the users are read and changed in
      */
-    public LoginSystem(UserManager manager) {
+    public LoginSystem(UserManager manager, PasswordHasher hasher, TransactionManager tm) {
         this.manager = manager;
+        this.hasher = hasher;
+        this.tm = tm;
     }
 
     /**
      *
      * @param enteredUsername The Username the User inputs
      * @param enteredPassword The Password the User inputs
-     * @return Need to create the UI for the menus for this to make sense. Perhaps return the User type and call on
-     * the UI class?
+     * @return true iff the user exists and the password is theirs
+     * @throws java.util.concurrent.RejectedExecutionException if too many people are logging in at once
      */
     public boolean verifyLogin(String enteredUsername, String enteredPassword) {
-        boolean verified = false;
-        if (manager.credentialAuthorization(enteredUsername, enteredPassword)) {
-            verified = true;
+        String stored = tm.execute(() -> manager.getStoredPassword(enteredUsername));
+        if (stored == null) {
+            return false;
         }
-        return verified;
+        return hasher.submit(() -> {
+            if (!hasher.verify(enteredPassword, stored)) {
+                return false;
+            }
+            if (hasher.needsRehash(stored)) {
+                String rehashed = hasher.hash(enteredPassword);
+                tm.execute(() -> manager.replaceStoredPassword(enteredUsername, stored, rehashed));
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Create an account, hashing its password first
+     * @param type "Attendee", "Organizer" or "Speaker"
+     * @param username The username of the account
+     * @param password The password of the account
+     * @return true iff the account was created, false if the username has already been taken (or is reserved)
+     * @throws java.util.concurrent.RejectedExecutionException if too many people are logging in at once
+     */
+    public boolean createAccount(String type, String username, String password) {
+        if (tm.execute(() -> manager.isUsernameTaken(username))) {
+            return false;
+        }
+        String hash = hasher.submit(() -> hasher.hash(password));
+        return tm.execute(() -> {
+            switch (type) {
+                case "Organizer":
+                    return manager.createOrganizerAccount(username, hash);
+                case "Speaker":
+                    return manager.createSpeakerAccount(username, hash);
+                default:
+                    return manager.createAttendeeAccount(username, hash);
+            }
+        });
+    }
+
+    /**
+     * Hash every password still stored as plain text (ex. after loading a save made before passwords were hashed)
+     * @return the number of passwords hashed
+     */
+    public int migratePasswords() {
+        Map<String, String> plainText = tm.execute(manager::getPlainTextPasswords);
+        List<String> usernames = new ArrayList<>(plainText.keySet());
+        List<String> passwords = new ArrayList<>();
+        for (String username : usernames) {
+            passwords.add(plainText.get(username));
+        }
+        List<String> hashes = hasher.hashAll(passwords);
+        return tm.execute(() -> {
+            int migrated = 0;
+            for (int i = 0; i < usernames.size(); i++) {
+                if (manager.replaceStoredPassword(usernames.get(i), passwords.get(i), hashes.get(i))) {
+                    migrated++;
+                }
+            }
+            return migrated;
+        });
     }
 
     /**
@@ -45,4 +115,4 @@ public class LoginSystem implements Serializable {
     }
 
 
-}
\ No newline at end of file
+}
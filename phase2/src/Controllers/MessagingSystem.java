@@ -1,6 +1,11 @@
 package Controllers;
+import UseCase.Audience;
+import UseCase.ChangeListener;
 import UseCase.ChatManager;
+import UseCase.DomainEvent;
+import UseCase.DomainEventBus;
 import UseCase.EventManager;
+import UseCase.SessionRegistry;
 import UseCase.UserManager;
 
 import java.io.File;
@@ -15,20 +20,36 @@ import java.util.*;
  * @author William Wang and Kailas Moon
  */
 public class MessagingSystem {
+    /**
+     * The sender shown on messages the conference sends by itself (ex. waitlist notices); no user can have this name
+     */
+    public static final String SYSTEM_SENDER = UserManager.SYSTEM_USERNAME;
+
     private final ChatManager userChatManager;
     private final UserManager userManager;
     private final EventManager eventManager;
+    private final SessionRegistry sessions;
+    private final DomainEventBus bus;
+    private final Map<String, UUID> watchedChats;                 // maps username to the chat they are watching
+    private final Map<String, ChangeListener> watchers;           // maps username to what tells them about it
 
     /**
      * Creates the Messaging System
      * @param chatManager The chat manager
      * @param userManager The user manager
      * @param eventManager The event manager
+     * @param sessions The session registry the chats of logged in users are cached in
+     * @param bus The domain event bus sent messages are published on
      */
-    public MessagingSystem(ChatManager chatManager, UserManager userManager, EventManager eventManager) {
+    public MessagingSystem(ChatManager chatManager, UserManager userManager, EventManager eventManager,
+                           SessionRegistry sessions, DomainEventBus bus) {
         this.userChatManager = chatManager;
         this.userManager = userManager;
         this.eventManager = eventManager;
+        this.sessions = sessions;
+        this.bus = bus;
+        this.watchedChats = new HashMap<>();
+        this.watchers = new HashMap<>();
     }
 
     /**
@@ -58,7 +79,7 @@ public class MessagingSystem {
      * @return A map of chat ids to their respective lists of new messages (message ids)
      */
     public Map<UUID, List<UUID>> viewAllNewMessages(String userName, Boolean peek){
-        List<UUID> userChats = userChatManager.getUserChats(userName);  //includes archived chats
+        List<UUID> userChats = sessions.getUserChats(userName);  //includes archived chats
         Map<UUID, List<UUID>> newMessages = new HashMap<>();
         for (UUID id: userChats){
             List<UUID> chatNewMessages = userChatManager.getNewMessages(userName, id, peek);
@@ -82,6 +103,62 @@ public class MessagingSystem {
         return userChatManager.getChatMessages(username, chatId);
     }
 
+    /**
+     * Open a chat to read it a page at a time, which marks it as read
+     * @param username The username of the current user
+     * @param chatId The id of the chat
+     * @return The number of messages in the chat
+     */
+    public int openChat(String username, UUID chatId) {
+        return userChatManager.getChatMessageCount(username, chatId);
+    }
+
+    /**
+     * Start telling a user whenever messages are sent to or deleted from a chat (ex. while the chat is on their
+     * screen), instead of the previous chat they watched. Reading, archiving and so on are not messages, so they are
+     * not told about.
+     * @param username The username of the current user
+     * @param chatId The id of the chat
+     * @param changed What to run when the messages change; it runs on the thread sending or deleting the message, so
+     *                it should only hand the work to another thread
+     */
+    public void watchChat(String username, UUID chatId, Runnable changed) {
+        unwatchChat(username);
+        ChangeListener watcher = change -> {
+            if (change.getUsername() == null) {     // the change is to the chat itself, not to one member's view of it
+                changed.run();
+            }
+        };
+        userChatManager.addChatListener(chatId, watcher);
+        watchedChats.put(username, chatId);
+        watchers.put(username, watcher);
+    }
+
+    /**
+     * Stop telling a user about the chat they are watching, if any
+     * @param username The username of the current user
+     */
+    public void unwatchChat(String username) {
+        UUID chatId = watchedChats.remove(username);
+        if (chatId != null) {
+            userChatManager.removeChatListener(chatId, watchers.remove(username));
+        }
+    }
+
+    /**
+     * View one page of the messages of a chat
+     * @param chatId The id of the chat
+     * @param page The page number, starting at 0
+     * @param pageSize The number of messages on a page
+     * @return The message ids on the page (empty if the page is past the last message)
+     */
+    public List<UUID> viewChatMessagePage(UUID chatId, int page, int pageSize) {
+        if (page < 0 || pageSize <= 0) {
+            return new ArrayList<>();
+        }
+        return userChatManager.getChatMessagePage(chatId, page * pageSize, pageSize);
+    }
+
     /**
      * get sender of a message
      * @param chatId The id of the chat
@@ -136,7 +213,7 @@ public class MessagingSystem {
      * @return The list of the user's chats
      */
     public List<UUID> getCurrentChats(String userName) {
-        List<UUID> allUserChats = userChatManager.getUserChats(userName);
+        List<UUID> allUserChats = sessions.getUserChats(userName);
         List<UUID> archivedChats = userChatManager.getArchivedChats(userName);
         for (UUID chatId : archivedChats) {
             if (userChatManager.areNewMessages(userName, chatId)) { //removes chat from being unarchived if new messages are received
@@ -151,14 +228,14 @@ public class MessagingSystem {
 
     /**
      * send a message to a list of users. Each message is sent in an individual chat.
-     * @param usernames The usernames that the message is being sent to
+     * @param usernames The usernames that the message is being sent to (ex. a list or an Audience)
      * @param senderUsername The username of the sender
      * @param time The time the message was sent
      * @param content The content of the message
      * @param imagePath The file path of the image
      * @return Null if message was sent successfully or an error message otherwise.
      */
-    public String sendMessageToUsers(List<String> usernames, String senderUsername, LocalDateTime time, String content, String imagePath) {
+    public String sendMessageToUsers(Iterable<String> usernames, String senderUsername, LocalDateTime time, String content, String imagePath) {
         if (content.length() == 0 && imagePath.length() ==0) {
             return "You cannot send an empty message.";
         }
@@ -172,12 +249,15 @@ public class MessagingSystem {
             return "IO exception occurred.";
         }
 
+        int sent = 0;
+        Map<String, UUID> senderChats = userChatManager.getTwoPersonChats(senderUsername); // the chats are scanned once, not once per user
         for (String username : usernames) {
-            List<String> thisChatUsernames = new ArrayList<>(Arrays.asList(senderUsername, username));
-            UUID chat = userChatManager.getChatContainingUsers(thisChatUsernames); // Get the chat between the sender and the recipient
+            sent++;
+            UUID chat = senderChats.get(username); // Get the chat between the sender and the recipient
 
             if (chat == null) {
-                chat = userChatManager.createChat(thisChatUsernames); // If no such chat exists, create it
+                chat = userChatManager.createChat(new ArrayList<>(Arrays.asList(senderUsername, username))); // If no such chat exists, create it
+                senderChats.put(username, chat);
             }
             if (!imageString.isEmpty()) { //If the Base64 String is not empty, then call sendImageMessageToChat
                 userChatManager.sendImageMessageToChat(chat, senderUsername, time, content, imageString); //send an image/message
@@ -188,9 +268,25 @@ public class MessagingSystem {
                 userChatManager.unarchiveChat(senderUsername, chat);
             }
         }
+        if (sent > 0) {
+            bus.publish(new DomainEvent.MessageSent(senderUsername, sent, time));
+        }
         return null;
     }
 
+    /**
+     * Send the same notice from the conference to a batch of users.
+     * @param usernames The usernames that the notice is being sent to
+     * @param content The content of the notice
+     * @return Null if the notice was sent successfully or an error message otherwise.
+     */
+    public String systemMessageUsers(List<String> usernames, String content) {
+        if (usernames.isEmpty()) {
+            return null;
+        }
+        return sendMessageToUsers(usernames, SYSTEM_SENDER, LocalDateTime.now(), content, "");
+    }
+
     /**
      * delete a user's message from a chat
      * @param username the username of the user
@@ -245,7 +341,7 @@ public class MessagingSystem {
      * @return Null if the message was successfully sent, or an error message otherwise
      */
     public String organizerMessageAllAttendees(String senderUsername, String content, String imagePath) {
-        List<String> allAttendees = userManager.getAllAttendee();
+        Audience allAttendees = userManager.getUsersOfType("Attendee");
         return sendMessageToUsers(allAttendees, senderUsername, LocalDateTime.now(), content, imagePath);
     }
 
@@ -257,7 +353,7 @@ public class MessagingSystem {
      * @return Null if the message was successfully sent, or an error message otherwise
      */
     public String organizerMessageAllSpeakers(String senderUsername, String content, String imagePath) {
-        List<String> allSpeakers = userManager.getAllSpeaker();
+        Audience allSpeakers = userManager.getUsersOfType("Speaker");
         return sendMessageToUsers(allSpeakers, senderUsername, LocalDateTime.now(), content, imagePath);
     }
 
@@ -270,29 +366,14 @@ public class MessagingSystem {
      * @return An error message, or null if there are no errors.
      */
     public String speakerMessageEventAttendees(String senderUsername, List<String> eventTitles, String content, String imagePath) {
-        List<String> allEvents = eventManager.getAllEventTitle();
-        List<String> recipients = new ArrayList<>();
-
         for (String title: eventTitles) {
-            boolean found = false;
-            for (String event : allEvents) {
-                if (event.equals(title)) {
-                    if (eventManager.getSpeakerUsernameByTitle(event).contains(senderUsername)) {
-                        found = true;
-                        for (String recipient: eventManager.getAllAttendeesByTitle(event)) {
-                            if (!recipients.contains(recipient)) {
-                                recipients.add(recipient);
-                            }
-                        }
-                    } else {
-                        return "Sender is not the speaker of " + title;
-                    }
-                }
-            }
-            if (!found) {
+            if (!eventManager.isEventExist(title)) {
                 return "No event with title " + title + " found.";
+            } else if (!eventManager.getSpeakerUsernameByTitle(title).contains(senderUsername)) {
+                return "Sender is not the speaker of " + title;
             }
         }
+        Audience recipients = eventManager.getEventAudience(eventTitles, false);
         return sendMessageToUsers(recipients, senderUsername, LocalDateTime.now(), content, imagePath);
     }
 
@@ -305,34 +386,37 @@ public class MessagingSystem {
      * @return An error message, or null if there are no errors.
      */
     public String organizerMessageEventSpeakersAndAttendees(String senderUsername, List<String> eventTitles, String content, String imagePath) {
-        List<String> allEvents = eventManager.getAllEventTitle();
-        List<String> recipients = new ArrayList<>();
-
-        for (String title: eventTitles) {
-            boolean found = false;
-            for (String event : allEvents) {
-                if (event.equals(title)) {
-                    found = true;
-                    for (String recipient: eventManager.getAllAttendeesByTitle(event)) {
-                        if (!recipients.contains(recipient)) {
-                            recipients.add(recipient);
-                        }
-                    }
-                    for (String recipient: eventManager.getSpeakerUsernameByTitle(event)) {
-                        if (!recipients.contains(recipient)) {
-                            recipients.add(recipient);
-                        }
-                    }
-                }
-            }
-            if (!found) {
-                return "No event with title " + title + " found.";
-            }
+        String error = helperCheckEventsExist(eventTitles);
+        if (error != null) {
+            return error;
         }
+        Audience recipients = eventManager.getEventAudience(eventTitles, true);
         sendMessageToUsers(recipients, senderUsername, LocalDateTime.now(), content, imagePath);
         return null;
     }
 
+    /**
+     * method for organizers to send a message to the attendees of some events, optionally only the VIPs or only the
+     * people who are not VIPs
+     * @param senderUsername The username of the sender
+     * @param eventTitles The list of event titles
+     * @param vip true to message only VIPs, false to message only people who are not VIPs, null to message everyone
+     * @param content The content of the message
+     * @param imagePath The image path
+     * @return An error message, or null if there are no errors.
+     */
+    public String organizerMessageEventAttendees(String senderUsername, List<String> eventTitles, Boolean vip, String content, String imagePath) {
+        String error = helperCheckEventsExist(eventTitles);
+        if (error != null) {
+            return error;
+        }
+        Audience recipients = eventManager.getEventAudience(eventTitles, false);
+        if (vip != null) {
+            recipients = vip ? recipients.and(userManager.getVIPs()) : recipients.andNot(userManager.getVIPs());
+        }
+        return sendMessageToUsers(recipients, senderUsername, LocalDateTime.now(), content, imagePath);
+    }
+
     /**
      * Add friends to message
      * @param mainUserUsername the current user
@@ -365,13 +449,84 @@ public class MessagingSystem {
     }
 
     /**
-     * Get a message id by index
+     * Get the users both users have added as friends
+     * @param usernameA the username of the first user
+     * @param usernameB the username of the second user
+     * @return the usernames of their mutual friends, in alphabetical order
+     */
+    public List<String> getMutualFriends(String usernameA, String usernameB) {
+        return userManager.getMutualFriends(usernameA, usernameB);
+    }
+
+    /**
+     * Get the friends of a user who have signed up for an event
+     * @param username the username of the user
+     * @param eventTitle the title of the event
+     * @return the usernames of the user's friends attending the event, or null if there is no such event
+     */
+    public List<String> getFriendsAttending(String username, String eventTitle) {
+        if (!eventManager.isEventExist(eventTitle)) {
+            return null;
+        }
+        return userManager.getFriendsAmong(username, eventManager.getAllAttendeesByTitle(eventTitle));
+    }
+
+    /**
+     * Suggest people for a user to add as friends: the attendees who go to the most of the same events as the user.
+     * Organizers are never suggested, and speakers get no suggestions since they can only add attendees who have
+     * messaged them.
+     * @param username the username of the user
+     * @param limit the most suggestions to return
+     * @return the suggested usernames, the ones sharing the most events first
+     */
+    public List<String> suggestFriends(String username, int limit) {
+        List<List<String>> groups = new ArrayList<>();
+        if (userManager.userType(username).equals("Speaker")) {
+            return new ArrayList<>();
+        }
+        for (String title : userManager.getEventAttending(username)) {
+            List<String> attendees = new ArrayList<>();
+            for (String attendee : eventManager.getAllAttendeesByTitle(title)) {
+                if (!userManager.userType(attendee).equals("Organizer")) {
+                    attendees.add(attendee);
+                }
+            }
+            groups.add(attendees);
+        }
+        return userManager.suggestFriends(username, groups, limit);
+    }
+
+    /**
+     * Get a chat of a user by its handle. A handle stays the same while other chats are created or archived, so it can
+     * be kept between calls instead of looking the chat up again by its position in the list.
+     * @param username The username of the user
+     * @param chatHandle The handle of the chat, as given by getHandle
+     * @return The id of the chat, or null if the user has no chat with that handle
+     */
+    public UUID getChatByHandle(String username, String chatHandle) {
+        UUID chatId = fromHandle(chatHandle);
+        return chatId != null && userChatManager.isChatMember(username, chatId) ? chatId : null;
+    }
+
+    /**
+     * Get a message of a chat by its handle
+     * PRECONDITION : the chat exists
      * @param chatId The id of the chat
-     * @param messageIndex The index of the chat
-     * @return The message id corresponding to the index or null if index is out of bounds
+     * @param messageHandle The handle of the message, as given by getHandle
+     * @return The id of the message, or null if the chat has no message with that handle (ex. it has been deleted)
+     */
+    public UUID getMessageByHandle(UUID chatId, String messageHandle) {
+        UUID messageId = fromHandle(messageHandle);
+        return messageId != null && userChatManager.doesMessageExist(chatId, messageId) ? messageId : null;
+    }
+
+    /**
+     * Get the handle of a chat or message, for front ends to refer to it by
+     * @param id The id of the chat or message
+     * @return The handle
      */
-    public UUID getMessageByIndex(UUID chatId, int messageIndex) {
-        return userChatManager.getMessageUUIDbyIndex(chatId, messageIndex);
+    public String getHandle(UUID id) {
+        return id.toString();
     }
 
     /**
@@ -397,6 +552,15 @@ public class MessagingSystem {
 
 //-----------------------------------------Private Methods-------------------------------------------
 
+    private String helperCheckEventsExist(List<String> eventTitles) {
+        for (String title : eventTitles) {
+            if (!eventManager.isEventExist(title)) {
+                return "No event with title " + title + " found.";
+            }
+        }
+        return null;
+    }
+
     private String imageToBase64(String imagePath) {
         if (!imagePath.equals("")) { //Checks to see if imageString is not empty
             String extension = imagePath.substring(imagePath.lastIndexOf(".")+1);
@@ -423,5 +587,14 @@ public class MessagingSystem {
         return "";  //if image path is empty
     }
 
+    // handles are ids as strings; a string that is not one is not the handle of anything
+    private static UUID fromHandle(String handle) {
+        try {
+            return UUID.fromString(handle);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
 }
 
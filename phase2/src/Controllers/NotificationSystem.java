@@ -0,0 +1,76 @@
+package Controllers;
+
+import UseCase.DomainEvent;
+import UseCase.DomainEventBus;
+import UseCase.TransactionManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A controller class that tells users about changes to their events (ex. an event was cancelled), by subscribing to
+ * the DomainEventBus instead of being called by the controllers that make the changes.
+ * <p>
+ * Notices are sent on the bus's thread for this subscriber, after the change has committed, so cancelling a large
+ * event returns before its attendees have been messaged. They are sent in the order the changes were made, to at most
+ * 500 users per transaction, so the lock is let go between batches and a large event does not hold up everyone else.
+ */
+public class NotificationSystem {
+    private static final int BATCH_SIZE = 500;
+
+    MessagingSystem ms;
+    TransactionManager tm;
+
+    /**
+     * Constructor for NotificationSystem. Subscribes to the events users are told about.
+     * @param ms the MessagingSystem used to send the notices
+     * @param tm the TransactionManager the notices are sent in
+     * @param bus the DomainEventBus the changes are published on
+     */
+    public NotificationSystem(MessagingSystem ms, TransactionManager tm, DomainEventBus bus) {
+        this.ms = ms;
+        this.tm = tm;
+        bus.subscribe("notifications", DomainEvent.class, this::handle);
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private void handle(DomainEvent event) {
+        if (event instanceof DomainEvent.EventCancelled) {
+            DomainEvent.EventCancelled cancelled = (DomainEvent.EventCancelled) event;
+            String content = "ANNOUNCEMENT: One of the events you are participating in: " + cancelled.getTitle()
+                    + " has been cancelled! ";
+            inBatches(tm.execute(() -> usernames(cancelled.getAudience())), batch -> ms.sendMessageToUsers(batch,
+                    cancelled.getOrganizer(), cancelled.getTime(), content, ""));
+        } else if (event instanceof DomainEvent.CapacityChanged) {
+            DomainEvent.CapacityChanged changed = (DomainEvent.CapacityChanged) event;
+            String content = "ANNOUNCEMENT: One of the events you are participating in: " + changed.getTitle()
+                    + " has been updated to allow " + changed.getCapacity() + " attendee(s)! ";
+            inBatches(tm.execute(() -> usernames(changed.getAudience())), batch -> ms.sendMessageToUsers(batch,
+                    changed.getOrganizer(), changed.getTime(), content, ""));
+        } else if (event instanceof DomainEvent.WaitlistPromoted) {
+            DomainEvent.WaitlistPromoted promoted = (DomainEvent.WaitlistPromoted) event;
+            String content = "A spot opened up in " + promoted.getTitle()
+                    + ", so you have been taken off the waitlist and signed up for it!";
+            inBatches(promoted.getPromoted(), batch -> ms.systemMessageUsers(batch, content));
+        }
+    }
+
+    // sends to each batch of recipients in a transaction of its own
+    private void inBatches(List<String> recipients, Consumer<List<String>> send) {
+        for (int from = 0; from < recipients.size(); from += BATCH_SIZE) {
+            List<String> batch = recipients.subList(from, Math.min(from + BATCH_SIZE, recipients.size()));
+            tm.run(() -> send.accept(batch));
+        }
+    }
+
+    // the audience reads the shared user ids, so it is turned into usernames while holding the lock
+    private static List<String> usernames(Iterable<String> audience) {
+        List<String> usernames = new ArrayList<>();
+        for (String username : audience) {
+            usernames.add(username);
+        }
+        return usernames;
+    }
+}
@@ -0,0 +1,208 @@
+package Controllers;
+
+import UseCase.EventManager;
+import UseCase.TransactionManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A controller class that reminds the attendees and speakers of an event that it is about to start.
+ * <p>
+ * Reminders are sent at set times before the start of each event (by default a day and 15 minutes before). Every
+ * upcoming reminder is kept in one priority queue ordered by when it is due, and a single timer thread checks the head
+ * of the queue every tick, so no thread is needed per event. All reminders of an event that are due in the same tick
+ * are sent together as one message. The queue is not saved; it is built again from EventManager whenever a conference
+ * is loaded. A reminder whose event was cancelled or moved since it was queued is dropped when it comes due. Reminders
+ * are sent inside a transaction, so an event cannot be cancelled or moved while its reminder is being sent.
+ */
+public class ReminderSystem {
+    /**
+     * How long before the start of an event reminders are sent, unless set otherwise
+     */
+    public static final List<Duration> DEFAULT_OFFSETS = Arrays.asList(Duration.ofDays(1), Duration.ofMinutes(15));
+
+    private static final long TICK_SECONDS = 30;
+    private static final DateTimeFormatter FORMATTER =
+            DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM, FormatStyle.SHORT);
+
+    EventManager em;
+    MessagingSystem ms;
+    TransactionManager tm;
+    private List<Duration> offsets;
+    private final PriorityQueue<Reminder> queue;
+    private ScheduledExecutorService timer;     // null until started
+
+    /**
+     * Constructor for ReminderSystem. Queues the reminders of every upcoming event.
+     * @param em the EventManager for this execution of the program
+     * @param ms the MessagingSystem used to send the reminders
+     * @param tm the TransactionManager the reminders are sent in
+     */
+    public ReminderSystem(EventManager em, MessagingSystem ms, TransactionManager tm) {
+        this.em = em;
+        this.ms = ms;
+        this.tm = tm;
+        this.offsets = new ArrayList<>(DEFAULT_OFFSETS);
+        this.queue = new PriorityQueue<>(Comparator.comparing(Reminder::getDue));
+        rebuild();
+    }
+
+    /**
+     * Start the timer, which sends the reminders from a thread of its own, so the managers must only be changed inside
+     * transactions from then on
+     */
+    public synchronized void start() {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "event-reminders");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.scheduleWithFixedDelay(() -> sendDueReminders(LocalDateTime.now()), TICK_SECONDS, TICK_SECONDS,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Set how long before the start of an event reminders are sent, and queue the reminders again
+     * @param offsets the times before the start of an event; offsets that are not positive are ignored
+     */
+    public synchronized void setOffsets(List<Duration> offsets) {
+        this.offsets = new ArrayList<>();
+        for (Duration offset : offsets) {
+            if (!offset.isNegative() && !offset.isZero() && !this.offsets.contains(offset)) {
+                this.offsets.add(offset);
+            }
+        }
+        rebuild();
+    }
+
+    /**
+     * Throw away the queued reminders and queue the reminders of every upcoming event again. Reminders that would have
+     * been due already are not sent.
+     */
+    public synchronized void rebuild() {
+        queue.clear();
+        LocalDateTime now = LocalDateTime.now();
+        for (String title : em.getEventTitlesBetween(now, LocalDateTime.MAX, null, null)) {
+            helperQueue(title, now);
+        }
+    }
+
+    /**
+     * Queue the reminders of a newly created event
+     * @param eventTitle the event title
+     */
+    public synchronized void scheduleEvent(String eventTitle) {
+        if (em.isEventExist(eventTitle)) {
+            helperQueue(eventTitle, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Send every reminder that is due. Called every tick by the timer.
+     * @param now the current time
+     * @return the titles of the events reminders were sent for
+     */
+    public List<String> sendDueReminders(LocalDateTime now) {
+        return tm.execute(() -> {
+            // the reminders of an event due in the same tick become one message, for the offset closest to the start
+            Map<String, Reminder> due = new LinkedHashMap<>();
+            synchronized (this) {
+                while (!queue.isEmpty() && !queue.peek().getDue().isAfter(now)) {
+                    Reminder reminder = queue.poll();
+                    if (em.isEventExist(reminder.getTitle())
+                            && em.getStartTimeByTitle(reminder.getTitle()).equals(reminder.getStart())) {
+                        due.put(reminder.getTitle(), reminder);
+                    }
+                }
+            }
+            for (Reminder reminder : due.values()) {
+                String title = reminder.getTitle();
+                List<String> recipients = new ArrayList<>(em.getAllAttendeesByTitle(title));
+                recipients.addAll(em.getSpeakerUsernameByTitle(title));
+                ms.systemMessageUsers(recipients, "Reminder: " + title + " starts in " + describe(reminder.getOffset())
+                        + " (" + reminder.getStart().format(FORMATTER) + ") in Room " + em.getRoomNumByTitle(title) + ".");
+            }
+            return new ArrayList<>(due.keySet());
+        });
+    }
+
+    /**
+     * Get the number of reminders waiting to be sent
+     * @return the number of queued reminders
+     */
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Stop the timer once this ReminderSystem is replaced (ex. when another conference is loaded)
+     */
+    public synchronized void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private void helperQueue(String title, LocalDateTime now) {
+        LocalDateTime start = em.getStartTimeByTitle(title);
+        for (Duration offset : offsets) {
+            LocalDateTime due = start.minus(offset);
+            if (due.isAfter(now)) {
+                queue.add(new Reminder(title, start, offset, due));
+            }
+        }
+    }
+
+    private static String describe(Duration offset) {
+        long minutes = offset.toMinutes();
+        if (minutes % (60 * 24) == 0) {
+            return plural(minutes / (60 * 24), "day");
+        } else if (minutes % 60 == 0) {
+            return plural(minutes / 60, "hour");
+        }
+        return plural(minutes, "minute");
+    }
+
+    private static String plural(long count, String unit) {
+        return count + " " + unit + (count == 1 ? "" : "s");
+    }
+
+    private static class Reminder {
+        private final String title;
+        private final LocalDateTime start;
+        private final Duration offset;
+        private final LocalDateTime due;
+
+        Reminder(String title, LocalDateTime start, Duration offset, LocalDateTime due) {
+            this.title = title;
+            this.start = start;
+            this.offset = offset;
+            this.due = due;
+        }
+
+        String getTitle() { return title; }
+
+        LocalDateTime getStart() { return start; }
+
+        Duration getOffset() { return offset; }
+
+        LocalDateTime getDue() { return due; }
+    }
+}
@@ -1,46 +1,68 @@
 package Controllers;
 
 import UseCase.RequestManager;
+import UseCase.RequestTriageManager;
+import UseCase.UserManager;
+
+import java.time.LocalDateTime;
 
 public class RequestSystem {
     RequestManager rm;
+    UserManager um;
+    RequestTriageManager triage;
 
     /**
-     * Constructor for RequestSystem
+     * Constructor for RequestSystem. Rebuilds the triage queue from the pending requests.
      * @param rm the RequestManager for this execution of the program
+     * @param um the UserManager for this execution of the program
      */
-    public RequestSystem(RequestManager rm) {
+    public RequestSystem(RequestManager rm, UserManager um) {
         this.rm = rm;
+        this.um = um;
+        this.triage = new RequestTriageManager();
+        for (Integer requestNum : rm.pendingRequestNum()){
+            enqueueRequest(requestNum);
+        }
     }
 
+    /**
+     * Create a new request and add it to the triage queue
+     * @param senderUsername the username of the sender
+     * @param content the content of the request
+     */
     public void sendRequest(String senderUsername, String content){
-        rm.createRequest(senderUsername, content);
+        int requestNum = rm.createRequest(senderUsername, content);
+        enqueueRequest(requestNum);
     }
 
     /**
-     * Mark the request as addressed
+     * Mark the request as addressed. Only the organizer holding the claim on a claimed request may mark it.
      * @param requestNum the request number that a organizer want to marked addressed
+     * @param organizerUsername the username of the organizer marking the request
      * @return true iff the request has been successfully marked as addressed
      */
-    public boolean markedAsAddressed(int requestNum){
-        if (!rm.isRequestNumValid(requestNum)){
+    public boolean markedAsAddressed(int requestNum, String organizerUsername){
+        if (!rm.isRequestNumValid(requestNum) || !mayMark(requestNum, organizerUsername)){
             return false;
         }else{
             rm.markedAsAddressed(requestNum);
+            triage.removeRequest(requestNum);
             return true;
         }
     }
 
     /**
-     * Mark the request as pending
+     * Mark the request as pending. Only the organizer holding the claim on a claimed request may mark it.
      * @param requestNum the request number that a organizer want to marked pending
+     * @param organizerUsername the username of the organizer marking the request
      * @return true iff the request has been successfully marked as addressed
      */
-    public boolean markedAsPending(int requestNum){
-        if (!rm.isRequestNumValid(requestNum)){
+    public boolean markedAsPending(int requestNum, String organizerUsername){
+        if (!rm.isRequestNumValid(requestNum) || !mayMark(requestNum, organizerUsername)){
             return false;
         }else{
             rm.markedAsPending(requestNum);
+            enqueueRequest(requestNum);
             return true;
         }
     }
@@ -52,4 +74,48 @@ public class RequestSystem {
     public String[] displayAllRequests() {
         return rm.allRequestInfo();
     }
+
+    /**
+     * Claim the pending request with the highest priority for an organizer, so no other organizer is handed the same
+     * request until it is addressed, released or the claim expires.
+     * @param organizerUsername the username of the organizer
+     * @return the request info of the claimed request, or null if there are no unclaimed pending requests
+     */
+    public String claimNextRequest(String organizerUsername){
+        Integer requestNum = triage.claimNextRequest(organizerUsername, LocalDateTime.now());
+        if (requestNum == null){
+            return null;
+        }
+        return rm.requestInfo(requestNum);
+    }
+
+    /**
+     * Give a claimed request back to the triage queue without addressing it
+     * @param requestNum the request number of the claimed request
+     * @param organizerUsername the username of the organizer who claimed it
+     * @return true iff the organizer had claimed this request
+     */
+    public boolean releaseRequest(int requestNum, String organizerUsername){
+        return triage.releaseRequest(requestNum, organizerUsername);
+    }
+
+    /**
+     * Gets the number of pending requests that no organizer has claimed
+     * @return the number of unclaimed pending requests
+     */
+    public int unclaimedRequestCount(){
+        return triage.unclaimedCount(LocalDateTime.now());
+    }
+
+    private boolean mayMark(int requestNum, String organizerUsername){
+        String claimant = triage.getClaimant(requestNum, LocalDateTime.now());
+        return claimant == null || claimant.equals(organizerUsername);
+    }
+
+    private void enqueueRequest(int requestNum){
+        String sender = rm.getRequestSender(requestNum);
+        String senderType = um.userType(sender);
+        boolean vipSender = (senderType.equals("Attendee") || senderType.equals("Organizer")) && um.isAttendeeVIP(sender);
+        triage.addRequest(requestNum, rm.getRequestContent(requestNum), rm.getRequestTime(requestNum), vipSender);
+    }
 }
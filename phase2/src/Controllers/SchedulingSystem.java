@@ -1,35 +1,56 @@
 package Controllers;
 
+import UseCase.Audience;
+import UseCase.DomainEvent;
+import UseCase.DomainEventBus;
 import UseCase.EventManager;
+import UseCase.EventProposal;
 import UseCase.RoomManager;
+import UseCase.SessionRequest;
+import UseCase.TimetableSolver;
+import UseCase.TransactionManager;
 import UseCase.UserManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 /**
  * A controller class that interacts with use cases and presenters to prompt and
  * allow the user to schedule an event or add a room.
+ * Changes that touch more than one manager (ex. creating or cancelling an event) each run as one transaction.
+ * Cancelling an event or changing its capacity publishes a DomainEvent once it commits; telling its attendees and
+ * speakers is left to the subscribers (see NotificationSystem).
  * @author Xinyi Chen, Xinpeng Shan(phase 2 changes)
  */
 public class SchedulingSystem {
     EventManager em;
     RoomManager rm;
     UserManager um;
-    MessagingSystem ms;
+    TransactionManager tm;
+    DomainEventBus bus;
 
     /**
      * Constructor for SchedulingSystem
      * @param eventManager the EventManager for this execution of the program
      * @param roomManager the RoomManager for this execution of the program
      * @param userManager the UserManager for this execution of the program
-     * @param messagingSystem the MessagingSystem for this execution of the program
+     * @param transactionManager the TransactionManager changes to the managers run in
+     * @param bus the DomainEventBus cancellations and capacity changes are published on
      */
-    public SchedulingSystem(EventManager eventManager, RoomManager roomManager, UserManager userManager, MessagingSystem messagingSystem) {
+    public SchedulingSystem(EventManager eventManager, RoomManager roomManager, UserManager userManager,
+                            TransactionManager transactionManager, DomainEventBus bus) {
         em = eventManager;
         rm = roomManager;
         um = userManager;
-        ms = messagingSystem;
+        tm = transactionManager;
+        this.bus = bus;
     }
 
 
@@ -40,12 +61,14 @@ public class SchedulingSystem {
      * @return true iff the room has been successfully added, false otherwise
      */
     public boolean addRoom(String rmNum, int capacity){
-        if (rm.doesRoomExist(rmNum)){
-            return false;
-        }else{
-            rm.createRoom(rmNum, capacity);
-            return true;
-        }
+        return tm.execute(() -> {
+            if (rm.doesRoomExist(rmNum)){
+                return false;
+            }else{
+                rm.createRoom(rmNum, capacity);
+                return true;
+            }
+        });
     }
 
 
@@ -61,63 +84,125 @@ public class SchedulingSystem {
      * @param speakerUsernames the names of the speakers for the event
      * @param title the title for the event
      * @param maxNum the maximum/ capacity of people that can attend this event
-     * @return the error message according to the error or "true" if event successfully created
+     * @return every error message separated by spaces, or "true" if event successfully created
      */
     public String helper_addSpeakerEvent (Boolean VIP, String startDate, String endDate, String startTime, String endTime, String rmNum, List<String> speakerUsernames, String title, int maxNum){
-        //check if dates is valid format and value
-        if (!em.parseStringToLocalDate(startDate)){
-            return "Uh-oh! The start date entered is not a valid date or not written in the correct format (YYYYMMDD)!";
+        EventProposal proposal = EventProposal.parse(VIP, title, startDate, endDate, startTime, endTime, rmNum, maxNum, speakerUsernames);
+        return helperCreateEvent(proposal, true);
+    }
+
+    /**
+     * Check if the conditions for adding the given no speaker event is satisfied and return error messages accordingly.
+     * If satisfied, create new event, update speaker's list of events, and print success message.
+     * @param startDate the start date for the potential event (YYYYMMDD)
+     * @param endDate the end date for the potential event (YYYYMMDD)
+     * @param startTime the start time for the event (HH:mm:ss)
+     * @param endTime the end time for the event (HH:mm:ss)
+     * @param rmNum the room number for the event
+     * @param speakerUsernames the names of the speakers for the event (should just be empty)
+     * @param title the title for the event
+     * @param maxNum the maximum/ capacity of people that can attend this event
+     * @return every error message separated by spaces, or "true" if event successfully created
+     */
+    public String helper_addParty (Boolean VIP, String startDate, String endDate, String startTime, String endTime, String rmNum, List<String> speakerUsernames, String title, int maxNum){
+        EventProposal proposal = EventProposal.parse(VIP, title, startDate, endDate, startTime, endTime, rmNum, maxNum, speakerUsernames);
+        return helperCreateEvent(proposal, false);
+    }
+
+    /**
+     * Check a proposed event against every requirement for creating it. Each date and time is parsed only once, when
+     * the proposal is made, and checks that depend on a failed check (ex. the room being free when the time could not
+     * be parsed) are left out.
+     * @param proposal the proposed event
+     * @param speakerEvent true iff the event is a talk or panel and so needs at least one speaker
+     * @return the list of error messages, in the order the fields appear on the form (empty if the event can be created)
+     */
+    public List<String> validateEvent(EventProposal proposal, boolean speakerEvent){
+        List<String> violations = new ArrayList<>();
+        //check if dates and times are valid format and value
+        if (!proposal.isStartDateValid()){
+            violations.add("Uh-oh! The start date entered is not a valid date or not written in the correct format (YYYYMMDD)!");
         }
-        else if (!em.parseStringToLocalDate(endDate)){
-            return "Uh-oh! The end date entered is not a valid date or not written in the correct format (YYYYMMDD)!";
+        if (!proposal.isEndDateValid()){
+            violations.add("Uh-oh! The end date entered is not a valid date or not written in the correct format (YYYYMMDD)!");
         }
-        //check if start time is valid format and value
-        else if (!em.parseStringToLocalTime(startTime)){
-            return "Uh-oh! The start time entered is not a valid date or not written in the correct format (24-hour time, HH:MM:SS)!";
+        if (!proposal.isStartTimeValid()){
+            violations.add("Uh-oh! The start time entered is not a valid date or not written in the correct format (24-hour time, HH:MM:SS)!");
         }
-        //check if end time is valid format and value
-        else if (!em.parseStringToLocalTime(endTime)){
-            return "Uh-oh! The end time entered is not a valid date or not written in the correct format (24-hour time, HH:MM:SS)!";
+        if (!proposal.isEndTimeValid()){
+            violations.add("Uh-oh! The end time entered is not a valid date or not written in the correct format (24-hour time, HH:MM:SS)!");
         }
         //check if start time < endtime
-        else if (!em.isTimeValid(startDate, endDate, startTime, endTime)){
-            return "Uh-oh! The end time entered should be after the start time for this event!";
-        }
-        //check if room exists
-        else if(!rm.doesRoomExist(rmNum)){
-            return "Uh-oh! Room does not exist! Please add this room first!";
+        boolean timeParsed = proposal.getStartTime() != null && proposal.getEndTime() != null;
+        if (timeParsed && !proposal.isTimeValid()){
+            violations.add("Uh-oh! The end time entered should be after the start time for this event!");
         }
-        //check if room is booked already at this time
-        else if(!em.isRoomAvailableAtTime(rmNum, startDate, endDate, startTime, endTime)){
-            return "Uh-oh! Room is already booked at the given time!";
+        //check if room exists and is not booked already at this time
+        boolean roomExists = rm.doesRoomExist(proposal.getRoomNum());
+        if (!roomExists){
+            violations.add("Uh-oh! Room does not exist! Please add this room first!");
+        } else if (proposal.isTimeValid()
+                && !em.isRoomAvailableAtTime(proposal.getRoomNum(), proposal.getStartTime(), proposal.getEndTime())){
+            violations.add("Uh-oh! Room is already booked at the given time!");
         }
-        //check if speaker exists
-        else if(!helperAreSpeakersExist(speakerUsernames)){
-            return "Uh-oh! One or More Speakers you entered does not exist! Please create an account for these speakers first!";
-        }
-        //check if speaker is already giving another talk at this time
-        else if(!helperAreSpeakersAvailable(startDate, endDate, startTime, endTime, speakerUsernames)){
-            return"Uh-oh! One or More Speakers you entered is already booked for another event at the given time!";
+        //check if speakers exist and are not already giving another talk at this time
+        if (speakerEvent){
+            if (!helperAreSpeakersExist(proposal.getSpeakerUserNames())){
+                violations.add("Uh-oh! One or More Speakers you entered does not exist! Please create an account for these speakers first!");
+            } else if (proposal.isTimeValid() && !em.getBusySpeakers(proposal.getSpeakerUserNames(),
+                    proposal.getStartTime(), proposal.getEndTime()).isEmpty()){
+                violations.add("Uh-oh! One or More Speakers you entered is already booked for another event at the given time!");
+            }
         }
         //check if event title is unique
-        else if(!em.isEventTitleUnique(title)){
-            return"Uh-oh! The event title has already been taken!";
+        if (!em.isEventTitleUnique(proposal.getTitle())){
+            violations.add("Uh-oh! The event title has already been taken!");
         }
-        else if (maxNum <= 0){
-            return"Uh-oh! The maximum number of people who can attend should be a positive integer. ";
+        if (proposal.getMaxNum() <= 0){
+            violations.add("Uh-oh! The maximum number of people who can attend should be a positive integer. ");
         }
         // check if the maximum number of the people who can attend the event exceeds the assigned room capacity.
-        else if (maxNum > rm.getCapacity(rmNum)){
-            return "Uh-oh! The maximum number of people who can attend the event exceeds the room capacity.";
-        }
-        //if everything works out
-        else if(canAddSpeakerEvent(startDate, endDate, startTime, endTime, rmNum, speakerUsernames, title, maxNum)){
-            em.createEvent(VIP, title, startDate, endDate, startTime, endTime, rmNum, maxNum, speakerUsernames);
-            //update the speaker's list of events
-            for (String speakerUsername : speakerUsernames){ um.addEventToSpeaker(title, speakerUsername);}
-            return "true";
+        else if (roomExists && proposal.getMaxNum() > rm.getCapacity(proposal.getRoomNum())){
+            violations.add("Uh-oh! The maximum number of people who can attend the event exceeds the room capacity.");
         }
-        return "Event was not created due to some unexpected reason.";
+        return violations;
+    }
+
+    /**
+     * Validate a proposed event and create it, add it to its room and update the speakers' list of events if there are
+     * no violations.
+     * @param proposal the proposed event
+     * @param speakerEvent true iff the event is a talk or panel
+     * @return the list of error messages (empty if the event has been successfully created)
+     */
+    public List<String> addEvent(EventProposal proposal, boolean speakerEvent){
+        return tm.execute(() -> {
+            List<String> violations = validateEvent(proposal, speakerEvent);
+            if (violations.isEmpty()){
+                String title = proposal.getTitle();
+                em.createEvent(proposal);
+                tm.onUndo(() -> em.deleteEvent(title));
+                rm.addEventToRoom(proposal.getRoomNum(), title);
+                tm.onUndo(() -> rm.deleteEventFromRoom(proposal.getRoomNum(), title));
+                //update the speaker's list of events
+                for (String speakerUsername : proposal.getSpeakerUserNames()){
+                    um.addEventToSpeaker(title, speakerUsername);
+                    tm.onUndo(() -> um.deleteEventForSpeaker(title, speakerUsername));
+                }
+            }
+            return violations;
+        });
+    }
+
+    /**
+     * Helper method to create a proposed event and turn the result into the message shown to the organizer
+     * @param proposal the proposed event
+     * @param speakerEvent true iff the event is a talk or panel
+     * @return every error message separated by spaces, or "true" if event successfully created
+     */
+    private String helperCreateEvent(EventProposal proposal, boolean speakerEvent){
+        List<String> violations = addEvent(proposal, speakerEvent);
+        return violations.isEmpty() ? "true" : String.join(" ", violations);
     }
 
     /**
@@ -138,122 +223,103 @@ public class SchedulingSystem {
     }
 
     /**
-     * Helper method to check if all speakers in the list are available
-     * @param startDate the start date for the potential event (YYYYMMDD)
-     * @param endDate the end date for the potential event (YYYYMMDD)
-     * @param startTime the start time for the event (HH:mm:ss)
-     * @param endTime the end time for the event (HH:mm:ss)
-     * @param speakerUsernames the list of names of the speakers for the event
-     * @return true iff all speakers in the list are available
+     * Helper method to build a TimetableSolver that knows every room and every booking of the existing events
+     * @return the solver for the current program
      */
-    private boolean helperAreSpeakersAvailable(String startDate, String endDate, String startTime, String endTime, List<String> speakerUsernames){
-        if (speakerUsernames.isEmpty()){
-            return false;
+    private TimetableSolver helperBuildSolver(){
+        Map<String, Integer> rooms = new HashMap<>();
+        for (String roomNum : rm.getAllRoomNum()){
+            rooms.put(roomNum, rm.getCapacity(roomNum));
         }
-        for(String speakerUsername : speakerUsernames){
-            if(!em.isSpeakerAvailableAtTime(startDate, endDate, startTime,endTime, speakerUsername)){
-                return false;
+        TimetableSolver solver = new TimetableSolver(rooms, Duration.ofMinutes(15));
+        for (String title : em.getAllEventTitle()){
+            LocalDateTime start = em.getStartTimeByTitle(title);
+            LocalDateTime end = em.getEndTimeByTitle(title);
+            solver.addRoomBooking(em.getRoomNumByTitle(title), start, end);
+            for (String speaker : em.getSpeakerUsernameByTitle(title)){
+                solver.addSpeakerBooking(speaker, start, end);
             }
         }
-        return true;
+        return solver;
     }
 
 
     /**
-     * Check whether or not the given event can be created satisfying all the requirements detailed in the description.
+     * Find the smallest room that can hold the given number of people and is free for the whole time frame.
+     * @param capacity the number of people the event needs room for
      * @param startDate the start date for the potential event (YYYYMMDD)
      * @param endDate the end date for the potential event (YYYYMMDD)
      * @param startTime the start time for the event (HH:mm:ss)
      * @param endTime the end time for the event (HH:mm:ss)
-     * @param rmNum the room number for the event
-     * @param speakerUsernames the list of names of the speakers for the event
-     * @param title the title for the event
-     * @return true iff the event can be created
+     * @return the room number of the best fitting room, or null if the time frame is invalid or no room fits
      */
-    private boolean canAddSpeakerEvent(String startDate, String endDate, String startTime, String endTime, String rmNum, List<String> speakerUsernames, String title, int maxNum){
-        return em.parseStringToLocalDate(startDate) && em.parseStringToLocalTime(startTime) && em.parseStringToLocalTime(endTime)
-                && rm.doesRoomExist(rmNum) && em.isRoomAvailableAtTime(rmNum, startDate, endDate, startTime, endTime)
-                && helperAreSpeakersExist(speakerUsernames) && helperAreSpeakersAvailable(startDate, endDate, startTime, endTime, speakerUsernames)
-                && em.isEventTitleUnique(title) && maxNum > 0 && maxNum <= rm.getCapacity(rmNum);
+    public String findBestFitRoom(int capacity, String startDate, String endDate, String startTime, String endTime){
+        EventProposal proposal = EventProposal.parse(false, "", startDate, endDate, startTime, endTime, null, capacity,
+                new ArrayList<>());
+        if (!proposal.isTimeValid()){
+            return null;
+        }
+        // rooms come smallest first, so the first free one is the best fit
+        for (String roomNum : rm.getRoomsWithCapacityAtLeast(Math.max(capacity, 1))){
+            if (em.isRoomAvailableAtTime(roomNum, proposal.getStartTime(), proposal.getEndTime())){
+                return roomNum;
+            }
+        }
+        return null;
     }
 
     /**
-     * Check whether or not the given event can be created satisfying all the requirements detailed in the description.
-     * @param startDate the start date for the potential event (YYYYMMDD)
-     * @param endDate the end date for the potential event (YYYYMMDD)
-     * @param startTime the start time for the event (HH:mm:ss)
-     * @param endTime the end time for the event (HH:mm:ss)
-     * @param rmNum the room number for the event
-     * @param title the title for the event
-     * @return true iff the event can be created
+     * Place a batch of sessions into rooms and time slots around the events that already exist, and optionally create
+     * the events. Sessions with a taken title, unknown speakers or no audience are skipped before solving. The solver
+     * searches without holding the transaction lock, so the placed events are checked again when they are created.
+     * @param sessions the sessions to place
+     * @param timeBudget how long the solver may search
+     * @param commit whether to create the placed events or only report the timetable
+     * @return the lines of the report: skipped sessions, the solver's quality report and one line per placement
      */
-    private boolean canAddParty (String startDate, String endDate, String startTime, String endTime, String rmNum, String title, int maxNum){
-        return em.parseStringToLocalDate(startDate) && em.parseStringToLocalTime(startTime) && em.parseStringToLocalTime(endTime)
-                && rm.doesRoomExist(rmNum) && em.isRoomAvailableAtTime(rmNum, startDate, endDate, startTime, endTime)
-                && em.isEventTitleUnique(title) && maxNum > 0 && maxNum <= rm.getCapacity(rmNum);
-    }
+    public List<String> scheduleBatch(List<SessionRequest> sessions, Duration timeBudget, boolean commit){
+        List<String> report = new ArrayList<>();
+        List<SessionRequest> valid = new ArrayList<>();
+        TimetableSolver solver = tm.execute(() -> {
+            Set<String> titles = new HashSet<>();
+            for (SessionRequest session : sessions){
+                if (!em.isEventTitleUnique(session.getTitle()) || !titles.add(session.getTitle())){
+                    report.add("Skipped " + session.getTitle() + ": the event title has already been taken.");
+                } else if (!session.getSpeakerUsernames().isEmpty() && !helperAreSpeakersExist(session.getSpeakerUsernames())){
+                    report.add("Skipped " + session.getTitle() + ": one or more speakers do not exist.");
+                } else if (session.getExpectedAudience() <= 0 || session.getDuration().toMinutes() <= 0){
+                    report.add("Skipped " + session.getTitle() + ": the audience and duration should be positive.");
+                } else {
+                    valid.add(session);
+                }
+            }
+            return helperBuildSolver();
+        });
+        TimetableSolver.Result result = solver.solve(valid, timeBudget);
+        report.addAll(result.getReport());
 
-    /**
-     * Check if the conditions for adding the given no speaker event is satisfied and return error messages accordingly.
-     * If satisfied, create new event, update speaker's list of events, and print success message.
-     * @param startDate the start date for the potential event (YYYYMMDD)
-     * @param endDate the end date for the potential event (YYYYMMDD)
-     * @param startTime the start time for the event (HH:mm:ss)
-     * @param endTime the end time for the event (HH:mm:ss)
-     * @param rmNum the room number for the event
-     * @param speakerUsernames the names of the speakers for the event (should just be empty)
-     * @param title the title for the event
-     * @param maxNum the maximum/ capacity of people that can attend this event
-     * @return the error message according to the error or "true" if event successfully created
-     */
-    public String helper_addParty (Boolean VIP, String startDate, String endDate, String startTime, String endTime, String rmNum, List<String> speakerUsernames, String title, int maxNum){
-        //check if dates is valid format and value
-        if (!em.parseStringToLocalDate(startDate)){
-            return "Uh-oh! The start date entered is not a valid date or not written in the correct format (YYYYMMDD)!";
-        }
-        else if (!em.parseStringToLocalDate(endDate)){
-            return "Uh-oh! The end date entered is not a valid date or not written in the correct format (YYYYMMDD)!";
-        }
-        //check if start time is valid format and value
-        else if (!em.parseStringToLocalTime(startTime)){
-            return "Uh-oh! The start time entered is not a valid date or not written in the correct format (24-hour time, HH:MM:SS)!";
-        }
-        //check if end time is valid format and value
-        else if (!em.parseStringToLocalTime(endTime)){
-            return "Uh-oh! The end time entered is not a valid date or not written in the correct format (24-hour time, HH:MM:SS)!";
-        }
-        //check if start time < endtime
-        else if (!em.isTimeValid(startDate, endDate, startTime, endTime)){
-            return "Uh-oh! The end time entered should be after the start time for this event!";
-        }
-        //check if room exists
-        else if(!rm.doesRoomExist(rmNum)){
-            return "Uh-oh! Room does not exist! Please add this room first!";
-        }
-        //check if room is booked already at this time
-        else if(!em.isRoomAvailableAtTime(rmNum, startDate, endDate, startTime, endTime)){
-            return "Uh-oh! Room is already booked at the given time!";
-        }
-        //check if event title is unique
-        else if(!em.isEventTitleUnique(title)){
-            return"Uh-oh! The event title has already been taken!";
-        }
-        else if (maxNum <= 0){
-            return"Uh-oh! The maximum number of people who can attend should be a positive integer. ";
-        }
-        // check if the maximum number of the people who can attend the event exceeds the assigned room capacity.
-        else if (maxNum > rm.getCapacity(rmNum)){
-            return "Uh-oh! The maximum number of people who can attend the event exceeds the room capacity.";
-        }
-        //if everything works out
-        else if(canAddParty(startDate, endDate, startTime, endTime, rmNum, title, maxNum)){
-            em.createEvent(VIP, title, startDate, endDate, startTime, endTime, rmNum, maxNum, speakerUsernames);
-            return "true";
-        }
-        return "Event was not created due to some unexpected reason.";
+        tm.run(() -> {
+            for (SessionRequest session : valid){
+                TimetableSolver.Placement placement = result.getPlacements().get(session.getTitle());
+                if (placement == null){
+                    continue;
+                }
+                report.add(session.getTitle() + ": Room " + placement.getRoomNum() + ", " + placement.getStart() + " - "
+                        + placement.getEnd());
+                if (commit){
+                    List<String> speakers = new ArrayList<>(session.getSpeakerUsernames());
+                    EventProposal proposal = EventProposal.of(session.getVIP(), session.getTitle(), placement.getStart(),
+                            placement.getEnd(), placement.getRoomNum(), session.getExpectedAudience(), speakers);
+                    String created = helperCreateEvent(proposal, !speakers.isEmpty());
+                    if (!created.equals("true")){
+                        report.add("Could not create " + session.getTitle() + ": " + created);
+                    }
+                }
+            }
+        });
+        return report;
     }
 
-
     /**
      * Perform necessary checks & operations for cancelling an event.
      * @param   title the event name entered
@@ -261,30 +327,37 @@ public class SchedulingSystem {
      * @return  true if successfully canceled event, False Otherwise.
      */
     public boolean cancelEvent(String title, String username){
-        //check if event already exists
-        if (em.isEventExist(title)){
-//          Update all attendees’ and Speakers of the event for the change,
-            List<String> eventTitles = new ArrayList<>();
-            eventTitles.add(title);
-            String content = "ANNOUNCEMENT: One of the events you are participating in: " + eventTitles.get(0) + " has been cancelled! ";
-            ms.organizerMessageEventSpeakersAndAttendees(username,eventTitles, content, "");
-            //delete the event in their list of attending
-            List<String> attendees = em.getAllAttendeesByTitle(title);
-            for(String a : attendees){
-                um.cancelSpotAttendee(a, title);
-            }
+        return tm.execute(() -> {
+            //check if event already exists
+            if (em.isEventExist(title)){
+                // find everyone to tell while the event still exists, and tell them once it is gone
+                Audience recipients = em.getEventAudience(Collections.singletonList(title), true);
+                //delete the event in their list of attending
+                List<String> attendees = em.getAllAttendeesByTitle(title);
+                for(String a : attendees){
+                    tm.onUndo(() -> um.setAttendeeVIP(a));
+                    um.cancelSpotAttendee(a, title);
+                    tm.onUndo(() -> um.signUpEventAttendee(a, title));
+                    um.setAttendeeVIP(a);
+                }
 
-            //delete the event in the speaker's list of talks
-            List<String> speakers = em.getSpeakerUsernameByTitle(title);
-            for(String s : speakers){
-                um.deleteEventForSpeaker(title, s);
+                //delete the event in the speaker's list of talks
+                List<String> speakers = em.getSpeakerUsernameByTitle(title);
+                for(String s : speakers){
+                    um.deleteEventForSpeaker(title, s);
+                    tm.onUndo(() -> um.addEventToSpeaker(title, s));
+                }
+                //delete the actual event last, as it cannot be undone
+                String roomNum = em.getRoomNumByTitle(title);
+                rm.deleteEventFromRoom(roomNum, title);
+                tm.onUndo(() -> rm.addEventToRoom(roomNum, title));
+                em.deleteEvent(title);
+                bus.publish(new DomainEvent.EventCancelled(title, username, recipients, LocalDateTime.now()));
+                return true;
+            }else{
+                return false;
             }
-            //delete the actual event
-            em.deleteEvent(title);
-            return true;
-        }else{
-            return false;
-        }
+        });
     }
 
     /**
@@ -295,22 +368,24 @@ public class SchedulingSystem {
      * @return            true if successfully changed, false otherwise.
      */
     public String changeCapacity(String title, int capacity, String username, String rmNum){
-        //check if event already exists
-        if (!em.isEventExist(title)){
-            return "Uh-oh! The event you have entered does not exist!";
-        }else if (capacity > rm.getCapacity(rmNum)){
-            return "Uh-oh! Either the new capacity you entered exceeds the room capacity for this event, or the room does not exist!";
-        }else if (capacity < em.attendeeNum(title)){
-            return "Uh-oh! The number of attendees already signed up for this event exceeds the new capacity entered! It's not nice to kick people out :))";
-        }else{
-            List<String> eventTitles = new ArrayList<>();
-            eventTitles.add(title);
-            String content = "ANNOUNCEMENT: One of the events you are participating in: " + eventTitles.get(0) +
-                    " has been updated to allow " + capacity + " attendee(s)! ";
-            ms.organizerMessageEventSpeakersAndAttendees(username, eventTitles, content, "");
-            em.changeEventMaxNum(title, capacity);
-            return "true";
-        }
+        return tm.execute(() -> {
+            //check if event already exists
+            if (!em.isEventExist(title)){
+                return "Uh-oh! The event you have entered does not exist!";
+            }else if (capacity > rm.getCapacity(rmNum)){
+                return "Uh-oh! Either the new capacity you entered exceeds the room capacity for this event, or the room does not exist!";
+            }else if (capacity < em.attendeeNum(title)){
+                return "Uh-oh! The number of attendees already signed up for this event exceeds the new capacity entered! It's not nice to kick people out :))";
+            }else{
+                int oldCapacity = em.getMaxNumByTitle(title);
+                em.changeEventMaxNum(title, capacity);
+                tm.onUndo(() -> em.changeEventMaxNum(title, oldCapacity));
+                Audience recipients = em.getEventAudience(Collections.singletonList(title), true);
+                bus.publish(new DomainEvent.CapacityChanged(title, capacity, username, recipients,
+                        LocalDateTime.now()));
+                return "true";
+            }
+        });
     }
 
 }
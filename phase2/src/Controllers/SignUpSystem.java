@@ -1,73 +1,230 @@
 package Controllers;
 
+import UseCase.DomainEvent;
+import UseCase.DomainEventBus;
 import UseCase.EventManager;
 import UseCase.RoomManager;
+import UseCase.SeatHoldManager;
+import UseCase.SessionRegistry;
+import UseCase.TransactionManager;
 import UseCase.UserManager;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A class that allow Users to sign up/cancel spot for an event
+ * <p>
+ * When an event is full, users are put on its waitlist instead. Whenever a spot opens up (someone cancels or the
+ * capacity is raised) the people who have waited the longest are signed up automatically, and a WaitlistPromoted
+ * event is published so they are sent one notice.
+ * <p>
+ * During a rush, users can hold a seat for a few minutes while they decide instead of racing for it. A held seat is
+ * taken until the user signs up (which uses the held seat), cancels, or the hold runs out; once started, a background
+ * timer gives the seats of holds that ran out back to the event and its waitlist.
+ * <p>
+ * Every method that changes sign ups runs as one transaction across EventManager and UserManager, so the timer and the
+ * users never see a seat counted twice, and a step that fails part way undoes the steps before it.
  */
 public class SignUpSystem {
+    private static final Duration HOLD_LENGTH = Duration.ofMinutes(5);
+
     EventManager em;
     UserManager um;
     RoomManager rm;
+    TransactionManager tm;
+    DomainEventBus bus;
+    SessionRegistry sessions;
+    private boolean vipWaitlistPriority;
+    private final SeatHoldManager holds;
+    private ScheduledExecutorService holdTimer;     // null until started
 
     /**
      * Constructor for SignUpSystem
      * @param em the EventManager for this execution of the program
      * @param um the UserManager for this execution of the program
+     * @param rm the RoomManager for this execution of the program
+     * @param tm the TransactionManager every change to sign ups runs in
+     * @param bus the DomainEventBus sign ups and promotions from the waitlist are published on
+     * @param sessions the SessionRegistry the VIP status and events of logged in users are cached in
      */
-    public SignUpSystem(EventManager em, UserManager um, RoomManager rm) {
+    public SignUpSystem(EventManager em, UserManager um, RoomManager rm, TransactionManager tm, DomainEventBus bus,
+                        SessionRegistry sessions) {
         this.em = em;
         this.um = um;
         this.rm = rm;
+        this.tm = tm;
+        this.bus = bus;
+        this.sessions = sessions;
+        this.vipWaitlistPriority = true;
+        this.holds = new SeatHoldManager(em, HOLD_LENGTH.toMillis(), System.currentTimeMillis());
     }
 
     /**
-     * Method that calls methods in EventManager and UserManager to sign up for an event
+     * Start the hold timer, which changes the managers from a thread of its own, so the managers must only be changed
+     * inside transactions from then on
+     */
+    public synchronized void start(){
+        if (holdTimer == null){
+            holdTimer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "seat-hold-expiry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            holdTimer.scheduleWithFixedDelay(this::expireHolds, 1, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Set whether VIPs on a waitlist are let in before everyone else (the default) or in the order they joined
+     * @param vipWaitlistPriority true iff VIPs should be let in first
+     */
+    public void setVipWaitlistPriority(boolean vipWaitlistPriority) {
+        this.vipWaitlistPriority = vipWaitlistPriority;
+    }
+
+    /**
+     * Method that calls methods in EventManager and UserManager to sign up for an event. If the user holds a seat in
+     * the event, the held seat is used.
      * @param userName the username of this Attendee
      * @param eventTitle the event title of the event that this attendee want to sign up for
+     * @return 0 if signed up, 1 if already signed up, 2 if the event is full and the user is already on its waitlist,
+     * 3 if the event does not exist, 4 if the event is VIP-only and the user is not a VIP, 5 if the event is full and
+     * the user has been added to its waitlist, 6 if the event overlaps with an event the user has signed up for
      */
     public int signUpEvent(String userName, String eventTitle){
-        if (!em.isEventExist(eventTitle)){
-            return 3;
-        }
-        else if (em.isAttendeeAdded(userName, eventTitle)){
-            return 1;
-        }
-        else if(em.isEventFull(eventTitle)){
-            return 2;
-        }
-        else if (!um.isAttendeeVIP(userName) & em.VIP(eventTitle)){
-            return 4;
-        }
-        else{
-            em.addAttendee(userName, eventTitle);
-            um.signUpEventAttendee(userName, eventTitle);
-            um.setAttendeeVIP(userName);
+        return tm.execute(() -> helperSignUpEvent(userName, eventTitle));
+    }
+
+    /**
+     * Hold a seat in an event for a few minutes, so the user can sign up for it without racing others for the seat.
+     * Holding a seat again restarts the hold.
+     * @param userName the username of this Attendee
+     * @param eventTitle the event title of the event that this attendee want to hold a seat in
+     * @return 0 if the seat is held, otherwise the same codes as signUpEvent (a full event puts the user on its
+     * waitlist)
+     */
+    public int holdSeat(String userName, String eventTitle){
+        return tm.execute(() -> {
+            if (!em.isEventExist(eventTitle)){
+                return 3;
+            }
+            else if (em.isAttendeeAdded(userName, eventTitle)){
+                return 1;
+            }
+            else if (!um.isAttendeeVIP(userName) & em.VIP(eventTitle)){
+                return 4;
+            }
+            else if (em.getConflictingEvent(userName, eventTitle) != null){
+                return 6;
+            }
+            else if (!holds.holdSeat(userName, eventTitle, System.currentTimeMillis())){
+                boolean priority = vipWaitlistPriority && um.isAttendeeVIP(userName);
+                return em.addToWaitlist(userName, eventTitle, priority) ? 5 : 2;
+            }
             return 0;
+        });
+    }
+
+    /**
+     * Give back the seats of the holds that have run out, and let people on the waitlists take them. Called every
+     * second by the hold timer.
+     */
+    public void expireHolds(){
+        tm.run(() -> {
+            for (String eventTitle : new LinkedHashSet<>(holds.expireHolds(System.currentTimeMillis()))){
+                if (em.isEventExist(eventTitle)){
+                    promoteWaitlisted(eventTitle);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stop the hold timer once this SignUpSystem is replaced (ex. when another conference is loaded)
+     */
+    public synchronized void shutdown(){
+        if (holdTimer != null){
+            holdTimer.shutdownNow();
         }
     }
 
     /**
-     * Method that calls methods in EventManager and UserManager to cancel spot for an event
+     * Method that calls methods in EventManager and UserManager to cancel spot for an event, to give back a held seat,
+     * or to leave its waitlist
      * @param userName the username of this Attendee
      * @param eventTitle the event title of the event that this attendee want to cancel spot
+     * @return 0 if the spot was cancelled, 1 if the user was not signed up, 2 if the event does not exist, 3 if the
+     * user has been taken off the waitlist, 4 if the user's held seat has been given back
      */
     public int cancelSpotEvent(String userName, String eventTitle){
-        if(!em.isEventExist(eventTitle)){
-            return 2;
-        }else if(!em.isAttendeeAdded(userName, eventTitle)){
-            return 1;
+        return tm.execute(() -> helperCancelSpotEvent(userName, eventTitle));
+    }
+
+    /**
+     * Sign up people from the waitlist of an event while it has free spots, and send them all one notice.
+     * @param eventTitle the event title
+     * @return the usernames of the people who got a spot
+     */
+    public List<String> promoteWaitlisted(String eventTitle){
+        return tm.execute(() -> helperPromoteWaitlisted(eventTitle));
+    }
+
+    /**
+     * Get the number of people waiting for a spot in an event
+     * @param eventTitle the event title
+     * @return the length of the waitlist, or 0 if the event does not exist
+     */
+    public int getWaitlistSize(String eventTitle){
+        return em.isEventExist(eventTitle) ? em.getWaitlistSize(eventTitle) : 0;
+    }
+
+    /**
+     * Gets every event with people on its waitlist, longest waitlist first, to help plan capacity
+     * @return A list of "title: n waiting (attendees/capacity signed up)" lines
+     */
+    public String[] displayWaitlists(){
+        List<String> titles = new ArrayList<>();
+        for (String title : em.getAllEventTitle()){
+            if (em.getWaitlistSize(title) > 0){
+                titles.add(title);
+            }
         }
-        else{
-            em.deleteAttendee(userName, eventTitle);
-            um.cancelSpotAttendee(userName, eventTitle);
-            um.setAttendeeVIP(userName);
-            return 0;
+        titles.sort((a, b) -> Integer.compare(em.getWaitlistSize(b), em.getWaitlistSize(a)));
+        String[] lines = new String[titles.size()];
+        for (int i = 0; i < lines.length; i++){
+            String title = titles.get(i);
+            lines[i] = title + ": " + em.getWaitlistSize(title) + " waiting (" + em.attendeeNum(title) + "/"
+                    + em.getMaxNumByTitle(title) + " signed up)";
         }
+        return lines;
+    }
+
+    /**
+     * Gets every attendee who has signed up for events that overlap (ex. through a waitlist or an old conference),
+     * for organizers to follow up with. The attendees are checked in parallel.
+     * @return A list of "username: event A overlaps with event B" lines, ordered by username
+     */
+    public String[] displayAgendaConflicts(){
+        return tm.execute(() -> {
+            List<String> lines = new ArrayList<>();
+            for (Map.Entry<String, List<String[]>> entry : em.getScheduleConflicts(um.getAllAttendee()).entrySet()){
+                for (String[] pair : entry.getValue()){
+                    lines.add(entry.getKey() + ": " + pair[0] + " overlaps with " + pair[1]);
+                }
+            }
+            return lines.toArray(new String[0]);
+        });
     }
 
     /**
@@ -79,11 +236,10 @@ public class SignUpSystem {
         List<String> events;
         List<String> eventinfo = new ArrayList<>();
         String[] toReturn;
-        if (um.userType(username).equals("Speaker")){
-            events = um.getEventsSpeaking(username);
+        events = sessions.getEvents(username);
+        if (sessions.getUserType(username).equals("Speaker")){
             toReturn = events.toArray(new String[0]);
         }else {
-            events = um.getEventAttending(username);
             for(String event : events){
                 eventinfo.add(em.getEventInfo(event));
             }
@@ -93,16 +249,64 @@ public class SignUpSystem {
     }
 
     /**
-     * Gets all events possible to display;
-     * @return   A list of event info
+     * Gets the events taking place between two times on one day of the conference, earliest first
+     * @param day the day of the conference, where day 1 is the day the earliest event starts
+     * @param fromTime the start of the time range (HH:MM:SS)
+     * @param toTime the end of the time range (HH:MM:SS)
+     * @param roomNum the room to show events for, or an empty string for all rooms
+     * @param eventType "Talk", "Panel" or "Party", or an empty string for all types
+     * @return A list of event info, or null if the day or times are not valid
      */
-    public String[] displayAllEvents() {
-        List<String> events = em.getAllEventTitle();
-        List<String> eventinfo = new ArrayList<>();
-        for(String event : events){
-            eventinfo.add(em.getEventInfo(event));
+    public String[] displayAgenda(int day, String fromTime, String toTime, String roomNum, String eventType) {
+        LocalDate firstDay = em.getFirstEventDate();
+        if (day < 1) {
+            return null;
         }
-        return eventinfo.toArray(new String[0]);
+        if (firstDay == null) {
+            return new String[0];
+        }
+        LocalDate date = firstDay.plusDays(day - 1);
+        try {
+            return helperEventsBetween(LocalDateTime.of(date, LocalTime.parse(fromTime)),
+                    LocalDateTime.of(date, LocalTime.parse(toTime)), roomNum, eventType);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the events taking place at least partly between two times, earliest first
+     * @param startDate the date of the start of the range (YYYYMMDD)
+     * @param startTime the time of the start of the range (HH:MM:SS)
+     * @param endDate the date of the end of the range (YYYYMMDD)
+     * @param endTime the time of the end of the range (HH:MM:SS)
+     * @param roomNum the room to show events for, or an empty string for all rooms
+     * @param eventType "Talk", "Panel" or "Party", or an empty string for all types
+     * @return A list of event info, or null if the dates or times are not valid
+     */
+    public String[] displayEventsBetween(String startDate, String startTime, String endDate, String endTime,
+                                         String roomNum, String eventType) {
+        try {
+            LocalDateTime from = LocalDateTime.of(LocalDate.parse(startDate, DateTimeFormatter.BASIC_ISO_DATE),
+                    LocalTime.parse(startTime));
+            LocalDateTime to = LocalDateTime.of(LocalDate.parse(endDate, DateTimeFormatter.BASIC_ISO_DATE),
+                    LocalTime.parse(endTime));
+            return helperEventsBetween(from, to, roomNum, eventType);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Give back every seat held in an event (ex. before it is cancelled)
+     * @param eventTitle the event title
+     */
+    public void releaseHolds(String eventTitle){
+        tm.run(() -> {
+            for (String userName : holds.releaseHolds(eventTitle)){
+                tm.onUndo(() -> holds.holdSeat(userName, eventTitle, System.currentTimeMillis()));
+            }
+        });
     }
 
     /**
@@ -111,10 +315,110 @@ public class SignUpSystem {
      * @return iff the user is VIP
      */
     public boolean userIsVIP(String username) {
-        if (um.userType(username).equals("Speaker")){
-            return false;
-        }else{
-            return um.isAttendeeVIP(username);
+        return sessions.isVIP(username);
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    // each step records its undo right after it is made; the VIP status is worked out again last, from the undone lists
+    private int helperSignUpEvent(String userName, String eventTitle){
+        if (!em.isEventExist(eventTitle)){
+            return 3;
+        }
+        else if (em.isAttendeeAdded(userName, eventTitle)){
+            return 1;
+        }
+        else if (!um.isAttendeeVIP(userName) & em.VIP(eventTitle)){
+            return 4;
+        }
+        else if (em.getConflictingEvent(userName, eventTitle) != null){
+            return 6;
+        }
+        // give the held seat back right before taking a seat, so it is free for the user who held it
+        if (holds.releaseHold(userName, eventTitle)){
+            tm.onUndo(() -> holds.holdSeat(userName, eventTitle, System.currentTimeMillis()));
+        }
+        if(em.isEventFull(eventTitle)){
+            boolean priority = vipWaitlistPriority && um.isAttendeeVIP(userName);
+            return em.addToWaitlist(userName, eventTitle, priority) ? 5 : 2;
+        }
+        else{
+            tm.onUndo(() -> um.setAttendeeVIP(userName));
+            em.addAttendee(userName, eventTitle);
+            tm.onUndo(() -> em.deleteAttendee(userName, eventTitle));
+            um.signUpEventAttendee(userName, eventTitle);
+            tm.onUndo(() -> um.cancelSpotAttendee(userName, eventTitle));
+            um.setAttendeeVIP(userName);
+            bus.publish(new DomainEvent.AttendeeSignedUp(userName, eventTitle, LocalDateTime.now()));
+            return 0;
+        }
+    }
+
+    private int helperCancelSpotEvent(String userName, String eventTitle){
+        if(!em.isEventExist(eventTitle)){
+            return 2;
+        }else if(em.removeFromWaitlist(userName, eventTitle)){
+            return 3;
+        }else if(holds.releaseHold(userName, eventTitle)){
+            tm.onUndo(() -> holds.holdSeat(userName, eventTitle, System.currentTimeMillis()));
+            promoteWaitlisted(eventTitle);
+            return 4;
+        }else if(!em.isAttendeeAdded(userName, eventTitle)){
+            return 1;
+        }
+        else{
+            tm.onUndo(() -> um.setAttendeeVIP(userName));
+            em.deleteAttendee(userName, eventTitle);
+            tm.onUndo(() -> em.addAttendee(userName, eventTitle));
+            um.cancelSpotAttendee(userName, eventTitle);
+            tm.onUndo(() -> um.signUpEventAttendee(userName, eventTitle));
+            um.setAttendeeVIP(userName);
+            promoteWaitlisted(eventTitle);
+            return 0;
+        }
+    }
+
+    // the event is published last, once every promotion has been made
+    private List<String> helperPromoteWaitlisted(String eventTitle){
+        List<String> priorityWaitlist = em.getWaitlist(eventTitle, true);
+        List<String> otherWaitlist = em.getWaitlist(eventTitle, false);
+        List<String> promoted = em.promoteFromWaitlist(eventTitle);
+        // an undone promotion takes the users back out of the event and puts the waitlist back as it was, so VIPs
+        // keep their priority and everyone keeps their place
+        tm.onUndo(() -> {
+            for (String userName : promoted){
+                em.deleteAttendee(userName, eventTitle);
+            }
+            em.setWaitlist(eventTitle, priorityWaitlist, otherWaitlist);
+        });
+        for (String userName : promoted){
+            tm.onUndo(() -> um.setAttendeeVIP(userName));
+            um.signUpEventAttendee(userName, eventTitle);
+            tm.onUndo(() -> um.cancelSpotAttendee(userName, eventTitle));
+            um.setAttendeeVIP(userName);
+        }
+        if (!promoted.isEmpty()){
+            LocalDateTime now = LocalDateTime.now();
+            for (String userName : promoted){
+                bus.publish(new DomainEvent.AttendeeSignedUp(userName, eventTitle, now));
+            }
+            bus.publish(new DomainEvent.WaitlistPromoted(eventTitle, promoted, now));
+        }
+        return promoted;
+    }
+
+    private String[] helperEventsBetween(LocalDateTime from, LocalDateTime to, String roomNum, String eventType) {
+        String room = roomNum == null || roomNum.isEmpty() ? null : roomNum;
+        String type = eventType == null || eventType.isEmpty() ? null : eventType;
+        return helperEventInfo(em.getEventTitlesBetween(from, to, room, type));
+    }
+
+    private String[] helperEventInfo(List<String> titles) {
+        String[] info = new String[titles.size()];
+        for (int i = 0; i < info.length; i++) {
+            info[i] = em.getEventInfo(titles.get(i));
         }
+        return info;
     }
 }
@@ -5,19 +5,30 @@ import GUI.Viewable;
 import Gateways.Reader;
 import Gateways.Writer;
 import UseCase.ChatManager;
+import UseCase.ConsistencyChecker;
+import UseCase.DomainEventBus;
 import UseCase.EventManager;
+import UseCase.PasswordHasher;
+import UseCase.ReadModel;
 import UseCase.RoomManager;
 import UseCase.UserManager;
 import UseCase.RequestManager;
+import UseCase.SessionRegistry;
+import UseCase.TransactionManager;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.lang.Long;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 
 /**
  * Determines all the behaviour for the text-based UI
@@ -25,27 +36,107 @@ import java.lang.Long;
  */
 public class TechConferenceSystem implements Viewable{
 
+    private static final Duration SESSION_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    // hash passwords, so lockedView runs them without the lock and they only lock around reading and changing the
+    // managers
+    private static final Set<String> HASHING_METHODS = new HashSet<>(Arrays.asList("createAttendeeButton",
+            "createOrganizerButton", "createSpeakerButton", "LogInButton", "openSession", "loadConferenceButton",
+            "importProgram"));
+    // only read the ReadModel, which can be read without the lock
+    private static final Set<String> READ_MODEL_METHODS = new HashSet<>(Arrays.asList("displayAllEvents",
+            "displayEventsPage", "eventPageCount", "eventCount", "displaySignedUpEvents", "viewChats",
+            "displayRequests", "displayRequestsPage", "requestCount"));
+    // wait for the notices still being sent, so lockedView runs them without the lock and they lock around the rest
+    private static final Set<String> WAITING_METHODS = new HashSet<>(Arrays.asList("saveProgram"));
+    private static final long NOTICE_WAIT_MILLIS = 5000;
+
     private LoginSystem loginSystem;
     private MessagingSystem messagingSystem;
     private SchedulingSystem schedulingSystem;
     private SignUpSystem signUpSystem;
     private RequestSystem requestSystem;
+    private ImportExportSystem importExportSystem;
+    private ReminderSystem reminderSystem;
     private UserManager userManager;
     private ChatManager chatManager;
     private EventManager eventManager;
     private RoomManager roomManager;
     private RequestManager requestManager;
+    private SessionRegistry sessionRegistry;
+    private ReadModel readModel;
+    private DomainEventBus eventBus;
+    private NotificationSystem notificationSystem;
+    private final TransactionManager transactionManager;
+    private final PasswordHasher passwordHasher;
+    private boolean timersStarted;      // set once the controller has a thread-safe view
 
 
     /**
-     * Constructor for the entire controller, begins the program
+     * Constructor for the entire controller, begins the program. The dashboard is given the thread-safe view, since it
+     * runs long calls (ex. loading and saving) in the background.
      * @param dashboard The GUI to set Techconference as an instance
      */
     public TechConferenceSystem(final Dashboard dashboard){
-        dashboard.setView(this);
+        this();
+        dashboard.setView(lockedView());
+    }
+
+    /**
+     * Constructor for a controller with no dashboard (ex. one served by a WebServer)
+     */
+    public TechConferenceSystem(){
+        transactionManager = new TransactionManager();
+        passwordHasher = new PasswordHasher(PasswordHasher.DEFAULT_ITERATIONS);
         createProgram();
     }
 
+    /**
+     * Get a view of this controller that can be called from many threads at once. Each call runs as one transaction,
+     * so it never sees (or leaves behind) half of another call's changes, including the ones made by the timers.
+     * Logging in, creating accounts, loading and importing only hold the lock while they read and change the managers,
+     * so that hashing passwords does not hold up everyone else, and the screens kept in the ReadModel are read without
+     * the lock.
+     * <p>
+     * The timers (for seat holds and reminders) change the managers from threads of their own, so they are only
+     * started once the first thread-safe view is made; a controller used directly, from one thread, has none.
+     * @return the thread-safe view
+     */
+    public Viewable lockedView(){
+        transactionManager.run(() -> {
+            timersStarted = true;
+            signUpSystem.start();
+            reminderSystem.start();
+        });
+        return (Viewable) Proxy.newProxyInstance(Viewable.class.getClassLoader(), new Class<?>[]{Viewable.class},
+                (proxy, method, args) -> HASHING_METHODS.contains(method.getName())
+                        || READ_MODEL_METHODS.contains(method.getName())
+                        || WAITING_METHODS.contains(method.getName()) ? invoke(method, args)
+                        : transactionManager.execute(() -> invoke(method, args)));
+    }
+
+    // calls a Viewable method on this controller, passing on what it throws
+    private Object invoke(Method method, Object[] args){
+        try {
+            return method.invoke(this, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Set the cost of hashing passwords; existing passwords are hashed again at the new cost when their users log in
+     * @param iterations the number of PBKDF2 iterations
+     */
+    public void setPasswordCost(int iterations){
+        passwordHasher.setIterations(iterations);
+    }
+
     /**
      * A method that determines if an attendee account can be successfully created or not.
      *
@@ -54,7 +145,7 @@ public class TechConferenceSystem implements Viewable{
      * @return          True if Attendee account successfully created. False Otherwise
      */
     public boolean createAttendeeButton(String username, String password){
-        return userManager.createAttendeeAccount(username, password);
+        return loginSystem.createAccount("Attendee", username, password);
     }
 
     /**
@@ -65,7 +156,7 @@ public class TechConferenceSystem implements Viewable{
      * @return          True if Organizer account successfully created. False Otherwise
      */
     public boolean createOrganizerButton(String username, String password){
-        return userManager.createOrganizerAccount(username, password);
+        return loginSystem.createAccount("Organizer", username, password);
     }
 
     /**
@@ -76,29 +167,48 @@ public class TechConferenceSystem implements Viewable{
      * @return          True if Speaker account successfully created. False Otherwise
      */
     public boolean createSpeakerButton(String username, String password){
-        return userManager.createSpeakerAccount(username, password);
+        return loginSystem.createAccount("Speaker", username, password);
     }
 
 
     /**
-     * A method that loads an existing conference; Method runs when the user clicks the "load conference" button
+     * A method that loads an existing conference; Method runs when the user clicks the "load conference" button.
+     * Passwords still stored as plain text are hashed before the loaded conference replaces the current one, so only
+     * the swap holds the lock. If the calling thread is interrupted (ex. the load was cancelled) before the swap, the
+     * current conference is kept; once the swap has started, the load finishes.
      * @param filename The file name to load the conference
      * @return true if successfully loaded the conference, false otherwise
      */
     public boolean loadConferenceButton(String filename){
         Reader reader = new Reader();
-        if (reader.verifySaves(filename)) {
-            Object[] loadedObjects = reader.loadData(filename);
+        if (!reader.verifySaves(filename)) {
+            return false;
+        }
+        Object[] loadedObjects = reader.loadData(filename);
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        try {
+            // no one else can see the loaded users yet
+            new LoginSystem((UserManager) loadedObjects[3], passwordHasher, transactionManager).migratePasswords();
+        } catch (IllegalStateException e) {
+            if (Thread.currentThread().isInterrupted()) {   // cancelled while hashing
+                return false;
+            }
+            throw e;
+        }
+        return transactionManager.execute(() -> {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
             chatManager = (ChatManager) loadedObjects[0];
             eventManager = (EventManager) loadedObjects[1];
             roomManager = (RoomManager) loadedObjects[2];
             userManager = (UserManager) loadedObjects[3];
             requestManager = (RequestManager) loadedObjects[4];
-        } else {
-            return false;
-        }
-        initializeManagers();
-        return true;
+            initializeManagers();
+            return true;
+        });
     }
 
 
@@ -109,41 +219,61 @@ public class TechConferenceSystem implements Viewable{
      * @return          False if username is already in database or invalid. True otherwise.
      */
     public String LogInButton(String username, String password){
-        String userType = userManager.userType(username);
-        if (userType.equals("Invalid Username")){
+        String userType = transactionManager.execute(() -> sessionRegistry.getUserType(username));
+        if (userType.equals("Invalid Username") || !loginSystem.verifyLogin(username, password)){
             return "false";
-        }else{
-            if (loginSystem.verifyLogin(username, password)){
-                return loginSystem.verifyUserType(username);
-            }else{
-                return "false";
-            }
         }
+        return userType;
+    }
+
+    /**
+     * Log in and open a session, for front ends that serve many users at once (ex. a WebServer)
+     * @param username   Username that the user wants to login with
+     * @param password   Password that the user wants to login with
+     * @return          the token of the session, or null if the username or password is wrong
+     */
+    public String openSession(String username, String password) {
+        if (LogInButton(username, password).equals("false")) {
+            return null;
+        }
+        return transactionManager.execute(() -> sessionRegistry.open(username, System.currentTimeMillis()));
+    }
+
+    /**
+     * Get the user of a session
+     * @param token   the token given by openSession
+     * @return          the username and type of the user, or null if the session is closed or has expired
+     */
+    public String[] getSession(String token) {
+        String username = sessionRegistry.getUsername(token, System.currentTimeMillis());
+        if (username == null) {
+            return null;
+        }
+        return new String[]{username, sessionRegistry.getUserType(username)};
+    }
+
+    /**
+     * Log out of a session
+     * @param token   the token given by openSession
+     * @return          true iff the session was open
+     */
+    public boolean closeSession(String token) {
+        return sessionRegistry.close(token);
     }
 
 
 //--------------------------------------------Messaging Buttons-----------------------------------------
 
     /**
-     * This method is for sending the info of ALL chat usernames to display on GUI. Ex. [1.kailas, 2.william]
+     * This method is for sending the info of ALL current chats to display on GUI. Each chat has a handle that the other
+     * chat methods take, and that stays the same while other chats are created, archived or changed.
      * @param currentUsername The username of the current user
-     * @return A list of all the chat names
+     * @return The String Array will be in the form [[chatHandle, chatName, unreadCount],....]
+     *         Ex. [[..., kailas, 0], [..., william, 2]]
      */
     @Override
-    public ArrayList <String> viewChatNames(String currentUsername){
-        ArrayList<String> output = new ArrayList<>();
-
-        List<UUID> chats = messagingSystem.getCurrentChats(currentUsername);
-        int index = 1;
-        for (UUID chatId: chats) {
-            String outputString = index + ". ";
-            index ++;
-
-            String chatName = getChatNameByUser(currentUsername, chatId);
-            outputString += chatName;
-            output.add(outputString);
-        }
-        return output;
+    public String[][] viewChats(String currentUsername){
+        return readModel.getChats(currentUsername);
     }
 
     private String getChatNameByUser(String username, UUID chatId){
@@ -158,36 +288,93 @@ public class TechConferenceSystem implements Viewable{
     }
 
     /**
-     * This method sends all the info about the chat messages to display on the GUI. (The chat is determined by receiving an index from 1 to the total number of chats)
-     * @param chatNumber The chat number that the user wants to view
+     * This method sends all the info about the chat messages to display on the GUI. (The chat is determined by its
+     * handle from viewChats)
+     * @param chatHandle The handle of the chat that the user wants to view
      * @param currentUsername The username of the current user
-     * @return           Return String that the User wants to view; IN VIEW CHAT NUMBER: Return null if can not find
-     *                   chat number;
-     *                   The String Array will be in the form [[senderUsername, content, timestamp],....]
+     * @return           Return String that the User wants to view; Return null if the user has no such chat;
+     *                   The String Array will be in the form [[messageHandle, senderUsername, content, timestamp],....]
+     *                   with the image as a fifth element for messages that have one
      */
     @Override
-    public String[][] viewChat(int chatNumber, String currentUsername){
-        List<UUID> userChats = messagingSystem.getCurrentChats(currentUsername);
-        List<List<String>> messageInfoList = new ArrayList<>();
-
-        if (chatNumber >= 0 && chatNumber < userChats.size()){
-            UUID chatId = userChats.get(chatNumber);
-            List<UUID> chatMessages = messagingSystem.viewChatMessages(currentUsername, chatId);
-            for (UUID messageId: chatMessages){
-                List<String> currentMessageInfo = new ArrayList<>(getMessageInfo(chatId, messageId));
-                messageInfoList.add(currentMessageInfo); //add a list of message info for this message
-            }
+    public String[][] viewChat(String chatHandle, String currentUsername){
+        UUID chatId = messagingSystem.getChatByHandle(currentUsername, chatHandle);
+        if (chatId != null){
+            return getMessageRows(chatId, messagingSystem.viewChatMessages(currentUsername, chatId));
+        }else{
+            return null;
+        }
 
-            String[][] messageInfoArray = new String[messageInfoList.size()][];
-            for (int i = 0; i<messageInfoList.size(); i++){
-                List<String> nestedMessageInfo = messageInfoList.get(i);
-                messageInfoArray[i] = nestedMessageInfo.toArray(new String[0]); //might have a bug idk
-            }
-            return messageInfoArray;
+    }
+
+    /**
+     * Open a chat to display it a page at a time (ex. in a list that only shows the messages scrolled to). Opening the
+     * chat marks it as read, as viewChat does.
+     * @param chatHandle The handle of the chat that the user wants to view
+     * @param currentUsername The username of the current user
+     * @return The number of messages in the chat, or -1 if the user has no such chat
+     */
+    @Override
+    public int openChat(String chatHandle, String currentUsername){
+        UUID chatId = messagingSystem.getChatByHandle(currentUsername, chatHandle);
+        return chatId == null ? -1 : messagingSystem.openChat(currentUsername, chatId);
+    }
+
+    /**
+     * This method sends one page of the chat messages to display on the GUI, without marking anything as read
+     * @param chatHandle The handle of the chat that the user wants to view
+     * @param currentUsername The username of the current user
+     * @param page The page number, starting at 0
+     * @param pageSize The number of messages on a page
+     * @return The messages on the page in the same form as viewChat; null if the user has no such chat
+     */
+    @Override
+    public String[][] viewChatPage(String chatHandle, String currentUsername, int page, int pageSize){
+        UUID chatId = messagingSystem.getChatByHandle(currentUsername, chatHandle);
+        if (chatId != null){
+            return getMessageRows(chatId, messagingSystem.viewChatMessagePage(chatId, page, pageSize));
         }else{
             return null;
         }
+    }
 
+    /**
+     * Start telling the user whenever messages are sent to or deleted from a chat (ex. while it is on their screen),
+     * instead of the previous chat they watched
+     * @param chatHandle The handle of the chat
+     * @param currentUsername The username of the current user
+     * @param changed What to run when the messages change; it runs on the thread that changed them (while the change is
+     *                being made), so it should only hand the work to another thread (ex. SwingUtilities.invokeLater)
+     * @return true iff the user has such a chat
+     */
+    @Override
+    public boolean watchChat(String chatHandle, String currentUsername, Runnable changed){
+        UUID chatId = messagingSystem.getChatByHandle(currentUsername, chatHandle);
+        if (chatId == null){
+            return false;
+        }
+        messagingSystem.watchChat(currentUsername, chatId, changed);
+        return true;
+    }
+
+    /**
+     * Stop telling the user about the chat they are watching
+     * @param currentUsername The username of the current user
+     */
+    @Override
+    public void unwatchChat(String currentUsername){
+        messagingSystem.unwatchChat(currentUsername);
+    }
+
+    private String[][] getMessageRows(UUID chatId, List<UUID> messageIds){
+        String[][] messageInfoArray = new String[messageIds.size()][];
+        for (int i = 0; i < messageIds.size(); i++){
+            List<String> currentMessageInfo = new ArrayList<>();
+            currentMessageInfo.add(messagingSystem.getHandle(messageIds.get(i)));
+            currentMessageInfo.addAll(getMessageInfo(chatId, messageIds.get(i)));
+            messageInfoArray[i] = currentMessageInfo.toArray(new String[0]); //add the message info for this message
+        }
+        return messageInfoArray;
     }
 
     private List<String> getMessageInfo(UUID chatId, UUID messageId){
@@ -244,6 +431,20 @@ public class TechConferenceSystem implements Viewable{
         return messagingSystem.speakerMessageEventAttendees(sender, eventTitles, msg, imagePath);
     }
 
+    /**
+     * Message the attendees of some events, optionally only the VIPs or only the people who are not VIPs
+     * @param sender The username of the organizer sending the message
+     * @param eventTitles the list of event titles
+     * @param vip true to message only VIPs, false to message only people who are not VIPs, null to message everyone
+     * @param msg message content
+     * @param imagePath image path
+     * @return Null if the message was successfully sent, or an error message otherwise
+     */
+    @Override
+    public String msgEventAttendeesByVIP(String sender, List<String> eventTitles, Boolean vip, String msg, String imagePath){
+        return messagingSystem.organizerMessageEventAttendees(sender, eventTitles, vip, msg, imagePath);
+    }
+
     /**
      * Send a message to one user
      * @param sender The username of the sender
@@ -260,53 +461,65 @@ public class TechConferenceSystem implements Viewable{
      * Delete a message from the chat
      * PRECONDITION : messageIdString wasn't used to call deleteMsg before
      * @param currentUsername the username of the current user
-     * @param chatIndex The index of the chat
-     * @param messageIndex the index of the message
+     * @param chatHandle The handle of the chat
+     * @param messageHandle the handle of the message
      * @return Null if the message was deleted properly. An error message otherwise.
      */
     @Override
-    public String deleteMsg(String currentUsername, int chatIndex, int messageIndex){
-        UUID chatId = messagingSystem.getCurrentChats(currentUsername).get(chatIndex);
-        UUID messageId = messagingSystem.getMessageByIndex(chatId, messageIndex);
+    public String deleteMsg(String currentUsername, String chatHandle, String messageHandle){
+        UUID chatId = messagingSystem.getChatByHandle(currentUsername, chatHandle);
+        if (chatId == null) {
+            return "That chat does not exist.";
+        }
+        UUID messageId = messagingSystem.getMessageByHandle(chatId, messageHandle);
+        if (messageId == null) {
+            return "That message has already been deleted.";
+        }
         return messagingSystem.deleteUserMessage(currentUsername, chatId, messageId);
     }
 
     /**
      * Mark chat as unread.
      * @param currentUsername The username of the current user
-     * @param chatIndex The index of the chat
+     * @param chatHandle The handle of the chat
      * @return Null if the chat was marked as unread. An error message otherwise.
      */
     @Override
-    public String markChatAsUnread(String currentUsername, int chatIndex){
-        UUID chatId = messagingSystem.getCurrentChats(currentUsername).get(chatIndex);
+    public String markChatAsUnread(String currentUsername, String chatHandle){
+        UUID chatId = messagingSystem.getChatByHandle(currentUsername, chatHandle);
+        if (chatId == null) {
+            return "That chat does not exist.";
+        }
         return messagingSystem.markUserChatAsUnread(currentUsername, chatId);
     }
 
     /**
      * Archive chat.
      * @param currentUsername The username of the current user
-     * @param chatIndex The index of the chat
+     * @param chatHandle The handle of the chat
      * @return Null if the chat was archived. An error message otherwise.
      */
     @Override
-    public String archiveChats(String currentUsername, int chatIndex){
-        UUID chatId = messagingSystem.getCurrentChats(currentUsername).get(chatIndex);
+    public String archiveChats(String currentUsername, String chatHandle){
+        UUID chatId = messagingSystem.getChatByHandle(currentUsername, chatHandle);
+        if (chatId == null) {
+            return "That chat does not exist.";
+        }
         return messagingSystem.archiveUserChat(currentUsername, chatId);
     }
 
     /**
      * Check if the message includes an image
      * @param currentUsername The current username of someone who wants to send a image message
-     * @param chatIndex The index of the chat
-     * @param messageIndex The index of the message
-     * @return Boolean representing whether the message includes an image
+     * @param chatHandle The handle of the chat
+     * @param messageHandle The handle of the message
+     * @return Boolean representing whether the message includes an image (false if there is no such message)
      */
     @Override
-    public boolean includesImage(String currentUsername, int chatIndex, int messageIndex) {
-        UUID chatId = messagingSystem.getCurrentChats(currentUsername).get(chatIndex);
-        UUID messageId = messagingSystem.getMessageByIndex(chatId, messageIndex);
-        return messagingSystem.doesMessageHaveImage(chatId, messageId);
+    public boolean includesImage(String currentUsername, String chatHandle, String messageHandle) {
+        UUID chatId = messagingSystem.getChatByHandle(currentUsername, chatHandle);
+        UUID messageId = chatId == null ? null : messagingSystem.getMessageByHandle(chatId, messageHandle);
+        return messageId != null && messagingSystem.doesMessageHaveImage(chatId, messageId);
     }
 
     /**
@@ -386,18 +599,55 @@ public class TechConferenceSystem implements Viewable{
         return messagingSystem.addPeopleToMessage(mainUsername, newFriendUsername);
     }
 
+    /**
+     * Suggest people for a user to add as friends, based on the events they both attend
+     * @param username The username of the current user
+     * @return Up to 10 suggested usernames, best first
+     */
+    @Override
+    public List<String> suggestFriends(String username){
+        return messagingSystem.suggestFriends(username, 10);
+    }
+
+    /**
+     * Get the users that both users have added as friends
+     * @param usernameA The username of the first user
+     * @param usernameB The username of the second user
+     * @return The usernames of their mutual friends
+     */
+    @Override
+    public List<String> getMutualFriends(String usernameA, String usernameB){
+        return messagingSystem.getMutualFriends(usernameA, usernameB);
+    }
+
+    /**
+     * Get the friends of a user who have signed up for an event
+     * @param username The username of the current user
+     * @param eventTitle The title of the event
+     * @return The usernames of the friends attending, or null if the event does not exist
+     */
+    @Override
+    public List<String> getFriendsAttending(String username, String eventTitle){
+        return messagingSystem.getFriendsAttending(username, eventTitle);
+    }
+
 
 //-----------------------------------------Scheduling Buttons-------------------------------------------
 
     /**
-     * Perform necessary checks & operations for cancelling an event.
+     * Perform necessary checks & operations for cancelling an event. The seats held in the event are given back first.
      * @param   title the event name entered
      * @param   username the username of the organizer that chose to cancel this event
      * @return  true if successfully canceled event, False Otherwise.
      */
     @Override
     public boolean cancelEvent(String title, String username){
-        return schedulingSystem.cancelEvent(title, username);
+        return transactionManager.execute(() -> {
+            if (eventManager.isEventExist(title)){
+                signUpSystem.releaseHolds(title);
+            }
+            return schedulingSystem.cancelEvent(title, username);
+        });
     }
 
 
@@ -411,7 +661,14 @@ public class TechConferenceSystem implements Viewable{
      */
     @Override
     public String changeCapacity(String eventName, int capacity, String username, String rmNum){
-        return schedulingSystem.changeCapacity(eventName, capacity, username, rmNum);
+        // the new spots are given to the waitlist in the same transaction, so no one else can take them first
+        return transactionManager.execute(() -> {
+            String result = schedulingSystem.changeCapacity(eventName, capacity, username, rmNum);
+            if (result.equals("true")){
+                signUpSystem.promoteWaitlisted(eventName);
+            }
+            return result;
+        });
     }
 
     /**
@@ -425,6 +682,19 @@ public class TechConferenceSystem implements Viewable{
     }
 
 
+    /**
+     * Method to find the smallest room that fits the given number of people and is free for the whole time frame.
+     * @param capacity the number of people the event needs room for
+     * @param startDate the start date for the potential event (YYYYMMDD)
+     * @param endDate the end date for the potential event (YYYYMMDD)
+     * @param startTime the start time for the event (HH:mm:ss)
+     * @param endTime the end time for the event (HH:mm:ss)
+     * @return the room number of the best fitting room, or null if there is none
+     */
+    public String findBestFitRoom(int capacity, String startDate, String endDate, String startTime, String endTime){
+        return schedulingSystem.findBestFitRoom(capacity, startDate, endDate, startTime, endTime);
+    }
+
     /**
      * Check if the conditions for adding the given one speaker/ multi speaker event is satisfied and return error messages accordingly.
      * If satisfied, create new event, update speaker's list of events, and print success message.
@@ -441,7 +711,11 @@ public class TechConferenceSystem implements Viewable{
      */
     public String createSpeakerEvent(boolean VIP, String startDate, String endDate, String startTime, String endTime, String roomNum, List<String>
             speakerUsernames, String eventTitle, int capacity){
-        return schedulingSystem.helper_addSpeakerEvent(VIP, startDate, endDate, startTime, endTime, roomNum, speakerUsernames, eventTitle, capacity);
+        String result = schedulingSystem.helper_addSpeakerEvent(VIP, startDate, endDate, startTime, endTime, roomNum, speakerUsernames, eventTitle, capacity);
+        if (result.equals("true")){
+            reminderSystem.scheduleEvent(eventTitle);
+        }
+        return result;
     }
 
     /**
@@ -460,7 +734,32 @@ public class TechConferenceSystem implements Viewable{
      */
     public String createParty(boolean VIP, String startDate, String endDate, String startTime, String endTime, String roomNum, List<String>
             speakerUsernames, String eventTitle, int capacity){
-        return schedulingSystem.helper_addParty(VIP, startDate, endDate, startTime, endTime, roomNum, speakerUsernames, eventTitle, capacity);
+        String result = schedulingSystem.helper_addParty(VIP, startDate, endDate, startTime, endTime, roomNum, speakerUsernames, eventTitle, capacity);
+        if (result.equals("true")){
+            reminderSystem.scheduleEvent(eventTitle);
+        }
+        return result;
+    }
+
+    /**
+     * Method to import rooms, speakers, events and sessions from a CSV or JSON lines file. The speakers' passwords
+     * are hashed and the sessions are placed without the lock, which is only held while rows and placements are applied.
+     * @param filename the name of the file to import
+     * @return the lines of the import report: a summary followed by the rejected rows and the scheduled sessions
+     */
+    public List<String> importProgram(String filename){
+        List<String> report = importExportSystem.importProgram(filename);
+        transactionManager.run(reminderSystem::rebuild);
+        return report;
+    }
+
+    /**
+     * Method to export all rooms, speakers and events to a CSV or JSON lines file.
+     * @param filename the name of the file to write
+     * @return true iff the program has been successfully exported
+     */
+    public boolean exportProgram(String filename){
+        return importExportSystem.exportProgram(filename);
     }
 
 //--------------------------------------------Sign Up Buttons-----------------------------------------
@@ -471,7 +770,105 @@ public class TechConferenceSystem implements Viewable{
      * @return   A string list of events
      */
     public String[] displayAllEvents() {
-        return signUpSystem.displayAllEvents();
+        return readModel.getAllEventInfo();
+    }
+
+    /**
+     * Method to send one page of events, ordered by start time, to display onto GUI
+     * @param page the page number, starting at 0
+     * @param pageSize the number of events on a page
+     * @return   A string list of the events on the page
+     */
+    public String[] displayEventsPage(int page, int pageSize) {
+        return readModel.getEventInfoPage(page, pageSize);
+    }
+
+    /**
+     * Method to get the number of pages of events
+     * @param pageSize the number of events on a page
+     * @return   the number of pages (at least 1)
+     */
+    public int eventPageCount(int pageSize) {
+        int count = readModel.getEventCount();
+        return pageSize <= 0 || count == 0 ? 1 : (count + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * Method to get the number of events
+     * @return   the number of events
+     */
+    public int eventCount() {
+        return readModel.getEventCount();
+    }
+
+    /**
+     * Method to get the number of people waiting for a spot in an event
+     * @param eventTitle the title of the event
+     * @return the length of the waitlist, or 0 if the event does not exist
+     */
+    public int getWaitlistSize(String eventTitle) {
+        return signUpSystem.getWaitlistSize(eventTitle);
+    }
+
+    /**
+     * Method to send every event with a waitlist, longest first, to display onto GUI
+     * @return   A string list of events and the length of their waitlists
+     */
+    public String[] displayWaitlists() {
+        return signUpSystem.displayWaitlists();
+    }
+
+    /**
+     * Method to display every attendee who has signed up for overlapping events
+     * @return A list of "username: event A overlaps with event B" lines
+     */
+    public String[] displayAgendaConflicts() {
+        return signUpSystem.displayAgendaConflicts();
+    }
+
+    /**
+     * Method to check that the facts stored in more than one place (ex. the attendees of an event and the events of
+     * each attendee) agree, and to repair the discrepancies that can be repaired
+     * @param repair whether to repair what is found or only report it
+     * @return the lines of the report: the count of each kind of discrepancy, then each discrepancy
+     */
+    public String[] checkConsistency(boolean repair) {
+        ConsistencyChecker checker = new ConsistencyChecker(chatManager, eventManager, roomManager, userManager);
+        return transactionManager.execute(() -> {
+            ConsistencyChecker.Report report = repair ? checker.repair() : checker.check();
+            if (report.getRepairedCount() > 0) {
+                readModel.rebuild();
+            }
+            return report.toLines().toArray(new String[0]);
+        });
+    }
+
+    /**
+     * Method to send the events between two times on one day of the conference to display onto GUI
+     * @param day the day of the conference, where day 1 is the day the earliest event starts
+     * @param fromTime the start of the time range (HH:MM:SS)
+     * @param toTime the end of the time range (HH:MM:SS)
+     * @param roomNum the room to show events for, or an empty string for all rooms
+     * @param eventType "Talk", "Panel" or "Party", or an empty string for all types
+     * @return   A string list of events, or null if the day or times are not valid
+     */
+    public String[] displayAgenda(int day, String fromTime, String toTime, String roomNum, String eventType) {
+        return signUpSystem.displayAgenda(day, fromTime, toTime, roomNum, eventType);
+    }
+
+    /**
+     * Method to send the events taking place at least partly between two times to display onto GUI
+     * @param startDate the date of the start of the range (YYYYMMDD)
+     * @param startTime the time of the start of the range (HH:MM:SS)
+     * @param endDate the date of the end of the range (YYYYMMDD)
+     * @param endTime the time of the end of the range (HH:MM:SS)
+     * @param roomNum the room to show events for, or an empty string for all rooms
+     * @param eventType "Talk", "Panel" or "Party", or an empty string for all types
+     * @return   A string list of events, or null if the dates or times are not valid
+     */
+    public String[] displayEventsBetween(String startDate, String startTime, String endDate, String endTime,
+                                         String roomNum, String eventType) {
+        return signUpSystem.displayEventsBetween(startDate, startTime, endDate, endTime, roomNum, eventType);
     }
 
     /**
@@ -480,24 +877,36 @@ public class TechConferenceSystem implements Viewable{
      * @return          A string list of events
      */
     public String[] displaySignedUpEvents(String username) {
-        return signUpSystem.displaySignedUpEvents(username);
+        return readModel.getAgenda(username);
     }
 
     /**  Method for user to sign up for event
      *
      * @param username     The username of someone signing up for the event
      * @param eventTitle   The title of the event to sign up for
-     * @return      an integer based on what error occurs.
+     * @return      an integer based on what error occurs (5 if the event is full and the user joined its waitlist, 6 if
+     *              it overlaps with an event the user has signed up for).
      */
     public int signUpForEvent(String username, String eventTitle) {
         return signUpSystem.signUpEvent(username, eventTitle);
     }
 
+    /**  Method for user to hold a seat in an event for a few minutes before signing up
+     *
+     * @param username     The username of someone holding the seat
+     * @param eventTitle   The title of the event to hold a seat in
+     * @return      0 if the seat is held, otherwise the same integers as signUpForEvent
+     */
+    public int holdSeat(String username, String eventTitle) {
+        return signUpSystem.holdSeat(username, eventTitle);
+    }
+
     /**
      *
      * @param username  The username that someone wants to cancel their event by
      * @param eventTitle   The title of event the username wants to cancel for
-     * @return     an integer based on what error occurs(or not) when they try to cancel
+     * @return     an integer based on what error occurs(or not) when they try to cancel (3 if they left the waitlist,
+     *             4 if they gave back a held seat)
      */
     public int cancelAttendEvent(String username, String eventTitle) {
         return signUpSystem.cancelSpotEvent(username, eventTitle);
@@ -516,20 +925,23 @@ public class TechConferenceSystem implements Viewable{
 
     /**
      * A method that marks the request if it has been addressed or not
+     * @param username         The username of the organizer marking the request
      * @param requestNumber    The requestNumber integer to see if the request has been addressed or not
-     * @return                 true if addressed, false otherwise.
+     * @return                 true if addressed, false if the request does not exist or another organizer claimed it.
      */
-    public boolean markAddressed(int requestNumber) {
-        return requestSystem.markedAsAddressed(requestNumber);
+    public boolean markAddressed(String username, int requestNumber) {
+        return requestSystem.markedAsAddressed(requestNumber, username);
     }
 
     /**
      * A method that marks if the request is pending or not
+     * @param username         The username of the organizer marking the request
      * @param requestNumber    The requestNumber integer to see if the request is pending or not
-     * @return              true if it is marked as pending, false otherwise
+     * @return              true if it is marked as pending, false if the request does not exist or another organizer
+     *                      claimed it
      */
-    public boolean markPending(int requestNumber) {
-        return requestSystem.markedAsPending(requestNumber);
+    public boolean markPending(String username, int requestNumber) {
+        return requestSystem.markedAsPending(requestNumber, username);
     }
 
     /**
@@ -537,7 +949,34 @@ public class TechConferenceSystem implements Viewable{
      * @return  A list of string to be displayed onto GUI.
      */
     public String[] displayRequests() {
-        return requestSystem.displayAllRequests();
+        return readModel.getRequestBoard();
+    }
+
+    /**
+     * A method that displays one page of the requests in the system
+     * @param page the page number, starting at 0
+     * @param pageSize the number of requests on a page
+     * @return  the request info of the requests on the page
+     */
+    public String[] displayRequestsPage(int page, int pageSize) {
+        return readModel.getRequestPage(page, pageSize);
+    }
+
+    /**
+     * A method that gets the number of requests in the system
+     * @return  the number of requests
+     */
+    public int requestCount() {
+        return readModel.getRequestCount();
+    }
+
+    /**
+     * A method that claims the most urgent pending request for an organizer to handle
+     * @param username  The username of the organizer claiming the request
+     * @return          The request info of the claimed request, or null if there are no unclaimed requests
+     */
+    public String claimNextRequest(String username) {
+        return requestSystem.claimNextRequest(username);
     }
 
     //--------------------------------------------Creating Controller-----------------------------------------
@@ -551,27 +990,77 @@ public class TechConferenceSystem implements Viewable{
     }
 
     private void initializeManagers() {
-        loginSystem = new LoginSystem(userManager);
-        messagingSystem = new MessagingSystem(chatManager, userManager, eventManager);
-        schedulingSystem = new SchedulingSystem(eventManager, roomManager, userManager, messagingSystem);
-        signUpSystem = new SignUpSystem(eventManager, userManager, roomManager);
-        requestSystem = new RequestSystem(requestManager);
+        loginSystem = new LoginSystem(userManager, passwordHasher, transactionManager);
+        eventManager.setUserIds(userManager.getUserIds());
+        userManager.shareUsernames();
+        eventManager.shareUsernames();
+        readModel = new ReadModel(eventManager, userManager, chatManager, requestManager);
+        sessionRegistry = new SessionRegistry(userManager, chatManager, SESSION_IDLE_TIMEOUT.toMillis());
+        if (eventBus != null) {
+            eventBus.shutdown();
+        }
+        eventBus = new DomainEventBus(transactionManager);
+        messagingSystem = new MessagingSystem(chatManager, userManager, eventManager, sessionRegistry, eventBus);
+        notificationSystem = new NotificationSystem(messagingSystem, transactionManager, eventBus);
+        schedulingSystem = new SchedulingSystem(eventManager, roomManager, userManager, transactionManager, eventBus);
+        if (signUpSystem != null) {
+            signUpSystem.shutdown();
+        }
+        signUpSystem = new SignUpSystem(eventManager, userManager, roomManager, transactionManager, eventBus,
+                sessionRegistry);
+        requestSystem = new RequestSystem(requestManager, userManager);
+        importExportSystem = new ImportExportSystem(eventManager, roomManager, userManager, schedulingSystem,
+                passwordHasher, transactionManager);
+        if (reminderSystem != null) {
+            reminderSystem.shutdown();
+        }
+        reminderSystem = new ReminderSystem(eventManager, messagingSystem, transactionManager);
+        if (timersStarted) {
+            signUpSystem.start();
+            reminderSystem.start();
+        }
+    }
+
+    /**
+     * Set how long before the start of each event its attendees and speakers are reminded of it
+     * @param offsets the times before the start of an event to send reminders at
+     */
+    public void setReminderOffsets(List<Duration> offsets) {
+        reminderSystem.setOffsets(offsets);
     }
 
     /**
-     * A method to save all the information.
+     * A method to save all the information. Notices still being sent (ex. for an event that was just cancelled) are
+     * waited for, for a few seconds, so they are in the save. If the calling thread is interrupted (ex. the save was
+     * cancelled) while waiting, nothing is written.
      * @return whether or not the save was successful
      * @param filename   file name to save the program
      */
     public boolean saveProgram(String filename) {
-        Writer writer = new Writer();
-        Object[] saveObjects = new Object[5];
-        saveObjects[0] = chatManager;
-        saveObjects[1] = eventManager;
-        saveObjects[2] = roomManager;
-        saveObjects[3] = userManager;
-        saveObjects[4] = requestManager;
-        return writer.writeToFile(filename, saveObjects);
+        if (!transactionManager.inTransaction()) {
+            eventBus.awaitIdle(NOTICE_WAIT_MILLIS);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        return transactionManager.execute(() -> {
+            Writer writer = new Writer();
+            Object[] saveObjects = new Object[5];
+            saveObjects[0] = chatManager;
+            saveObjects[1] = eventManager;
+            saveObjects[2] = roomManager;
+            saveObjects[3] = userManager;
+            saveObjects[4] = requestManager;
+            return writer.writeToFile(filename, saveObjects);
+        });
+    }
+
+    /**
+     * Get the number of domain events published of each kind since the conference was created or loaded
+     * @return maps the kind of event (ex. "EventCancelled") to the number published
+     */
+    public Map<String, Long> getPublishedEventCounts() {
+        return eventBus.getPublishedCounts();
     }
 
     /**
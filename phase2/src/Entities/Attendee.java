@@ -6,6 +6,7 @@ import java.util.List;
  * Attendee is a class that participates in events and signs up for them
  */
 public class Attendee extends User {
+    private static final long serialVersionUID = 2630171381661906328L;
 
     private List<String> eventAttending;
     private boolean VIP;
@@ -11,13 +11,20 @@ import java.util.UUID;
  * A chat in our program. It stores info related to chats and preforms operations on chats (ex. sending messages).
  * <p>
  * This object also stores Messages since they are a part of chats.
+ * <p>
+ * The position of each message is kept in an index that is not saved. It is made again the first time it is needed
+ * after loading or deleting a message, and grows with each message sent, so a chat can be read from any position (ex.
+ * only its newest messages) without going through the messages before it.
  * @author William Wang
  */
 public class Chat implements Serializable {
+    private static final long serialVersionUID = 6503963389994391026L;
     private LinkedHashMap<UUID, Message> chatMessages;  //stores all messages by pairing them with an id. Should be sorted by time
     private Map<String, UUID> lastViewedMessage; //pairs username with a message id. If chatMessages/memberUsernames is changed, this must be changed as well.
     private List<String> memberUsernames;  //users in the chat
     private String chatName;
+    private transient List<UUID> order;                 //the message ids in order; made again when null
+    private transient Map<UUID, Integer> positions;     //maps message id to its index in order
 
     /**
      * Creates a new chat
@@ -40,7 +47,47 @@ public class Chat implements Serializable {
      * @return Sorted list of all the message ids in the chat
      */
     public List<UUID> getAllMessages(){
-        return new ArrayList<>(chatMessages.keySet()); // the use case needs to update the last viewed message if the user is viewing
+        return new ArrayList<>(index()); // the use case needs to update the last viewed message if the user is viewing
+    }
+
+    /**
+     * getter for the number of messages
+     * @return The number of messages in the chat
+     */
+    public int getMessageCount(){
+        return chatMessages.size();
+    }
+
+    /**
+     * getter for some of the message ids, without copying the others
+     * @param from The index of the first message
+     * @param count The maximum number of messages
+     * @return Sorted list of the message ids from the index on
+     */
+    public List<UUID> getMessages(int from, int count){
+        List<UUID> messages = index();
+        int start = Math.max(0, Math.min(from, messages.size()));
+        return new ArrayList<>(messages.subList(start, Math.max(start, Math.min(messages.size(), from + count))));
+    }
+
+    /**
+     * getter for the newest message id
+     * @return The id of the last message, or null if the chat has no messages
+     */
+    public UUID getLastMessage(){
+        List<UUID> messages = index();
+        return messages.isEmpty() ? null : messages.get(messages.size() - 1);
+    }
+
+    /**
+     * getter for the position of a message
+     * @param messageId The id of the message
+     * @return The index of the message, or -1 if it is not in this chat
+     */
+    public int getPosition(UUID messageId){
+        index();
+        Integer position = positions.get(messageId);
+        return position == null ? -1 : position;
     }
 
     /**
@@ -87,6 +134,10 @@ public class Chat implements Serializable {
      */
     public void addChatMessage(UUID newMessageId, Message message) {
         chatMessages.put(newMessageId, message); // the use case needs to update the last viewed message (since sending a message probably means they view the previous ones)
+        if (order != null){
+            positions.put(newMessageId, order.size());
+            order.add(newMessageId);
+        }
     }
 
     /**
@@ -96,6 +147,8 @@ public class Chat implements Serializable {
      */
     public void removeMessage(UUID newMessageId){
         chatMessages.remove(newMessageId);
+        order = null;   //the positions after the message have changed
+        positions = null;
     }
 
     /**
@@ -108,6 +161,17 @@ public class Chat implements Serializable {
         lastViewedMessage.put(username, lastMessageId);
     }
 
+    private List<UUID> index(){
+        if (order == null){
+            order = new ArrayList<>(chatMessages.keySet());
+            positions = new HashMap<>();
+            for (int i = 0; i < order.size(); i++){
+                positions.put(order.get(i), i);
+            }
+        }
+        return order;
+    }
+
 //    /**
 //     * Add a user to this chat
 //     * PRECONDITION : the user does not already exist in this chat
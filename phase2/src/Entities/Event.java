@@ -3,12 +3,15 @@ package Entities;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
  * A Event in our program
  */
 public class Event implements Serializable {
+    private static final long serialVersionUID = -7645445062716346544L;
     private String title;
     private final LocalDateTime startTime;
     private final LocalDateTime endTime;
@@ -17,6 +20,9 @@ public class Event implements Serializable {
     private List<String> speakerUserNames;
     private final boolean VIP;
     private int maxNum;
+    // People waiting for a spot, in the order they joined. VIPs are let in before everyone else.
+    private LinkedHashSet<String> vipWaitlist;
+    private LinkedHashSet<String> waitlist;
 
     /**
      * Constructor for Event
@@ -132,4 +138,95 @@ public class Event implements Serializable {
         else if (getSpeakerUserNames().size() == 1) { return "Talk"; }
         else { return "Panel"; }
     }
+
+    /**
+     * Add a user to the end of the waitlist for this event.
+     * @param userName the username of the user
+     * @param priority true iff the user should be let in before everyone without priority (ex. a VIP)
+     * @return true iff the user was not already on the waitlist
+     */
+    public boolean addToWaitlist(String userName, boolean priority) {
+        if (isWaitlisted(userName)) { return false; }
+        if (priority) {
+            if (vipWaitlist == null) { vipWaitlist = new LinkedHashSet<>(); }
+            return vipWaitlist.add(userName);
+        }
+        if (waitlist == null) { waitlist = new LinkedHashSet<>(); }
+        return waitlist.add(userName);
+    }
+
+    /**
+     * Remove a user from the waitlist for this event.
+     * @param userName the username of the user
+     * @return true iff the user was on the waitlist
+     */
+    public boolean removeFromWaitlist(String userName) {
+        boolean removed = vipWaitlist != null && vipWaitlist.remove(userName);
+        return (waitlist != null && waitlist.remove(userName)) || removed;
+    }
+
+    /**
+     * Remove and return the user who has been waiting the longest, letting users with priority in first.
+     * @return the username of the user, or null if nobody is waiting
+     */
+    public String pollWaitlist() {
+        String userName = pollFirst(vipWaitlist);
+        return userName != null ? userName : pollFirst(waitlist);
+    }
+
+    /**
+     * Check whether a user is on the waitlist for this event.
+     * @param userName the username of the user
+     * @return true iff the user is on the waitlist
+     */
+    public boolean isWaitlisted(String userName) {
+        return (vipWaitlist != null && vipWaitlist.contains(userName)) || (waitlist != null && waitlist.contains(userName));
+    }
+
+    /**
+     * Getter for the number of people waiting for a spot in this event
+     * @return the length of the waitlist
+     */
+    public int getWaitlistSize() {
+        return (vipWaitlist == null ? 0 : vipWaitlist.size()) + (waitlist == null ? 0 : waitlist.size());
+    }
+
+    /**
+     * Getter for the waitlist of this event, in the order people will be let in
+     * @return the List of usernames on the waitlist
+     */
+    public List<String> getWaitlist() {
+        List<String> all = new ArrayList<>();
+        if (vipWaitlist != null) { all.addAll(vipWaitlist); }
+        if (waitlist != null) { all.addAll(waitlist); }
+        return all;
+    }
+
+    /**
+     * Getter for the users on the waitlist of this event with or without priority, in the order they will be let in
+     * @param priority true for the users with priority, false for everyone else
+     * @return the List of usernames
+     */
+    public List<String> getWaitlist(boolean priority) {
+        LinkedHashSet<String> queue = priority ? vipWaitlist : waitlist;
+        return queue == null ? new ArrayList<>() : new ArrayList<>(queue);
+    }
+
+    /**
+     * Replace the waitlist of this event (ex. to put back the users let in by a promotion that was undone).
+     * @param priorityWaitlist the users with priority, in the order they will be let in
+     * @param otherWaitlist everyone else, in the order they will be let in
+     */
+    public void setWaitlist(List<String> priorityWaitlist, List<String> otherWaitlist) {
+        vipWaitlist = priorityWaitlist.isEmpty() ? null : new LinkedHashSet<>(priorityWaitlist);
+        waitlist = otherWaitlist.isEmpty() ? null : new LinkedHashSet<>(otherWaitlist);
+    }
+
+    private static String pollFirst(LinkedHashSet<String> queue) {
+        if (queue == null || queue.isEmpty()) { return null; }
+        Iterator<String> first = queue.iterator();
+        String userName = first.next();
+        first.remove();
+        return userName;
+    }
 }
@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 public class ImageMessage extends Message implements Serializable {
+    private static final long serialVersionUID = 8420875901329666589L;
     private final String imageString;
 
     /**
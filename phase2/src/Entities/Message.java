@@ -9,6 +9,7 @@ import java.time.LocalDateTime;
  * @author William Wang
  */
 public class Message implements Serializable {
+    private static final long serialVersionUID = -5845307403609886292L;
     private final String senderUsername;
     // I removed the receiver since if we have chats, the chat will include all members of the chat
     private final LocalDateTime time;
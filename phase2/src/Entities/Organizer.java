@@ -4,6 +4,7 @@ package Entities;
  * Organizer is a class that participates in events and also plans them.
  */
 public class Organizer extends Attendee{
+    private static final long serialVersionUID = -6862399299691120751L;
     public String role = "Volunteer";
 
     public Organizer(String username,String password){
@@ -1,12 +1,15 @@
 package Entities;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 
 public class Request implements Serializable {
+    private static final long serialVersionUID = -4180313635589005929L;
     public Integer requestNum;
     public String senderUsername;
     public String content;
     public boolean status;
+    private final LocalDateTime timeCreated;
 
     /**
      * Creates a new Request
@@ -14,11 +17,13 @@ public class Request implements Serializable {
      * @param requestNum the request number
      * @param senderUsername the username of the sender
      * @param content        the literal string representing the request
+     * @param timeCreated    the date/time the request was sent
      */
-    public Request(int requestNum, String senderUsername, String content) {
+    public Request(int requestNum, String senderUsername, String content, LocalDateTime timeCreated) {
         this.content = content;
         this.requestNum = requestNum;
         this.senderUsername = senderUsername;
+        this.timeCreated = timeCreated;
     }
 
     /**
@@ -68,4 +73,12 @@ public class Request implements Serializable {
         return content;
     }
 
+    /**
+     * getter for the time the request was sent
+     * @return The time stamp for this request
+     */
+    public LocalDateTime getTimeCreated(){
+        return timeCreated;
+    }
+
 }
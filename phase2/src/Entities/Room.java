@@ -1,5 +1,6 @@
 package Entities;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -7,6 +8,7 @@ import java.util.List;
  */
 
 public class Room implements Serializable {
+    private static final long serialVersionUID = 5390542759380591445L;
     private final String roomNum;
     private final Integer capacity;
     private List<String> eventTitles;
@@ -19,6 +21,7 @@ public class Room implements Serializable {
     public Room(String roomNum, int capacity){
         this.roomNum = roomNum;
         this.capacity = capacity;
+        this.eventTitles = new ArrayList<>();
     }
 
     /**
@@ -44,4 +47,21 @@ public class Room implements Serializable {
      * @param eventTitles the new list of events that you want to set.
      */
     public void setEvents(List<String> eventTitles){this.eventTitles = eventTitles;}
+
+    /**
+     * Add the given event title to the list of events held in this room.
+     * @param title the title of the event
+     */
+    public void addEvent(String title){
+        if (eventTitles == null) { eventTitles = new ArrayList<>(); }
+        eventTitles.add(title);
+    }
+
+    /**
+     * Delete the given event title from the list of events held in this room.
+     * @param title the title of the event
+     */
+    public void deleteEvent(String title){
+        if (eventTitles != null) { eventTitles.remove(title); }
+    }
 }
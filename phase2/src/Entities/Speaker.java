@@ -6,6 +6,7 @@ import java.util.List;
  * Speaker is a class that gives talks and communicates with attendees.
  */
 public class Speaker extends User {
+    private static final long serialVersionUID = 4450244989056247500L;
     // list of talks the speaker gives
     private final List<String> talkTitles = new ArrayList<>();
 
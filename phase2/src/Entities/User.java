@@ -7,8 +7,9 @@ import java.util.List;
  * every user of this program should have
  */
 public abstract class User implements Serializable {
+    private static final long serialVersionUID = -5869525720665729818L;
     private final String username;
-    private final String password;
+    private String password;    // hashed, or plain text in saves made before passwords were hashed
     private List <String> friends;
 
 
@@ -32,22 +33,22 @@ public abstract class User implements Serializable {
     }
 
     /**
-     * Getter for this <User></User>'s password.
+     * Getter for this <User></User>'s stored password.
      *
-     * @return this <User></User>'s password
+     * @return this <User></User>'s stored password
      */
     public String getPassword() {
         return password;
     }
 
-    /*
-     * Setter for this <User></User>'s password
+    /**
+     * Setter for this <User></User>'s stored password
      *
-     *   the new password
-
+     * @param newPassword the new stored password
+     */
     public void setPassword(String newPassword) {
         password = newPassword;
-    }  */
+    }
 
 
     /**
@@ -0,0 +1,156 @@
+package GUI;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import java.awt.Cursor;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Runs a long Viewable call (ex. loading or saving a conference, or a broadcast) on a background thread, so the window
+ * keeps repainting while it runs.
+ * <p>
+ * While the call runs, the panel it was started from shows what is being done, how long it has taken so far and a
+ * progress bar, instead of its buttons, so nothing else can be started until it is done. Calls that can be stopped
+ * part way also get a Cancel button, which interrupts the background thread. The task still waits for the call to
+ * return: it only counts as cancelled if the call stopped without changing anything, since a call that had already got
+ * past the point where it can stop (ex. a load that has replaced the conference) has done its work. When the call is
+ * done, the result is handed back on the event thread, which then shows the next screen.
+ * <p>
+ * The Viewable must be safe to call from more than one thread (see TechConferenceSystem.lockedView).
+ * @param <T> the type of the result of the call
+ */
+class BackgroundTask<T> extends SwingWorker<T, Void> {
+    private final String description;
+    private final Callable<T> work;
+    private final Consumer<T> done;
+    private final Consumer<String> failed;
+    private Predicate<? super T> stopped;
+    private Runnable cancelled;
+    private volatile boolean cancelRequested;
+    private Thread worker;      // the thread running the call, while it runs; guarded by this
+    private JPanel host;
+    private Timer clock;
+
+    /**
+     * Create a task that cannot be cancelled
+     * @param description what is being done (ex. "Saving the conference")
+     * @param work the call
+     * @param done what to do with the result, on the event thread
+     * @param failed what to do with the error message if the call throws, on the event thread
+     */
+    BackgroundTask(String description, Callable<T> work, Consumer<T> done, Consumer<String> failed) {
+        this.description = description;
+        this.work = work;
+        this.done = done;
+        this.failed = failed;
+    }
+
+    /**
+     * Let the user cancel the task. The call should check whether its thread was interrupted, and stop without
+     * changing anything if it was.
+     * @param stopped tells from the result of the call whether it stopped without changing anything
+     * @param cancelled what to do once the task is cancelled, on the event thread
+     * @return this task
+     */
+    BackgroundTask<T> cancellable(Predicate<? super T> stopped, Runnable cancelled) {
+        this.stopped = stopped;
+        this.cancelled = cancelled;
+        return this;
+    }
+
+    /**
+     * Show the task in place of the contents of a panel and start it
+     * @param host the panel the task was started from
+     * @param dashboard the dashboard that lays the window out
+     */
+    void start(JPanel host, Dashboard dashboard) {
+        this.host = host;
+        JLabel status = new JLabel(description + "...");
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        host.removeAll();
+        host.add(status);
+        host.add(bar);
+        if (cancelled != null) {
+            JButton cancel = new JButton("Cancel");
+            cancel.addActionListener(new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    cancel.setEnabled(false);
+                    status.setText("Cancelling...");
+                    requestCancel();
+                }
+            });
+            host.add(cancel);
+        }
+        long started = System.currentTimeMillis();
+        clock = new Timer(1000, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (!cancelRequested) {
+                    status.setText(description + "... (" + (System.currentTimeMillis() - started) / 1000 + "s)");
+                }
+            }
+        });
+        clock.start();
+        host.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        dashboard.refresh();
+        execute();
+    }
+
+    @Override
+    protected T doInBackground() throws Exception {
+        synchronized (this) {
+            worker = Thread.currentThread();
+            if (cancelRequested) {
+                worker.interrupt();
+            }
+        }
+        try {
+            return work.call();
+        } finally {
+            synchronized (this) {
+                worker = null;
+                Thread.interrupted();   // the thread is reused for other tasks
+            }
+        }
+    }
+
+    @Override
+    protected void done() {
+        clock.stop();
+        host.setCursor(Cursor.getDefaultCursor());
+        try {
+            T result = get();
+            if (cancelRequested && stopped.test(result)) {
+                cancelled.run();
+            } else {
+                done.accept(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            failed.accept("Uh-oh! " + (cause.getMessage() == null ? cause.toString() : cause.getMessage()));
+        }
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private synchronized void requestCancel() {
+        cancelRequested = true;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+}
@@ -29,6 +29,8 @@ import java.util.List;
  * @author Joyce Huang, Peter Chen
  */
 public class Dashboard{
+    // every row of a list of events or requests is drawn as wide as this, so the list never measures its rows
+    private static final String ROW_PROTOTYPE = String.join("", Collections.nCopies(160, "x"));
 
     private static JFrame frame;
     private final JPanel buttonPanel;
@@ -41,16 +43,17 @@ public class Dashboard{
     private JButton confirmSpeakerSignUp, confirmLogIn;
     private JButton nextPanel;
     private JButton save;
-    private JButton confirmRoomNumber, confirmAddEvent;
+    private JButton confirmRoomNumber, confirmAddEvent, suggestRoom;
     private JButton oneSpeakerEvent, multiSpeakerEvent, noSpeakerEvent;
     private JButton confirmCancelEvent, confirmChangeCapacity;
     private JButton successNextPanel;
     private JButton sendRequest, confirmSendRequest;
-    private JButton seeRequests, viewAllRequests, tagRequest;
+    private JButton seeRequests, viewAllRequests, tagRequest, claimRequest;
     private JButton addressed, pending;
+    private JButton importProgram, exportProgram, seeWaitlists, seeAgendaConflicts, checkData, repairData;
     private JTextField cancelEventTextfield, whichEvent;
     private JTextField changeCapacityEventTextfield, endDate;
-    private JLabel addRoomLabel;
+    private JLabel addRoomLabel, suggestRoomMsg;
     private JLabel requestLabel;
     private JTextField textInput, roomNumber, roomCapacity, filename, eventName, eventCapacity;
     private JTextField startDate, startTime, endTime, speakerUsernameOne, speakerUsernameMulti, VIP;
@@ -70,6 +73,8 @@ public class Dashboard{
     private MessagingDashboard messagingDashboard;
     private SynthLookAndFeel regularTheme, vipTheme;
     private final JFileChooser fileChooser;
+    private final JList<String> rowList;
+    private final JScrollPane rowScroller;
 
     /**
      * Constructor that creates and starts the program
@@ -90,6 +95,10 @@ public class Dashboard{
         previousMenu = "";
         loginType = "";
         fileChooser = new JFileChooser(System.getProperty("user.dir"));
+        rowList = new JList<>();
+        rowScroller = new JScrollPane(rowList, ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED,
+                ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+        rowScroller.setPreferredSize(new Dimension(1100, 720));
         loadMenu();
     }
 
@@ -258,11 +267,35 @@ public class Dashboard{
         buttonPanel.add(addEvent);
         buttonPanel.add(cancelEvent);
         buttonPanel.add(changeCapacity);
+        buttonPanel.add(seeWaitlists);
+        buttonPanel.add(seeAgendaConflicts);
+        buttonPanel.add(checkData);
+        buttonPanel.add(repairData);
+        buttonPanel.add(importProgram);
+        buttonPanel.add(exportProgram);
         buttonPanel.add(back);
         refresh();
         
     }
 
+    private void displayLines(String[] report, String emptyMessage) {
+        currentMenu = "DisplayLines";
+        previousMenu = "ScheduleMenu";
+        buttonPanel.removeAll();
+        if (report.length == 0) {
+            errorText.setText(emptyMessage);
+            buttonPanel.add(errorText);
+            buttonPanel.add(back);
+            refresh();
+            return;
+        }
+        JScrollPane lines = new JScrollPane(new JList(report), ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+        lines.setPreferredSize(new Dimension(1100, 600));
+        buttonPanel.add(lines);
+        buttonPanel.add(back);
+        refresh();
+    }
+
     private void addRoom(){
         currentMenu = "AddRoom";
         buttonPanel.removeAll();
@@ -331,6 +364,9 @@ public class Dashboard{
         buttonPanel.add(roomNumber);
         buttonPanel.add(displayCapacity);
         buttonPanel.add(eventCapacity);
+        suggestRoomMsg.setText("");
+        buttonPanel.add(suggestRoom);
+        buttonPanel.add(suggestRoomMsg);
         if (eventType.equals("one")){
             buttonPanel.add(speakerUsernameDisplayOne);
             buttonPanel.add(speakerUsernameOne);
@@ -360,6 +396,7 @@ public class Dashboard{
         currentMenu = "SeeRequests";
         buttonPanel.removeAll();
         buttonPanel.add(viewAllRequests);
+        buttonPanel.add(claimRequest);
         buttonPanel.add(tagRequest);
         buttonPanel.add(back);
         refresh();
@@ -368,10 +405,7 @@ public class Dashboard{
     private void viewRequests() {
         currentMenu = "ViewRequests";
         buttonPanel.removeAll();
-        JScrollPane requests = new JScrollPane(new JList(sendsInfo.displayRequests()),
-                ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-        requests.setPreferredSize(new Dimension(1100, 720));
-        buttonPanel.add(requests);
+        showRows(new PagedListModel<>(sendsInfo.requestCount(), sendsInfo::displayRequestsPage, row -> row));
         buttonPanel.add(back);
         refresh();
     }
@@ -408,24 +442,29 @@ public class Dashboard{
     private void displayEvents(boolean allOrNot) {
         currentMenu = "DisplayEvents";
         buttonPanel.removeAll();
-        String[] info;
+        PagedListModel<String> info;
         if (allOrNot) {
-            info = sendsInfo.displayAllEvents();
+            info = new PagedListModel<>(sendsInfo.eventCount(), sendsInfo::displayEventsPage, row -> row);
         } else {
-            info = sendsInfo.displaySignedUpEvents(currentUsername);
+            info = PagedListModel.of(sendsInfo.displaySignedUpEvents(currentUsername));
         }
-        if (info.length == 0) {
+        if (info.getSize() == 0) {
             errorText.setText("no events :(");
             buttonPanel.add(errorText);
         } else {
-            JScrollPane events =new JScrollPane(new JList(info), ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-            events.setPreferredSize(new Dimension(1100, 720));
-            buttonPanel.add(events);
+            showRows(info);
         }
         buttonPanel.add(back);
         refresh();
     }
 
+    // the list and its scroll pane are made once and given a new model each time, which fetches only the rows shown
+    private void showRows(PagedListModel<?> rows) {
+        PagedListModel.install(rowList, rows, ROW_PROTOTYPE);
+        rowScroller.getVerticalScrollBar().setValue(0);
+        buttonPanel.add(rowScroller);
+    }
+
 
     private void createButtons() {
         load = new JButton("Load Existing Conference");
@@ -817,6 +856,26 @@ public class Dashboard{
                 }
             }
         });
+        suggestRoom = new JButton("Suggest Room");
+        suggestRoom.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int checkCapacity = tryParse(eventCapacity.getText());
+                if (checkCapacity <= 0) {
+                    suggestRoomMsg.setText("Enter a capacity first.");
+                } else {
+                    String room = sendsInfo.findBestFitRoom(checkCapacity, startDate.getText(), endDate.getText(),
+                            startTime.getText(), endTime.getText());
+                    if (room == null) {
+                        suggestRoomMsg.setText("No free room fits at this time.");
+                    } else {
+                        roomNumber.setText(room);
+                        suggestRoomMsg.setText("");
+                    }
+                }
+                refresh();
+            }
+        });
         sendRequest = new JButton("Send Request");
         sendRequest.addActionListener(new ActionListener() {
             @Override
@@ -850,6 +909,19 @@ public class Dashboard{
                 viewRequests();
             }
         });
+        claimRequest = new JButton("Claim Next Request");
+        claimRequest.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                previousMenu = "SeeRequests";
+                String claimed = sendsInfo.claimNextRequest(currentUsername);
+                if (claimed == null) {
+                    failedMenu("There are no unclaimed pending requests.");
+                } else {
+                    successMenu("Claimed " + claimed);
+                }
+            }
+        });
         tagRequest = new JButton("Tag Request");
         tagRequest.addActionListener(new ActionListener() {
             @Override
@@ -863,8 +935,8 @@ public class Dashboard{
             @Override
             public void actionPerformed(ActionEvent e) {
                 int input = tryParse(textInput.getText());
-                if (!sendsInfo.markAddressed(input)) {
-                    failedMenu("This request number does not exist.");
+                if (!sendsInfo.markAddressed(currentUsername, input)) {
+                    failedMenu("This request number does not exist or another organizer has claimed it.");
                 }else{previousMenu();}
             }
         });
@@ -873,11 +945,71 @@ public class Dashboard{
             @Override
             public void actionPerformed(ActionEvent e) {
                 int input = tryParse(textInput.getText());
-                if (!sendsInfo.markPending(input)) {
-                    failedMenu("This request number does not exist.");
+                if (!sendsInfo.markPending(currentUsername, input)) {
+                    failedMenu("This request number does not exist or another organizer has claimed it.");
                 }else{previousMenu();}
             }
         });
+        seeWaitlists = new JButton("See Waitlists");
+        seeWaitlists.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                displayLines(sendsInfo.displayWaitlists(), "No one is on a waitlist.");
+            }
+        });
+        seeAgendaConflicts = new JButton("See Agenda Conflicts");
+        seeAgendaConflicts.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                displayLines(sendsInfo.displayAgendaConflicts(), "No one has signed up for overlapping events.");
+            }
+        });
+        checkData = new JButton("Check Data");
+        checkData.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                checkData(false);
+            }
+        });
+        repairData = new JButton("Repair Data");
+        repairData.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                checkData(true);
+            }
+        });
+        importProgram = new JButton("Import Program");
+        importProgram.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int result = fileChooser.showOpenDialog(buttonPanel);
+                if (result == JFileChooser.APPROVE_OPTION) {
+                    String importFile = fileChooser.getSelectedFile().getAbsolutePath();
+                    new BackgroundTask<>("Importing " + importFile, () -> sendsInfo.importProgram(importFile),
+                            report -> displayLines(report.toArray(new String[0]), ""), Dashboard.this::failedMenu)
+                            .start(buttonPanel, Dashboard.this);
+                }
+            }
+        });
+        exportProgram = new JButton("Export Program");
+        exportProgram.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int result = fileChooser.showSaveDialog(buttonPanel);
+                if (result == JFileChooser.APPROVE_OPTION) {
+                    previousMenu = "ScheduleMenu";
+                    String exportFile = fileChooser.getSelectedFile().getAbsolutePath();
+                    new BackgroundTask<>("Exporting to " + exportFile, () -> sendsInfo.exportProgram(exportFile),
+                            exported -> {
+                                if (exported) {
+                                    successMenu("Program exported.");
+                                } else {
+                                    failedMenu("Export failed due to IOException.");
+                                }
+                            }, Dashboard.this::failedMenu).start(buttonPanel, Dashboard.this);
+                }
+            }
+        });
         textInput = new JTextField(12);
         password = new JPasswordField(12);
         errorText = new JLabel();
@@ -888,6 +1020,7 @@ public class Dashboard{
         changeCapacityEventTextfield = new JTextField(12);
         cancelEventTextfield = new JTextField(12);
         addRoomLabel = new JLabel("Room Number:");
+        suggestRoomMsg = new JLabel();
         requestLabel = new JLabel("Enter the request number:");
         displayCapacity = new JLabel("Capacity:");
         displayUsername = new JLabel("Username:");
@@ -1030,6 +1163,12 @@ public class Dashboard{
             case "TagRequest":
                 tagRequest();
                 break;
+            case "SeeRequests":
+                seeRequestsMenu();
+                break;
+            case "Scheduling":
+                schedulingMenu();
+                break;
         }
     }
 
@@ -1129,12 +1268,18 @@ public class Dashboard{
         }
     }
 
+    // saving, loading and checking the data can take seconds on a large conference, so they run in the background
     private void saveFile() {
         int result = fileChooser.showSaveDialog(buttonPanel);
         if (result == JFileChooser.APPROVE_OPTION) {
-            if (!sendsInfo.saveProgram(fileChooser.getSelectedFile().getAbsolutePath())) {
-                failedMenu("Save failed due to IOException.");
-            }
+            String saveFile = fileChooser.getSelectedFile().getAbsolutePath();
+            new BackgroundTask<>("Saving to " + saveFile, () -> sendsInfo.saveProgram(saveFile), saved -> {
+                if (saved) {
+                    returnToSameMenu();
+                } else {
+                    failedMenu("Save failed due to IOException.");
+                }
+            }, this::failedMenu).cancellable(saved -> !saved, this::returnToSameMenu).start(buttonPanel, this);
         }
     }
 
@@ -1142,11 +1287,20 @@ public class Dashboard{
         currentMenu = "LoadingConference";
         int result = fileChooser.showOpenDialog(buttonPanel);
         if (result == JFileChooser.APPROVE_OPTION) {
-            if (sendsInfo.loadConferenceButton(fileChooser.getSelectedFile().getAbsolutePath())) {
-                loginSignup();
-            } else {
-                failedMenu("Load failed. Please try again or create a new conference.");
-            }
+            String loadFile = fileChooser.getSelectedFile().getAbsolutePath();
+            new BackgroundTask<>("Loading " + loadFile, () -> sendsInfo.loadConferenceButton(loadFile), loaded -> {
+                if (loaded) {
+                    loginSignup();
+                } else {
+                    failedMenu("Load failed. Please try again or create a new conference.");
+                }
+            }, this::failedMenu).cancellable(loaded -> !loaded, this::loadMenu).start(buttonPanel, this);
         }
     }
+
+    private void checkData(boolean repair) {
+        new BackgroundTask<>(repair ? "Repairing the data" : "Checking the data",
+                () -> sendsInfo.checkConsistency(repair), report -> displayLines(report, ""), this::failedMenu)
+                .start(buttonPanel, this);
+    }
 }
\ No newline at end of file
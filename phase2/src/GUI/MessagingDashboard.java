@@ -3,36 +3,51 @@ package GUI;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JTextField;
 import javax.swing.JList;
 import javax.swing.JFileChooser;
 import javax.swing.JScrollPane;
 import javax.swing.ListSelectionModel;
 import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import javax.swing.JLabel;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MessagingDashboard extends JPanel{
+    // every message is drawn as wide as this, so a long chat is never measured message by message
+    private static final String MESSAGE_PROTOTYPE = String.join("", Collections.nCopies(120, "x"));
+
     private final String loginType;
     private String currentMenu;
     private final String currentUsername;
     private JButton viewChat, sendMessage, viewNewMessages;
     private JButton addFriend,confirmFriend;
-    private JButton sendOne,sendAllAttendee, sendAllSpeaker, sendAllAttendeeEvent;
+    private JButton sendOne,sendAllAttendee, sendAllSpeaker, sendAllAttendeeEvent, sendEventAttendeesByVIP;
     private JButton confirmOneMessage,confirmChatNumber, archiveChat, markChatUnread, attachImage, clearImage;
-    private JButton allAttendeeMsg, allSpeakerMsg, allEventMsg;
+    private JButton allAttendeeMsg, allSpeakerMsg, allEventMsg, eventAttendeesByVIPMsg;
+    private JComboBox<String> vipFilter;
     private JButton nextPanel, back;
     private JButton deleteMsg;
     private JLabel errorText;
     private JLabel displayUsername, usernameLabel, msgContentLabel;
     private JLabel eventListText;
     private JList<String> chatNames, chatMsg, newChatMsg;
-    private int currentChatIndex;
+    private JScrollPane chatNamesScroller, chatMsgScroller, newChatMsgScroller;
+    private String[] chatHandles;
+    private PagedListModel<String[]> messageRows;
+    private String currentChatHandle;
+    private String lastMessageHandle;       // the handle of the last message shown, to tell appends from deletions
+    private final AtomicBoolean updatePending;
     private JTextField friendAddText;
     private JTextField usernameTextfield;
     private JTextField content;
@@ -42,7 +57,6 @@ public class MessagingDashboard extends JPanel{
     private final Dashboard dashboard;
     private final JFileChooser fileChooser;
     private String attachedImagePath;
-    private HashMap<Integer, byte[]> indexToImage;
 
     /**
      * Creates UI for messaging menu for a logged in user
@@ -59,6 +73,7 @@ public class MessagingDashboard extends JPanel{
         this.dashboard = dashboard;
         this.attachedImagePath = "";
         this.fileChooser = new JFileChooser(System.getProperty("user.dir"));
+        this.updatePending = new AtomicBoolean();
         createButtons();
         messagingMenu();
     }
@@ -90,6 +105,7 @@ public class MessagingDashboard extends JPanel{
         if (loginType.equals("Organizer")) {
             this.add(sendAllAttendee);
             this.add(sendAllSpeaker);
+            this.add(sendEventAttendeesByVIP);
         }else if (loginType.equals("Speaker")){
             this.add(sendAllAttendeeEvent);
         }
@@ -150,44 +166,124 @@ public class MessagingDashboard extends JPanel{
 
     private void chatDisplay() {
         currentMenu = "ViewChat";
+        sendsInfo.unwatchChat(currentUsername);
         this.removeAll();
         this.add(displayChatNumber);
         this.add(confirmChatNumber);
         this.add(archiveChat);
         this.add(markChatUnread);
         this.add(back);
-        List<String> userToDisplay = sendsInfo.viewChatNames(currentUsername);
+        String[][] chats = sendsInfo.viewChats(currentUsername);
+        String[] userToDisplay = new String[chats.length];
+        chatHandles = new String[chats.length];
+        for (int i = 0; i < chats.length; i++) {
+            chatHandles[i] = chats[i][0];
+            userToDisplay[i] = (i + 1) + ". " + chats[i][1] + (chats[i][2].equals("0") ? "" : " (" + chats[i][2] + " new)");
+        }
 
-        chatNames.setListData(userToDisplay.toArray(new String[0]));
-        JScrollPane listScroller = new JScrollPane(chatNames);
-        listScroller.setPreferredSize(new Dimension(800, 450));
-        this.add(listScroller);
+        chatNames.setListData(userToDisplay);
+        this.add(chatNamesScroller);
         dashboard.refresh();
     }
 
-    private void displayChatMsg(String[][] messages){
+    // the messages are fetched a page at a time as they are scrolled to, and formatted only when they are shown;
+    // messages sent while the chat is open are added to the end as they arrive (see showNewMessages)
+    private void displayChatMsg(){
+        String chatHandle = currentChatHandle;
+        int messageCount = sendsInfo.openChat(chatHandle, currentUsername);
+        if (messageCount < 0) {     // the chat is no longer one of the user's chats
+            chatDisplay();
+            return;
+        }
         currentMenu = "ViewOneChat";
         this.removeAll();
-        String[] formattedMessages = new String[messages.length];
-        indexToImage = new HashMap<>();
-        for (int i=0; i<messages.length; i++) {
-            if (sendsInfo.includesImage(currentUsername, currentChatIndex, i)) {
-                formattedMessages[i] = "        " + messages[i][0] + " :    " + messages[i][1] + " [Double click for image]" +
-                        String.format("%1$" + (50 + ("["+ messages[i][2]+"]").length()) + "s", "["+messages[i][2]+"]");
-                indexToImage.put(i, Base64.getDecoder().decode(messages[i][3]));
+        messageRows = new PagedListModel<>(messageCount,
+                (page, pageSize) -> sendsInfo.viewChatPage(chatHandle, currentUsername, page, pageSize),
+                this::formatMessage).inBackground();
+        PagedListModel.install(chatMsg, messageRows, MESSAGE_PROTOTYPE);
+        lastMessageHandle = getMessageHandle(chatHandle, messageCount - 1);
+        sendsInfo.watchChat(chatHandle, currentUsername, this::chatChanged);
+        chatMsgScroller.getVerticalScrollBar().setValue(0);
+        this.add(chatMsgScroller);
+        this.add(deleteMsg);
+        this.add(back);
+        dashboard.refresh();
+    }
+
+    private void sendEventAttendeesByVIP(){
+        currentMenu = "MsgEventAttendeesByVIP";
+        this.removeAll();
+        this.add(msgContentLabel);
+        this.add(content);
+        this.add(eventListText);
+        this.add(eventList);
+        this.add(vipFilter);
+        this.add(attachImage);
+        this.add(clearImage);
+        this.add(eventAttendeesByVIPMsg);
+        this.add(back);
+        dashboard.refresh();
+    }
+
+    // runs on the thread sending or deleting the message, so it only asks the event thread to show it; a burst of
+    // messages is shown in one update
+    private void chatChanged() {
+        if (updatePending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::showNewMessages);
+        }
+    }
+
+    // fetches only the new messages that are scrolled to, unless a message was deleted, which moves the ones after it
+    private void showNewMessages() {
+        updatePending.set(false);
+        if (!"ViewOneChat".equals(currentMenu) || chatMsgScroller.getParent() != this) {
+            sendsInfo.unwatchChat(currentUsername);     // the chat is no longer on the screen
+            return;
+        }
+        String chatHandle = currentChatHandle;
+        int shown = messageRows.getSize();
+        int messageCount = sendsInfo.openChat(chatHandle, currentUsername);
+        if (messageCount < 0) {
+            chatDisplay();
+        } else if (messageCount < shown || !Objects.equals(getMessageHandle(chatHandle, shown - 1), lastMessageHandle)) {
+            displayChatMsg();
+        } else if (messageCount > shown) {
+            int lastVisible = chatMsg.getLastVisibleIndex();
+            boolean atEnd = lastVisible < 0 || lastVisible >= shown - 1;
+            messageRows.grow(messageCount);
+            lastMessageHandle = getMessageHandle(chatHandle, messageCount - 1);
+            if (atEnd) {    // follow the chat only if the user was reading its newest messages
+                chatMsg.ensureIndexIsVisible(messageCount - 1);
+            }
+        }
+    }
+
+    private String getMessageHandle(String chatHandle, int index) {
+        if (index < 0) {
+            return null;
+        }
+        String[][] rows = sendsInfo.viewChatPage(chatHandle, currentUsername, index, 1);
+        return rows == null || rows.length == 0 ? null : rows[0][0];
+    }
+
+    // a broadcast to everyone can take seconds, so it is sent in the background; the fields are read before it starts
+    private void broadcast(String description, Callable<String> send) {
+        new BackgroundTask<>(description, send, error -> {
+            if (error != null) {
+                failedMenu(error);
             } else {
-                formattedMessages[i] = "        " + messages[i][0] + " :    " + messages[i][1] +
-                        String.format("%1$" + (50 + ("["+ messages[i][2]+"]").length()) + "s", "["+messages[i][2]+"]");
+                refreshTextFields();
+                messagingMenu();
             }
+        }, this::failedMenu).start(this, dashboard);
+    }
 
+    private String formatMessage(String[] message) {
+        String time = String.format("%1$" + (50 + ("["+ message[3]+"]").length()) + "s", "["+message[3]+"]");
+        if (message.length > 4) {   // the message includes an image
+            return "        " + message[1] + " :    " + message[2] + " [Double click for image]" + time;
         }
-        chatMsg.setListData(formattedMessages);
-        JScrollPane listScroller = new JScrollPane(chatMsg);
-        listScroller.setPreferredSize(new Dimension(750, 450));
-        this.add(listScroller);
-        this.add(deleteMsg);
-        this.add(back);
-        dashboard.refresh();
+        return "        " + message[1] + " :    " + message[2] + time;
     }
 
     private void displayNewMessages(List<String[][]> messages, List<String> chatNames, List<String> timestamps) {
@@ -208,10 +304,7 @@ public class MessagingDashboard extends JPanel{
             }
         }
         newChatMsg.setListData(displayItems.toArray(new String[0]));
-        this.add(newChatMsg);
-        JScrollPane listScroller = new JScrollPane(newChatMsg);
-        listScroller.setPreferredSize(new Dimension(800, 450));
-        this.add(listScroller);
+        this.add(newChatMsgScroller);
         this.add(back);
         dashboard.refresh();
     }
@@ -223,6 +316,20 @@ public class MessagingDashboard extends JPanel{
         this.add(friendAddText);
         this.add(confirmFriend);
         this.add(back);
+        List<String> suggestions = sendsInfo.suggestFriends(currentUsername);
+        if (!suggestions.isEmpty()) {
+            this.add(new JLabel("People who go to the same events as you:"));
+            JList<String> suggestionList = new JList<>(suggestions.toArray(new String[0]));
+            suggestionList.addListSelectionListener(new ListSelectionListener() {
+                @Override
+                public void valueChanged(ListSelectionEvent e) {
+                    if (suggestionList.getSelectedValue() != null) {
+                        friendAddText.setText(suggestionList.getSelectedValue());
+                    }
+                }
+            });
+            this.add(new JScrollPane(suggestionList));
+        }
         dashboard.refresh();
     }
 
@@ -294,6 +401,13 @@ public class MessagingDashboard extends JPanel{
                 sendAllAttendeeEvent();
             }
         });
+        sendEventAttendeesByVIP = new JButton("Msg Attendees at Events");
+        sendEventAttendeesByVIP.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                sendEventAttendeesByVIP();
+            }
+        });
         confirmFriend = new JButton("Confirm");
         confirmFriend.addActionListener(new ActionListener() {
             @Override
@@ -331,39 +445,41 @@ public class MessagingDashboard extends JPanel{
         allAttendeeMsg.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String error = sendsInfo.msgAllAttendees(currentUsername,content.getText(), attachedImagePath);
-                if (error != null) {
-                    failedMenu(error);
-                } else {
-                    refreshTextFields();
-                    messagingMenu();
-                }
+                String text = content.getText();
+                String imagePath = attachedImagePath;
+                broadcast("Messaging all attendees", () -> sendsInfo.msgAllAttendees(currentUsername, text, imagePath));
             }
         });
         allSpeakerMsg = new JButton("Send");
         allSpeakerMsg.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String error = sendsInfo.msgAllSpeakers(currentUsername, content.getText(), attachedImagePath);
-                if (error != null) {
-                    failedMenu(error);
-                } else {
-                    refreshTextFields();
-                    messagingMenu();
-                }
+                String text = content.getText();
+                String imagePath = attachedImagePath;
+                broadcast("Messaging all speakers", () -> sendsInfo.msgAllSpeakers(currentUsername, text, imagePath));
             }
         });
         allEventMsg = new JButton("Send");
         allEventMsg.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String error = sendsInfo.msgAllAttendeeEvent(currentUsername, Arrays.asList(eventList.getText().split("/")), content.getText(), "");
-                if (error != null) {
-                    failedMenu(error);
-                } else {
-                    refreshTextFields();
-                    messagingMenu();
-                }
+                String text = content.getText();
+                List<String> eventTitles = Arrays.asList(eventList.getText().split("/"));
+                broadcast("Messaging the attendees of the events",
+                        () -> sendsInfo.msgAllAttendeeEvent(currentUsername, eventTitles, text, ""));
+            }
+        });
+        eventAttendeesByVIPMsg = new JButton("Send");
+        eventAttendeesByVIPMsg.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String text = content.getText();
+                String imagePath = attachedImagePath;
+                List<String> eventTitles = Arrays.asList(eventList.getText().split("/"));
+                // everyone, only VIPs or only the people who are not VIPs
+                Boolean vip = vipFilter.getSelectedIndex() == 0 ? null : vipFilter.getSelectedIndex() == 1;
+                broadcast("Messaging the attendees of the events", () -> sendsInfo.msgEventAttendeesByVIP(
+                        currentUsername, eventTitles, vip, text, imagePath));
             }
         });
         confirmChatNumber = new JButton("View");
@@ -371,12 +487,11 @@ public class MessagingDashboard extends JPanel{
             @Override
             public void actionPerformed(ActionEvent e) {
                 int chatNum = chatNames.getSelectedIndex();
-                currentChatIndex = chatNum;
                 if (chatNum == -1) {
                     failedMenu("Please select a chat.");
                 } else {
-                    String[][] msgInfo = sendsInfo.viewChat(chatNum, currentUsername);
-                    displayChatMsg(msgInfo);
+                    currentChatHandle = chatHandles[chatNum];
+                    displayChatMsg();
                 }
 
             }
@@ -389,7 +504,7 @@ public class MessagingDashboard extends JPanel{
                 if (chatNum == -1) {
                     failedMenu("Please select a chat.");
                 } else {
-                    String error = sendsInfo.archiveChats(currentUsername, chatNum);
+                    String error = sendsInfo.archiveChats(currentUsername, chatHandles[chatNum]);
                     if (error != null) {
                         failedMenu(error);
                     } else {
@@ -407,7 +522,7 @@ public class MessagingDashboard extends JPanel{
                 if (chatNum == -1) {
                     failedMenu("Please select a chat.");
                 } else {
-                    String error = sendsInfo.markChatAsUnread(currentUsername, chatNum);
+                    String error = sendsInfo.markChatAsUnread(currentUsername, chatHandles[chatNum]);
                     if (error != null) {
                         failedMenu(error);
                     } else {
@@ -421,16 +536,15 @@ public class MessagingDashboard extends JPanel{
         deleteMsg.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                int messageNum = chatMsg.getSelectedIndex();
-                if (messageNum == -1) {
+                String[] message = messageRows == null ? null : messageRows.getRow(chatMsg.getSelectedIndex());
+                if (message == null) {
                     failedMenu("Please select a message to delete.");
                 } else {
-                    String error = sendsInfo.deleteMsg(currentUsername, currentChatIndex, messageNum);
+                    String error = sendsInfo.deleteMsg(currentUsername, currentChatHandle, message[0]);
                     if (error != null) {
                         failedMenu(error);
                     } else {
-                        String[][] msgInfo = sendsInfo.viewChat(currentChatIndex, currentUsername);
-                        displayChatMsg(msgInfo);
+                        displayChatMsg();
                     }
                 }
 
@@ -489,16 +603,22 @@ public class MessagingDashboard extends JPanel{
             @Override
             public void mouseClicked(MouseEvent event) {
                 if (event.getClickCount() == 2) {
-                    int index = chatMsg.locationToIndex(event.getPoint());
-                    if (indexToImage.get(index) != null) {
-                        displayImage(indexToImage.get(index));
+                    String[] message = messageRows.getRow(chatMsg.locationToIndex(event.getPoint()));
+                    if (message != null && message.length > 4) {
+                        displayImage(Base64.getDecoder().decode(message[4]));
                     }
                 }
             }
         });
-        indexToImage = new HashMap<>();
+        chatNamesScroller = new JScrollPane(chatNames);
+        chatNamesScroller.setPreferredSize(new Dimension(800, 450));
+        chatMsgScroller = new JScrollPane(chatMsg);
+        chatMsgScroller.setPreferredSize(new Dimension(750, 450));
+        newChatMsgScroller = new JScrollPane(newChatMsg);
+        newChatMsgScroller.setPreferredSize(new Dimension(800, 450));
         eventListText = new JLabel("Enter event titles separated by a '/'");
-        currentChatIndex = -1;
+        vipFilter = new JComboBox<>(new String[]{"Everyone", "Only VIPs", "Only people who are not VIPs"});
+        currentChatHandle = null;
     }
 
 
@@ -530,8 +650,7 @@ public class MessagingDashboard extends JPanel{
                 chatDisplay();
                 break;
             case "ViewOneChat":
-                String[][] msgInfo = sendsInfo.viewChat(currentChatIndex, currentUsername);
-                displayChatMsg(msgInfo);
+                displayChatMsg();
                 break;
             case "sendMessage":
                 messagingMenu();
@@ -539,6 +658,9 @@ public class MessagingDashboard extends JPanel{
             case "MsgAllAttendeeEvent":
                 sendAllAttendeeEvent();
                 break;
+            case "MsgEventAttendeesByVIP":
+                sendEventAttendeesByVIP();
+                break;
             case "MsgAllAttendees":
                 sendAllAttendee();
                 break;
@@ -0,0 +1,184 @@
+package GUI;
+
+import javax.swing.AbstractListModel;
+import javax.swing.JList;
+import javax.swing.SwingUtilities;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * A list model that fetches its rows from the controller a page at a time, only when the list shows them, so a JList
+ * of 100k events or messages keeps only a few pages in memory.
+ * <p>
+ * Rows can be added to the end as they arrive (see grow); for any other change, a list is given a new model. Rows are
+ * formatted when they are shown. The last few pages fetched are kept, so scrolling back and forth does not fetch them again.
+ * The list should have a fixed cell size (see install), or it measures every row to lay itself out.
+ * <p>
+ * Pages whose source may wait for the transaction lock (ex. the messages of a chat) can be fetched in the background
+ * (see inBackground): a row that has not arrived yet is shown empty, and its page is shown once it arrives, so the
+ * list keeps scrolling while another thread holds the lock.
+ * @param <T> the type of the rows the controller sends (ex. a String, or a String[] for a message)
+ */
+class PagedListModel<T> extends AbstractListModel<String> {
+    private static final long serialVersionUID = 1L;
+    private static final int PAGE_SIZE = 200;
+    private static final int PAGES_KEPT = 4;
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "page-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private int size;
+    private final PageSource<T> source;
+    private final Function<T, String> format;
+    private final Map<Integer, T[]> pages;      // a page maps to null if the source had no rows for it
+    private final Set<Integer> loading;         // the pages being fetched in the background
+    private boolean background;
+    private int version;                        // counts the calls to grow, so pages fetched before one are dropped
+
+    /**
+     * Where the rows come from (ex. Viewable.displayEventsPage)
+     * @param <T> the type of the rows
+     */
+    interface PageSource<T> {
+        /**
+         * @param page the page number, starting at 0
+         * @param pageSize the number of rows on a page
+         * @return the rows on the page, or null if there are none anymore
+         */
+        T[] getPage(int page, int pageSize);
+    }
+
+    /**
+     * Create a model over rows from the controller
+     * @param size the number of rows
+     * @param source where the rows come from
+     * @param format how a row is shown
+     */
+    PagedListModel(int size, PageSource<T> source, Function<T, String> format) {
+        this.size = Math.max(0, size);
+        this.source = source;
+        this.format = format;
+        this.pages = new LinkedHashMap<Integer, T[]>(PAGES_KEPT, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, T[]> eldest) {
+                return size() > PAGES_KEPT;
+            }
+        };
+        this.loading = new HashSet<>();
+    }
+
+    /**
+     * Fetch the pages on a background thread instead of the event thread, for sources that may wait for the lock
+     * @return this model
+     */
+    PagedListModel<T> inBackground() {
+        background = true;
+        return this;
+    }
+
+    /**
+     * Create a model over rows that have already been sent
+     * @param rows the rows
+     * @return the model
+     */
+    static PagedListModel<String> of(String[] rows) {
+        return new PagedListModel<>(rows.length, (page, pageSize) -> Arrays.copyOfRange(rows,
+                Math.min(rows.length, page * pageSize), Math.min(rows.length, (page + 1) * pageSize)), row -> row);
+    }
+
+    /**
+     * Give a list a model, with every cell the size of the prototype so the list never measures the rows
+     * @param list the list
+     * @param model the model
+     * @param prototype a row as long as the longest rows
+     */
+    static void install(JList<String> list, PagedListModel<?> model, String prototype) {
+        list.setPrototypeCellValue(prototype);
+        list.setModel(model);
+    }
+
+    /**
+     * Show rows added to the end since the model was made (ex. new messages in a chat), fetching only the page the
+     * last old row is on again. Must be called on the event thread.
+     * @param newSize the number of rows now
+     */
+    void grow(int newSize) {
+        if (newSize <= size) {
+            return;
+        }
+        int oldSize = size;
+        if (oldSize > 0) {
+            pages.remove((oldSize - 1) / PAGE_SIZE);
+        }
+        size = newSize;
+        version++;
+        fireIntervalAdded(this, oldSize, newSize - 1);
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        T row = getRow(index);
+        return row == null ? "" : format.apply(row);
+    }
+
+    /**
+     * Get a row as the controller sent it. Must be called on the event thread.
+     * @param index the index of the row
+     * @return the row, or null if it is no longer there (ex. the rest of a chat was deleted since the model was made)
+     * or if it is still being fetched in the background
+     */
+    public T getRow(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        int page = index / PAGE_SIZE;
+        if (!pages.containsKey(page)) {
+            if (background) {
+                load(page);
+                return null;
+            }
+            pages.put(page, source.getPage(page, PAGE_SIZE));
+        }
+        T[] rows = pages.get(page);
+        int offset = index % PAGE_SIZE;
+        return rows != null && offset < rows.length ? rows[offset] : null;
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    // fetches the page on the loader thread and shows it on the event thread; a page fetched before the model grew may
+    // be missing rows, so it is dropped and fetched again when the list asks for it
+    private void load(int page) {
+        if (!loading.add(page)) {
+            return;
+        }
+        int fetchedAt = version;
+        LOADER.execute(() -> {
+            T[] rows = source.getPage(page, PAGE_SIZE);
+            SwingUtilities.invokeLater(() -> {
+                loading.remove(page);
+                if (fetchedAt == version) {
+                    pages.put(page, rows);
+                }
+                int from = page * PAGE_SIZE;
+                if (from < size) {
+                    fireContentsChanged(this, from, Math.min(size, from + PAGE_SIZE) - 1);
+                }
+            });
+        });
+    }
+}
@@ -17,13 +17,18 @@ import java.awt.event.ActionListener;
  * @author Joyce Huang
  */
 public class SignUpDashboard extends JPanel {
+    private static final int PAGE_SIZE = 50;
     private String currentMenu, previousMenu, currentUsername;
     private JButton seeAllEvent, seeSignedEvent, back, nextPanel;
     private JButton browseEvent, signUpEvent, cancelAttendEvent;
-    private JButton confirmEventSignup, confirmEventRemoval;
+    private JButton confirmEventSignup, confirmEventRemoval, holdEventSeat;
+    private JButton previousPage, nextPage, seeAgenda, confirmAgenda;
     private final Viewable sendsInfo;
     private JTextField textInput;
-    private JLabel errorText, eventName;
+    private JTextField agendaDay, agendaFrom, agendaTo, agendaRoom, agendaType;
+    private JLabel errorText, eventName, pageLabel;
+    private JLabel agendaDayLabel, agendaFromLabel, agendaToLabel, agendaRoomLabel, agendaTypeLabel;
+    private int currentPage;
     private final Dashboard dashboard;
 
     /**
@@ -58,6 +63,7 @@ public class SignUpDashboard extends JPanel {
         this.removeAll();
         this.add(seeAllEvent);
         this.add(seeSignedEvent);
+        this.add(seeAgenda);
         this.add(back);
         dashboard.refresh();
         
@@ -68,21 +74,52 @@ public class SignUpDashboard extends JPanel {
         this.removeAll();
         String[] info;
         if (allOrNot) {
-            info = sendsInfo.displayAllEvents();
+            info = sendsInfo.displayEventsPage(currentPage, PAGE_SIZE);
         } else {
             info = sendsInfo.displaySignedUpEvents(currentUsername);
         }
+        showEventList(info);
+        if (allOrNot) {
+            int pageCount = sendsInfo.eventPageCount(PAGE_SIZE);
+            pageLabel.setText("Page " + (currentPage + 1) + " of " + pageCount);
+            previousPage.setEnabled(currentPage > 0);
+            nextPage.setEnabled(currentPage + 1 < pageCount);
+            this.add(previousPage);
+            this.add(pageLabel);
+            this.add(nextPage);
+        }
+        this.add(back);
+        dashboard.refresh();
+        
+    }
+
+    private void agendaMenu() {
+        currentMenu = "Agenda";
+        this.removeAll();
+        this.add(agendaDayLabel);
+        this.add(agendaDay);
+        this.add(agendaFromLabel);
+        this.add(agendaFrom);
+        this.add(agendaToLabel);
+        this.add(agendaTo);
+        this.add(agendaRoomLabel);
+        this.add(agendaRoom);
+        this.add(agendaTypeLabel);
+        this.add(agendaType);
+        this.add(confirmAgenda);
+        this.add(back);
+        dashboard.refresh();
+    }
+
+    private void showEventList(String[] info) {
         if (info.length == 0) {
             errorText.setText("no events :(");
             this.add(errorText);
         } else {
             JScrollPane events =new JScrollPane(new JList(info), ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-            events.setPreferredSize(new Dimension(1100, 720));
+            events.setPreferredSize(new Dimension(1100, 640));
             this.add(events);
         }
-        this.add(back);
-        dashboard.refresh();
-        
     }
 
     private void signUpForEvent() {
@@ -91,6 +128,7 @@ public class SignUpDashboard extends JPanel {
         this.add(eventName);
         this.add(textInput);
         this.add(confirmEventSignup);
+        this.add(holdEventSeat);
         this.add(back);
         dashboard.refresh();
         
@@ -129,9 +167,58 @@ public class SignUpDashboard extends JPanel {
             @Override
             public void actionPerformed(ActionEvent e) {
                 previousMenu = "BrowseMenu";
+                currentPage = 0;
                 displayEvents(true);
             }
         });
+        previousPage = new JButton("Previous Page");
+        previousPage.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                currentPage = Math.max(0, currentPage - 1);
+                displayEvents(true);
+            }
+        });
+        nextPage = new JButton("Next Page");
+        nextPage.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                currentPage++;
+                displayEvents(true);
+            }
+        });
+        seeAgenda = new JButton("See Agenda");
+        seeAgenda.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                previousMenu = "BrowseMenu";
+                agendaMenu();
+            }
+        });
+        confirmAgenda = new JButton("Confirm");
+        confirmAgenda.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                previousMenu = "BrowseMenu";
+                int day;
+                try {
+                    day = Integer.parseInt(agendaDay.getText().trim());
+                } catch (NumberFormatException ex) {
+                    day = 0;
+                }
+                String[] info = sendsInfo.displayAgenda(day, agendaFrom.getText().trim(), agendaTo.getText().trim(),
+                        agendaRoom.getText().trim(), agendaType.getText().trim());
+                if (info == null) {
+                    failedMenu("The day should be a positive integer and the times should be written as HH:MM:SS.");
+                } else {
+                    currentMenu = "DisplayEvents";
+                    SignUpDashboard.this.removeAll();
+                    showEventList(info);
+                    SignUpDashboard.this.add(back);
+                    dashboard.refresh();
+                }
+            }
+        });
         seeSignedEvent = new JButton("See Signed Up Events");
         seeSignedEvent.addActionListener(new ActionListener() {
             @Override
@@ -172,7 +259,7 @@ public class SignUpDashboard extends JPanel {
                         failedMenu("You have signed up for this event before.");
                         break;
                     case 2:
-                        failedMenu("The event you have entered is already full.");
+                        failedMenu("The event you have entered is full, and you are already on its waitlist.");
                         break;
                     case 3:
                         failedMenu("The event title you have entered is invalid.");
@@ -180,6 +267,13 @@ public class SignUpDashboard extends JPanel {
                     case 4:
                         failedMenu("This is a VIP event, but you are not a VIP.");
                         break;
+                    case 5:
+                        failedMenu("The event you have entered is full, so you have been added to its waitlist ("
+                                + sendsInfo.getWaitlistSize(textInput.getText()) + " waiting).");
+                        break;
+                    case 6:
+                        failedMenu("This event overlaps with an event you have signed up for.");
+                        break;
                 }
                 if (sendsInfo.userIsVIP(currentUsername)){
                     dashboard.loginType();
@@ -187,6 +281,41 @@ public class SignUpDashboard extends JPanel {
                 clearTextField();
             }
         });
+        holdEventSeat = new JButton("Hold Seat");
+        holdEventSeat.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                previousMenu = "SignUpMenu";
+                int result = sendsInfo.holdSeat(currentUsername, textInput.getText());
+                switch (result) {
+                    case 0:
+                        // keep the title so the user only has to press Confirm
+                        failedMenu("A seat is being held for you for a few minutes. Press Confirm to sign up before"
+                                + " the hold runs out.");
+                        return;
+                    case 1:
+                        failedMenu("You have signed up for this event before.");
+                        break;
+                    case 2:
+                        failedMenu("The event you have entered is full, and you are already on its waitlist.");
+                        break;
+                    case 3:
+                        failedMenu("The event title you have entered is invalid.");
+                        break;
+                    case 4:
+                        failedMenu("This is a VIP event, but you are not a VIP.");
+                        break;
+                    case 5:
+                        failedMenu("The event you have entered is full, so you have been added to its waitlist ("
+                                + sendsInfo.getWaitlistSize(textInput.getText()) + " waiting).");
+                        break;
+                    case 6:
+                        failedMenu("This event overlaps with an event you have signed up for.");
+                        break;
+                }
+                clearTextField();
+            }
+        });
         confirmEventRemoval = new JButton("Confirm");
         confirmEventRemoval.addActionListener(new ActionListener() {
             @Override
@@ -206,6 +335,12 @@ public class SignUpDashboard extends JPanel {
                     case 2:
                         failedMenu("The event title you have entered is invalid.");
                         break;
+                    case 3:
+                        failedMenu("You have been taken off the waitlist for this event.");
+                        break;
+                    case 4:
+                        failedMenu("The seat you were holding for this event has been given back.");
+                        break;
                 }
                 clearTextField();
             }
@@ -220,6 +355,17 @@ public class SignUpDashboard extends JPanel {
         textInput = new JTextField(12);
         errorText = new JLabel();
         eventName = new JLabel("Event Name");
+        pageLabel = new JLabel();
+        agendaDay = new JTextField("1", 4);
+        agendaFrom = new JTextField("00:00:00", 8);
+        agendaTo = new JTextField("23:59:59", 8);
+        agendaRoom = new JTextField(8);
+        agendaType = new JTextField(8);
+        agendaDayLabel = new JLabel("Day:");
+        agendaFromLabel = new JLabel("From('HH:MM:SS'):");
+        agendaToLabel = new JLabel("To('HH:MM:SS'):");
+        agendaRoomLabel = new JLabel("Room (optional):");
+        agendaTypeLabel = new JLabel("Talk/Panel/Party (optional):");
     }
 
     private void previousMenu() {
@@ -247,6 +393,9 @@ public class SignUpDashboard extends JPanel {
             case "CancelAttendEvent":
                 cancelAttendEvent();
                 break;
+            case "Agenda":
+                agendaMenu();
+                break;
         }
     }
 
@@ -1,7 +1,6 @@
 package GUI;
 
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * Interface containing all methods needed for Dashboard classes to interact with TechConferenceSystem
@@ -13,36 +12,62 @@ public interface Viewable {
     boolean createSpeakerButton(String username, String password);
     boolean loadConferenceButton(String filename);
     boolean confirmRoom(String roomNumber, int capacity);
-    boolean includesImage(String currentUsername, int chatIndex, int messageIndex);
+    boolean includesImage(String currentUsername, String chatHandle, String messageHandle);
     boolean cancelEvent(String eventName, String username);
     boolean userIsVIP(String username);
-    boolean markAddressed(int requestNumber);
-    boolean markPending(int requestNumber);
+    boolean markAddressed(String username, int requestNumber);
+    boolean markPending(String username, int requestNumber);
     void addRequest(String username, String request);
+    boolean watchChat(String chatHandle, String username, Runnable changed);
+    void unwatchChat(String username);
     boolean saveProgram(String filename);
+    boolean exportProgram(String filename);
     int signUpForEvent(String username, String eventTitle);
     int cancelAttendEvent(String username, String eventTitle);
-    ArrayList<String> viewChatNames(String username);
+    int holdSeat(String username, String eventTitle);
+    int eventPageCount(int pageSize);
+    int eventCount();
+    int requestCount();
+    int openChat(String chatHandle, String username);
+    int getWaitlistSize(String eventTitle);
     List<String> getNewMessagesChatNames(String currentUsername);
     List<String> getNewMessagesTimestamp(String currentUsername);
     List<String[][]> getNewMessagesLast8Messages(String currentUsername);
+    List<String> importProgram(String filename);
+    List<String> suggestFriends(String username);
+    List<String> getMutualFriends(String usernameA, String usernameB);
+    List<String> getFriendsAttending(String username, String eventTitle);
     String[] displayAllEvents();
     String[] displaySignedUpEvents(String username);
+    String[] displayEventsPage(int page, int pageSize);
+    String[] displayAgenda(int day, String fromTime, String toTime, String roomNum, String eventType);
     String LogInButton(String username, String password);
+    String openSession(String username, String password);
+    String[] getSession(String token);
+    boolean closeSession(String token);
     String sendOneMsg(String sender, String recipient, String content, String imagePath);
-    String[][] viewChat(int chatNumber, String username);
+    String[][] viewChats(String username);
+    String[][] viewChat(String chatHandle, String username);
+    String[][] viewChatPage(String chatHandle, String username, int page, int pageSize);
     String addFriend(String mainUsername, String newFriendUsername);
     String msgAllAttendees(String sender, String msg, String imagePath);
     String msgAllSpeakers(String sender, String msg, String imagePath);
     String msgAllAttendeeEvent(String sender, List<String> eventTitles, String msg, String imagePath);
-    String deleteMsg(String currentUsername, int chatIndex, int messageIndex);
-    String markChatAsUnread(String currentUsername, int chatIndex);
-    String archiveChats(String currentUsername, int chatIndex);
+    String msgEventAttendeesByVIP(String sender, List<String> eventTitles, Boolean vip, String msg, String imagePath);
+    String deleteMsg(String currentUsername, String chatHandle, String messageHandle);
+    String markChatAsUnread(String currentUsername, String chatHandle);
+    String archiveChats(String currentUsername, String chatHandle);
     String changeCapacity(String eventName, int capacity, String username, String rmNum);
     String createSpeakerEvent(boolean VIP, String startDate, String endDate, String startTime, String endTime,
                               String roomNum, List<String> speakerUsernames, String eventTitle, int capacity);
     String createParty(boolean VIP, String startDate, String endDate, String startTime, String endTime, String roomNum,
                        List<String> speakerUsernames, String eventTitle, int capacity);
+    String findBestFitRoom(int capacity, String startDate, String endDate, String startTime, String endTime);
     String[] displayRequests();
+    String[] displayRequestsPage(int page, int pageSize);
+    String[] displayWaitlists();
+    String[] displayAgendaConflicts();
+    String[] checkConsistency(boolean repair);
+    String claimNextRequest(String username);
 
 }
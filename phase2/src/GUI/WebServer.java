@@ -0,0 +1,525 @@
+package GUI;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A headless front end that serves the Viewable operations as a local HTTP/JSON API, so many users can use one
+ * conference at the same time.
+ * <p>
+ * Every operation is a POST to /api/{operation name} (ex. /api/signUpForEvent) with a JSON array of its arguments as
+ * the body, and answers {"result": ...}. POST /api/login with ["username", "password"] gives a session token to send
+ * as "Authorization: Bearer {token}" with every other operation, and POST /api/logout ends the session. Sessions are
+ * kept by the Viewable and end by themselves after being idle for a while. Operations
+ * that act as a user (ex. signing up) take the user from the session, so that argument is left out of the body. Each
+ * operation can only be used by the user types that have it on their dashboard, and operations that read or write
+ * files on the server are not served.
+ * <p>
+ * Requests are handled by a fixed pool of threads. The Viewable should be safe to call from many threads (ex. the one
+ * from TechConferenceSystem.lockedView).
+ */
+public class WebServer {
+    /**
+     * The number of threads handling requests, unless set otherwise
+     */
+    public static final int DEFAULT_THREADS = 64;
+
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final Set<String> ANYONE = setOf("Attendee", "Organizer", "Speaker");
+    private static final Set<String> ATTENDING = setOf("Attendee", "Organizer");
+    private static final Set<String> PRESENTING = setOf("Organizer", "Speaker");
+    private static final Set<String> ORGANIZER = setOf("Organizer");
+
+    private final Viewable view;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Route> routes;
+
+    /**
+     * Create a server; it does not accept requests until it is started
+     * @param view the operations to serve
+     * @param address the address to listen on (ex. the loopback address, for a local server)
+     * @param threads the number of threads handling requests
+     * @throws IOException if the address cannot be bound
+     */
+    public WebServer(Viewable view, InetSocketAddress address, int threads) throws IOException {
+        this.view = view;
+        this.routes = new HashMap<>();
+        addRoutes();
+        this.server = HttpServer.create(address, 1024);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+
+    /**
+     * Start accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests, and give the ones being handled a second to finish
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the port the server listens on (useful when it was created with port 0)
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private static class Route {
+        private final Method method;
+        private final int userArg;          // the argument filled in with the session's user, or -1
+        private final int fileArg;          // an image path argument that must be left empty, or -1
+        private final Set<String> types;    // the user types allowed, or null if no login is needed
+
+        private Route(Method method, int userArg, int fileArg, Set<String> types) {
+            this.method = method;
+            this.userArg = userArg;
+            this.fileArg = fileArg;
+            this.types = types;
+        }
+    }
+
+    private static class Session {
+        private final String username;
+        private final String type;
+
+        private Session(String username, String type) {
+            this.username = username;
+            this.type = type;
+        }
+    }
+
+    // thrown to answer a request with an error
+    private static class RequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        private RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void addRoutes() {
+        route("createAttendeeButton", -1, -1, null);
+        for (String name : Arrays.asList("displayAllEvents", "displayEventsPage", "eventPageCount", "eventCount",
+                "displayAgenda", "getWaitlistSize")) {
+            route(name, -1, -1, ANYONE);
+        }
+        for (String name : Arrays.asList("userIsVIP", "displaySignedUpEvents", "viewChats",
+                "getNewMessagesChatNames", "getNewMessagesTimestamp", "getNewMessagesLast8Messages", "addFriend",
+                "deleteMsg", "markChatAsUnread", "archiveChats", "includesImage", "addRequest", "suggestFriends",
+                "getMutualFriends")) {
+            route(name, 0, -1, ANYONE);
+        }
+        route("viewChat", 1, -1, ANYONE);
+        route("openChat", 1, -1, ANYONE);
+        route("viewChatPage", 1, -1, ANYONE);
+        route("sendOneMsg", 0, 3, ANYONE);
+        for (String name : Arrays.asList("signUpForEvent", "cancelAttendEvent", "holdSeat", "getFriendsAttending")) {
+            route(name, 0, -1, ATTENDING);
+        }
+        route("msgAllAttendeeEvent", 0, 3, PRESENTING);
+        route("msgAllAttendees", 0, 2, ORGANIZER);
+        route("msgAllSpeakers", 0, 2, ORGANIZER);
+        route("msgEventAttendeesByVIP", 0, 4, ORGANIZER);
+        for (String name : Arrays.asList("claimNextRequest", "markAddressed", "markPending")) {
+            route(name, 0, -1, ORGANIZER);
+        }
+        route("cancelEvent", 1, -1, ORGANIZER);
+        route("changeCapacity", 2, -1, ORGANIZER);
+        for (String name : Arrays.asList("createOrganizerButton", "createSpeakerButton", "confirmRoom",
+                "createSpeakerEvent", "createParty", "findBestFitRoom", "displayRequests", "displayRequestsPage",
+                "requestCount", "displayWaitlists", "displayAgendaConflicts", "checkConsistency")) {
+            route(name, -1, -1, ORGANIZER);
+        }
+    }
+
+    private void route(String name, int userArg, int fileArg, Set<String> types) {
+        for (Method method : Viewable.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                routes.put(name, new Route(method, userArg, fileArg, types));
+                return;
+            }
+        }
+        throw new IllegalStateException("Viewable has no operation called " + name + ".");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int status = 200;
+        Map<String, Object> answer = new HashMap<>();
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                throw new RequestException(405, "Uh-oh! Operations are called with POST.");
+            }
+            String name = exchange.getRequestURI().getPath().substring("/api/".length());
+            List<Object> args = parseArgs(readBody(exchange.getRequestBody()));
+            if (name.equals("login")) {
+                answer.putAll(login(args));
+            } else if (name.equals("logout")) {
+                answer.put("result", view.closeSession(token(exchange)));
+            } else {
+                answer.put("result", call(name, args, session(exchange)));
+            }
+        } catch (RequestException e) {
+            status = e.status;
+            answer.put("error", e.getMessage());
+        } catch (RejectedExecutionException e) {
+            status = 503;
+            answer.put("error", "Uh-oh! Too many people are logging in right now. Please try again in a moment.");
+        } catch (RuntimeException e) {
+            // the details stay on the server, so clients never see the program's internals
+            status = 500;
+            answer.put("error", "Uh-oh! Something went wrong. Please try again later.");
+            System.err.println("Uh-oh! " + exchange.getRequestURI().getPath() + " failed:");
+            e.printStackTrace();
+        }
+        byte[] body = toJson(answer).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Map<String, Object> login(List<Object> args) {
+        if (args.size() != 2 || !(args.get(0) instanceof String) || !(args.get(1) instanceof String)) {
+            throw new RequestException(400, "Uh-oh! Log in with [\"username\", \"password\"].");
+        }
+        String token = view.openSession((String) args.get(0), (String) args.get(1));
+        if (token == null) {
+            throw new RequestException(401, "Uh-oh! The username or password is wrong.");
+        }
+        Map<String, Object> answer = new HashMap<>();
+        answer.put("token", token);
+        answer.put("type", view.getSession(token)[1]);
+        return answer;
+    }
+
+    private String token(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring("Bearer ".length()).trim() : "";
+    }
+
+    private Session session(HttpExchange exchange) {
+        String[] session = view.getSession(token(exchange));
+        return session == null ? null : new Session(session[0], session[1]);
+    }
+
+    private Object call(String name, List<Object> args, Session session) {
+        Route route = routes.get(name);
+        if (route == null) {
+            throw new RequestException(404, "Uh-oh! There is no operation called " + name + ".");
+        }
+        if (route.types != null) {
+            if (session == null) {
+                throw new RequestException(401, "Uh-oh! Please log in first.");
+            }
+            if (!route.types.contains(session.type)) {
+                throw new RequestException(403, "Uh-oh! " + session.type + "s cannot use " + name + ".");
+            }
+        }
+        List<Object> all = new ArrayList<>(args);
+        if (route.userArg >= 0) {
+            all.add(Math.min(route.userArg, all.size()), session.username);
+        }
+        Class<?>[] types = route.method.getParameterTypes();
+        if (all.size() != types.length) {
+            throw new RequestException(400, "Uh-oh! " + name + " takes " + (types.length - (route.userArg >= 0 ? 1 : 0))
+                    + " arguments.");
+        }
+        Object[] values = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            values[i] = convert(all.get(i), types[i], i);
+        }
+        if (route.fileArg >= 0 && !((String) values[route.fileArg]).isEmpty()) {
+            throw new RequestException(400, "Uh-oh! Images cannot be sent through the server.");
+        }
+        try {
+            return route.method.invoke(view, values);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalArgumentException) {
+                throw new RequestException(400, "Uh-oh! " + cause.getMessage());
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+
+    private static Object convert(Object value, Class<?> type, int index) {
+        String position = "Uh-oh! Argument " + (index + 1);
+        if (type == String.class) {
+            if (value == null || value instanceof String) {
+                return value == null ? "" : value;
+            }
+            throw new RequestException(400, position + " should be a string.");
+        }
+        if (type == int.class) {
+            if (value instanceof Long && (Long) value == ((Long) value).intValue()) {
+                return ((Long) value).intValue();
+            }
+            throw new RequestException(400, position + " should be a whole number.");
+        }
+        if (type == boolean.class) {
+            if (value instanceof Boolean) {
+                return value;
+            }
+            throw new RequestException(400, position + " should be true or false.");
+        }
+        if (type == Boolean.class) {
+            if (value == null || value instanceof Boolean) {
+                return value;
+            }
+            throw new RequestException(400, position + " should be true, false or null.");
+        }
+        if (type == List.class && value instanceof List) {
+            List<String> strings = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                if (!(item instanceof String)) {
+                    throw new RequestException(400, position + " should be a list of strings.");
+                }
+                strings.add((String) item);
+            }
+            return strings;
+        }
+        throw new RequestException(400, position + " should be a " + type.getSimpleName() + ".");
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            body.write(buffer, 0, read);
+            if (body.size() > MAX_BODY_BYTES) {
+                throw new RequestException(413, "Uh-oh! The request is too large.");
+            }
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    // the body is a JSON array of arguments; an empty body means no arguments
+    private static List<Object> parseArgs(String body) {
+        if (body.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        JsonCursor cursor = new JsonCursor(body);
+        Object value = cursor.readValue();
+        if (!cursor.atEnd() || !(value instanceof List)) {
+            throw new RequestException(400, "Uh-oh! The body should be a JSON array of arguments.");
+        }
+        @SuppressWarnings("unchecked")
+        List<Object> args = (List<Object>) value;
+        return args;
+    }
+
+    private static String toJson(Object value) {
+        StringBuilder json = new StringBuilder();
+        appendJson(json, value);
+        return json.toString();
+    }
+
+    private static void appendJson(StringBuilder json, Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Boolean || value instanceof Number) {
+            json.append(value);
+        } else if (value instanceof String) {
+            appendJsonString(json, (String) value);
+        } else if (value instanceof Map) {
+            json.append('{');
+            String separator = "";
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                json.append(separator);
+                appendJsonString(json, String.valueOf(entry.getKey()));
+                json.append(':');
+                appendJson(json, entry.getValue());
+                separator = ",";
+            }
+            json.append('}');
+        } else {
+            Collection<?> items = value instanceof Object[] ? Arrays.asList((Object[]) value) : (Collection<?>) value;
+            json.append('[');
+            String separator = "";
+            for (Object item : items) {
+                json.append(separator);
+                appendJson(json, item);
+                separator = ",";
+            }
+            json.append(']');
+        }
+    }
+
+    private static void appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    private static Set<String> setOf(String... types) {
+        return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(types)));
+    }
+
+    // reads strings, whole numbers (as Long), booleans, null and arrays of them
+    private static class JsonCursor {
+        private final String text;
+        private int pos;
+
+        JsonCursor(String text) {
+            this.text = text;
+        }
+
+        void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean atEnd() {
+            skipSpace();
+            return pos == text.length();
+        }
+
+        boolean consume(char c) {
+            skipSpace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        Object readValue() {
+            skipSpace();
+            if (pos == text.length()) {
+                throw new RequestException(400, "Uh-oh! A value is missing at the end of the body.");
+            }
+            char c = text.charAt(pos);
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '[') {
+                pos++;
+                List<Object> items = new ArrayList<>();
+                if (!consume(']')) {
+                    do {
+                        items.add(readValue());
+                    } while (consume(','));
+                    if (!consume(']')) {
+                        throw new RequestException(400, "Uh-oh! Expected ']' at position " + (pos + 1) + ".");
+                    }
+                }
+                return items;
+            }
+            int start = pos;
+            while (pos < text.length() && ",] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            switch (literal) {
+                case "null": return null;
+                case "true": return true;
+                case "false": return false;
+                default:
+                    try {
+                        return Long.parseLong(literal);
+                    } catch (NumberFormatException e) {
+                        throw new RequestException(400, "Uh-oh! Unexpected '" + literal + "' at position "
+                                + (start + 1) + ".");
+                    }
+            }
+        }
+
+        String readString() {
+            pos++;
+            StringBuilder value = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                } else if (pos < text.length()) {
+                    char escaped = text.charAt(pos++);
+                    switch (escaped) {
+                        case 'n': value.append('\n'); break;
+                        case 't': value.append('\t'); break;
+                        case 'r': value.append('\r'); break;
+                        case 'b': value.append('\b'); break;
+                        case 'f': value.append('\f'); break;
+                        case 'u':
+                            if (pos + 4 > text.length()) {
+                                throw new RequestException(400, "Uh-oh! Incomplete unicode escape.");
+                            }
+                            try {
+                                value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                            } catch (NumberFormatException e) {
+                                throw new RequestException(400, "Uh-oh! Bad unicode escape.");
+                            }
+                            pos += 4;
+                            break;
+                        default: value.append(escaped);
+                    }
+                }
+            }
+            throw new RequestException(400, "Uh-oh! A string is never closed.");
+        }
+    }
+}
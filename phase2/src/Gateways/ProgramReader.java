@@ -0,0 +1,268 @@
+package Gateways;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A class that reads the rows of a conference program one at a time from a CSV file (with a header row) or a JSON lines
+ * file (one flat object per line), so that files of any size can be imported with bounded memory.
+ * <p>
+ * Each row is returned as a map from column name to value. In JSON lines files, arrays of strings (ex. the speakers of
+ * an event) are joined with ";" so rows read from both formats look the same.
+ */
+public class ProgramReader implements Closeable {
+    private final BufferedReader reader;
+    private final boolean json;
+    private List<String> header;
+    private int lineNum;
+    private int rowLineNum;
+
+    /**
+     * Open a program file for reading. Files ending in ".jsonl" or ".json" are read as JSON lines, all others as CSV.
+     * @param filename the name of the file to read
+     * @throws IOException if the file cannot be opened
+     */
+    public ProgramReader(String filename) throws IOException {
+        this.reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8);
+        String lower = filename.toLowerCase(Locale.ROOT);
+        this.json = lower.endsWith(".jsonl") || lower.endsWith(".json");
+    }
+
+    /**
+     * Read the next row of the file. Blank lines are skipped.
+     * @return the map from column name to value, or null if there are no more rows
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the row is malformed; the reader moves on to the next row
+     */
+    public Map<String, String> readRow() throws IOException {
+        if (!json && header == null) {
+            List<String> names = readCsvRecord();
+            if (names == null) {
+                return null;
+            }
+            header = new ArrayList<>();
+            for (String name : names) {
+                header.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        if (json) {
+            String line = nextNonBlankLine();
+            return line == null ? null : parseJsonObject(line);
+        }
+        List<String> values = readCsvRecord();
+        if (values == null) {
+            return null;
+        }
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("The row has " + values.size() + " columns but the header has "
+                    + header.size() + ".");
+        }
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            row.put(header.get(i), values.get(i));
+        }
+        return row;
+    }
+
+    /**
+     * Get the line number where the last row returned (or rejected) by readRow started
+     * @return the line number of the last row, starting at 1
+     */
+    public int getLineNum() {
+        return rowLineNum;
+    }
+
+    /**
+     * Close the file
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private String nextNonBlankLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNum++;
+        } while (line != null && line.trim().isEmpty());
+        rowLineNum = lineNum;
+        return line;
+    }
+
+    // reads one CSV record, which may span several lines if a quoted value contains a line break
+    private List<String> readCsvRecord() throws IOException {
+        String line = nextNonBlankLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    values.add(value.toString());
+                    return values;
+                }
+                line = reader.readLine();
+                lineNum++;
+                if (line == null) {
+                    throw new IllegalArgumentException("A quoted value is never closed.");
+                }
+                value.append('\n');
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+    }
+
+    private Map<String, String> parseJsonObject(String line) {
+        JsonCursor cursor = new JsonCursor(line);
+        Map<String, String> row = new LinkedHashMap<>();
+        cursor.expect('{');
+        if (!cursor.consume('}')) {
+            do {
+                String key = cursor.readString();
+                cursor.expect(':');
+                row.put(key.toLowerCase(Locale.ROOT), cursor.readValue());
+            } while (cursor.consume(','));
+            cursor.expect('}');
+        }
+        if (!cursor.atEnd()) {
+            throw new IllegalArgumentException("Unexpected text after the end of the object.");
+        }
+        return row;
+    }
+
+    private static class JsonCursor {
+        private final String text;
+        private int pos;
+
+        JsonCursor(String text) {
+            this.text = text;
+        }
+
+        void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        boolean atEnd() {
+            skipSpace();
+            return pos == text.length();
+        }
+
+        boolean consume(char c) {
+            skipSpace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw new IllegalArgumentException("Expected '" + c + "' at position " + (pos + 1) + ".");
+            }
+        }
+
+        // strings, numbers, booleans and null are returned as text; arrays of values are joined with ";"
+        String readValue() {
+            skipSpace();
+            if (pos == text.length()) {
+                throw new IllegalArgumentException("Missing value at the end of the line.");
+            }
+            char c = text.charAt(pos);
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '[') {
+                pos++;
+                List<String> items = new ArrayList<>();
+                if (!consume(']')) {
+                    do {
+                        items.add(readValue());
+                    } while (consume(','));
+                    expect(']');
+                }
+                return String.join(";", items);
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("Unexpected '" + c + "' at position " + (start + 1) + ".");
+            }
+            return literal.equals("null") ? "" : literal;
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                } else if (pos < text.length()) {
+                    char escaped = text.charAt(pos++);
+                    switch (escaped) {
+                        case 'n': value.append('\n'); break;
+                        case 't': value.append('\t'); break;
+                        case 'r': value.append('\r'); break;
+                        case 'b': value.append('\b'); break;
+                        case 'f': value.append('\f'); break;
+                        case 'u':
+                            if (pos + 4 > text.length()) {
+                                throw new IllegalArgumentException("Incomplete unicode escape.");
+                            }
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                            pos += 4;
+                            break;
+                        default: value.append(escaped);
+                    }
+                }
+            }
+            throw new IllegalArgumentException("A string is never closed.");
+        }
+    }
+}
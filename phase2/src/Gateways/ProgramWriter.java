@@ -0,0 +1,123 @@
+package Gateways;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A class that writes the rows of a conference program one at a time to a CSV file or a JSON lines file, in the same
+ * formats read by ProgramReader. Rows are written as they are given, so exporting never holds the whole program in
+ * memory.
+ */
+public class ProgramWriter implements Closeable {
+    private final BufferedWriter writer;
+    private final boolean json;
+    private final List<String> columns;
+
+    /**
+     * Open a program file for writing. Files ending in ".jsonl" or ".json" are written as JSON lines, all others as CSV
+     * with a header row.
+     * @param filename the name of the file to write
+     * @param columns the names of the columns, in the order they are written
+     * @throws IOException if the file cannot be opened
+     */
+    public ProgramWriter(String filename, List<String> columns) throws IOException {
+        this.writer = Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8);
+        String lower = filename.toLowerCase(Locale.ROOT);
+        this.json = lower.endsWith(".jsonl") || lower.endsWith(".json");
+        this.columns = new ArrayList<>(columns);
+        if (!json) {
+            writeCsvRecord(this.columns);
+        }
+    }
+
+    /**
+     * Write one row. Columns missing from the row are written as empty values in CSV and left out in JSON lines.
+     * @param row the map from column name to value
+     * @throws IOException if the file cannot be written
+     */
+    public void writeRow(Map<String, String> row) throws IOException {
+        if (!json) {
+            List<String> values = new ArrayList<>();
+            for (String column : columns) {
+                String value = row.get(column);
+                values.add(value == null ? "" : value);
+            }
+            writeCsvRecord(values);
+            return;
+        }
+        StringBuilder line = new StringBuilder("{");
+        for (String column : columns) {
+            String value = row.get(column);
+            if (value == null) {
+                continue;
+            }
+            if (line.length() > 1) {
+                line.append(',');
+            }
+            appendJsonString(line, column);
+            line.append(':');
+            appendJsonString(line, value);
+        }
+        writer.write(line.append('}').toString());
+        writer.newLine();
+    }
+
+    /**
+     * Flush and close the file
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private void writeCsvRecord(List<String> values) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String value = values.get(i);
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                    || value.indexOf('\r') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        writer.write(line.toString());
+        writer.newLine();
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -1,17 +1,136 @@
-
 import Controllers.TechConferenceSystem;
 import GUI.Dashboard;
+import GUI.Viewable;
+import GUI.WebServer;
+import Gateways.Reader;
+import Gateways.Writer;
+import UseCase.ChatManager;
+import UseCase.ConsistencyChecker;
+import UseCase.EventManager;
+import UseCase.PasswordHasher;
+import UseCase.RoomManager;
+import UseCase.UserManager;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Main file of the program; run this file to run the entire program
+ * <p>
+ * Run with "--check filename" to check a saved conference without opening the program, or with
+ * "--check filename --repair" to also repair it and save it again. Run with "--server [port] [filename]" to serve the
+ * conference (loaded from the file, if given) to many users at once as a local HTTP/JSON API instead of opening a
+ * window. Run with "--login-benchmark" to measure how many logins per second each password hashing cost allows.
  * @author Joyce Huang and Peter Chen
  */
 public class Launcher {
+    private static final int[] LOGIN_BENCHMARK_COSTS = {10_000, 100_000, 300_000, PasswordHasher.DEFAULT_ITERATIONS};
+    private static final int LOGIN_BENCHMARK_USERS = 64;
+    private static final long LOGIN_BENCHMARK_MILLIS = 5000;
 
     public static void main(String[] args) {
+        if (args.length >= 2 && args[0].equals("--check")) {
+            checkSave(args[1], args.length >= 3 && args[2].equals("--repair"));
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--server")) {
+            serve(args.length >= 2 ? Integer.parseInt(args[1]) : 8080, args.length >= 3 ? args[2] : null);
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--login-benchmark")) {
+            for (int cost : LOGIN_BENCHMARK_COSTS) {
+                benchmarkLogins(cost);
+            }
+            return;
+        }
 
         final Dashboard dashboard = new Dashboard();
         new TechConferenceSystem(dashboard);
     }
 
+    // the server keeps the program running until it is stopped
+    private static void serve(int port, String filename) {
+        TechConferenceSystem system = new TechConferenceSystem();
+        if (filename != null && !system.loadConferenceButton(filename)) {
+            System.out.println("Uh-oh! " + filename + " is not a saved conference.");
+            System.exit(2);
+        }
+        try {
+            WebServer server = new WebServer(system.lockedView(),
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), port), WebServer.DEFAULT_THREADS);
+            server.start();
+            System.out.println("Serving on http://localhost:" + server.getPort() + "/api/");
+        } catch (IOException e) {
+            System.out.println("Uh-oh! The server could not listen on port " + port + ": " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    // logs in as many users at once as the server has threads, for a few seconds, the way the server would
+    private static void benchmarkLogins(int cost) {
+        TechConferenceSystem system = new TechConferenceSystem();
+        system.setPasswordCost(cost);
+        Viewable view = system.lockedView();
+        for (int i = 0; i < LOGIN_BENCHMARK_USERS; i++) {
+            view.createAttendeeButton("user" + i, "password" + i);
+        }
+        AtomicLong logins = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        long end = System.currentTimeMillis() + LOGIN_BENCHMARK_MILLIS;
+        ExecutorService clients = Executors.newFixedThreadPool(WebServer.DEFAULT_THREADS);
+        for (int t = 0; t < WebServer.DEFAULT_THREADS; t++) {
+            int user = t % LOGIN_BENCHMARK_USERS;
+            clients.execute(() -> {
+                while (System.currentTimeMillis() < end) {
+                    try {
+                        if (!view.LogInButton("user" + user, "password" + user).equals("false")) {
+                            logins.incrementAndGet();
+                        }
+                    } catch (RejectedExecutionException e) {
+                        rejected.incrementAndGet();
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));     // as a client would retry
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        try {
+            clients.awaitTermination(LOGIN_BENCHMARK_MILLIS * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        double seconds = LOGIN_BENCHMARK_MILLIS / 1000.0;
+        System.out.printf("cost %,d iterations: %,.1f logins/sec, %,.1f turned away/sec (%d cores)%n", cost,
+                logins.get() / seconds, rejected.get() / seconds, Runtime.getRuntime().availableProcessors());
+    }
+
+    // prints the report and exits with 0 if the save is consistent (after repairing), 1 if not, 2 if it cannot be read
+    private static void checkSave(String filename, boolean repair) {
+        Reader reader = new Reader();
+        if (!reader.verifySaves(filename)) {
+            System.out.println("Uh-oh! " + filename + " is not a saved conference.");
+            System.exit(2);
+        }
+        Object[] managers = reader.loadData(filename);
+        ConsistencyChecker checker = new ConsistencyChecker((ChatManager) managers[0], (EventManager) managers[1],
+                (RoomManager) managers[2], (UserManager) managers[3]);
+        long start = System.nanoTime();
+        ConsistencyChecker.Report report = repair ? checker.repair() : checker.check();
+        for (String line : report.toLines()) {
+            System.out.println(line);
+        }
+        System.out.println("Checked in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        if (report.getRepairedCount() > 0 && !new Writer().writeToFile(filename, managers)) {
+            System.out.println("Uh-oh! The repaired conference could not be saved.");
+            System.exit(2);
+        }
+        System.exit(report.isConsistent() ? 0 : 1);
+    }
+
 }
@@ -0,0 +1,118 @@
+package UseCase;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of users to send something to, kept as a bitmap over the users' ids, so audiences can be combined with set
+ * algebra (ex. the attendees of two events who are not VIPs) without comparing any usernames.
+ * <p>
+ * Audiences are made by UserManager and EventManager and can only be combined with audiences over the same ids.
+ * Iterating an audience gives each username once, in the order the users got their ids.
+ */
+public class Audience implements Iterable<String> {
+    private final IdDictionary ids;
+    private final BitSet members;
+
+    /**
+     * Create an audience
+     * @param ids the dictionary the ids of the members come from
+     * @param members the ids of the members; the audience takes ownership of it
+     */
+    Audience(IdDictionary ids, BitSet members) {
+        this.ids = ids;
+        this.members = members;
+    }
+
+    /**
+     * Get the users in this audience or the other one
+     * @param other the other audience
+     * @return the union of the audiences
+     */
+    public Audience or(Audience other) {
+        BitSet result = copy(other);
+        result.or(other.members);
+        return new Audience(ids, result);
+    }
+
+    /**
+     * Get the users in both this audience and the other one
+     * @param other the other audience
+     * @return the intersection of the audiences
+     */
+    public Audience and(Audience other) {
+        BitSet result = copy(other);
+        result.and(other.members);
+        return new Audience(ids, result);
+    }
+
+    /**
+     * Get the users in this audience who are not in the other one
+     * @param other the other audience
+     * @return the difference of the audiences
+     */
+    public Audience andNot(Audience other) {
+        BitSet result = copy(other);
+        result.andNot(other.members);
+        return new Audience(ids, result);
+    }
+
+    /**
+     * Check whether a user is in this audience
+     * @param userName the username
+     * @return true iff the user is in this audience
+     */
+    public boolean contains(String userName) {
+        int id = ids.idOf(userName);
+        return id >= 0 && members.get(id);
+    }
+
+    /**
+     * Get the number of users in this audience
+     * @return the size of the audience
+     */
+    public int size() {
+        return members.cardinality();
+    }
+
+    /**
+     * Check whether this audience has no users
+     * @return true iff the audience is empty
+     */
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int next = members.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public String next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                String userName = ids.nameOf(next);
+                next = members.nextSetBit(next + 1);
+                return userName;
+            }
+        };
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private BitSet copy(Audience other) {
+        if (other.ids != ids) {
+            throw new IllegalArgumentException("Audiences over different ids cannot be combined.");
+        }
+        return (BitSet) members.clone();
+    }
+}
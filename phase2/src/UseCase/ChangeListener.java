@@ -0,0 +1,16 @@
+package UseCase;
+
+/**
+ * Something told about every change made to a manager (ex. a ReadModel).
+ * <p>
+ * A listener is called on the thread that made the change, right after it is made and before the method making it
+ * returns, so it should be quick. It may read from the manager, but must not change it.
+ */
+public interface ChangeListener {
+
+    /**
+     * Called after a change is made
+     * @param change what changed
+     */
+    void changed(DomainChange change);
+}
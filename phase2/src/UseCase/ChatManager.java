@@ -16,9 +16,12 @@ import java.util.UUID;
  * @author Kailas Moon and William Wang
  */
 public class ChatManager implements Serializable {
+    private static final long serialVersionUID = -3742166466828023137L;
 
     private Map<UUID, Chat> allChats; //maps chat id to Chat entity
     private Map<String, List<UUID>> archivedChats; // maps username to list of chats
+    private transient List<ChangeListener> listeners; // told about every change; not saved
+    private transient Map<UUID, List<ChangeListener>> chatListeners; // maps chat id to who is told about it; not saved
 
     /**
      * Create an instance of ChatManager
@@ -37,9 +40,49 @@ public class ChatManager implements Serializable {
         Chat newChat = new Chat(memberUsernames);
         UUID newChatId = UUID.randomUUID();
         allChats.put(newChatId, newChat);
+        emit(DomainChange.chat(newChatId));
         return newChatId;
     }
 
+    /**
+     * Tell a listener about every change to the chats from now on (ex. a ReadModel). Listeners are not saved.
+     * @param listener the listener
+     */
+    public void addChangeListener(ChangeListener listener) {
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Tell a listener about every change to one chat from now on (ex. a screen showing the chat as it is written), so
+     * it does not have to check the chat for new messages. Listeners are not saved.
+     * @param chatId The id of the chat
+     * @param listener The listener, which is told about the same changes as the listeners of every chat
+     */
+    public void addChatListener(UUID chatId, ChangeListener listener) {
+        if (chatListeners == null) {
+            chatListeners = new HashMap<>();
+        }
+        chatListeners.computeIfAbsent(chatId, id -> new ArrayList<>()).add(listener);
+    }
+
+    /**
+     * Stop telling a listener about a chat
+     * @param chatId The id of the chat
+     * @param listener The listener
+     */
+    public void removeChatListener(UUID chatId, ChangeListener listener) {
+        List<ChangeListener> subscribed = chatListeners == null ? null : chatListeners.get(chatId);
+        if (subscribed != null) {
+            subscribed.remove(listener);
+            if (subscribed.isEmpty()) {
+                chatListeners.remove(chatId);
+            }
+        }
+    }
+
     /**
      * Send a message to one chat
      * PRECONDITION : senderUsername is in this chat and the time is the current time
@@ -55,6 +98,7 @@ public class ChatManager implements Serializable {
         Chat chosenChat = allChats.get(chatId);
         chosenChat.addChatMessage(newMessageId, message);
         chosenChat.setLastViewedMessage(senderUsername, newMessageId);
+        emit(DomainChange.chat(chatId));
     }
 
     /**
@@ -73,6 +117,7 @@ public class ChatManager implements Serializable {
         Chat chosenChat = allChats.get(chatId); //Grab the chat
         chosenChat.addChatMessage(newMessageId, message); //Add the message with the image
         chosenChat.setLastViewedMessage(senderUsername, newMessageId); //Set the last message to be this one
+        emit(DomainChange.chat(chatId));
     }
 
     /**
@@ -91,6 +136,7 @@ public class ChatManager implements Serializable {
             }
         }
         chosenChat.removeMessage(messageId);
+        emit(DomainChange.chat(chatId));
     }
 
     /**
@@ -109,6 +155,7 @@ public class ChatManager implements Serializable {
             UUID previousMessage = getPreviousMessage(chosenChat, lastViewedMessage); //previous message or null
             chosenChat.setLastViewedMessage(username, previousMessage);
         }
+        emit(DomainChange.chat(chatId, username));
     }
 
     /**
@@ -140,6 +187,7 @@ public class ChatManager implements Serializable {
             List<UUID> hiddenChats = archivedChats.get(username);
             hiddenChats.remove(chatId);
         }
+        emit(DomainChange.chat(chatId, username));
     }
 
     /**
@@ -163,6 +211,23 @@ public class ChatManager implements Serializable {
         return null;
     }
 
+    /**
+     * Get the chats a user has with one other user, found in one pass over the chats (ex. to message many users)
+     * @param username The username of the user
+     * @return A map from the other member's username to the id of the chat the two of them are in
+     */
+    public Map<String, UUID> getTwoPersonChats(String username) {
+        Map<String, UUID> output = new HashMap<>();
+        for (Map.Entry<UUID, Chat> allChatsItem : allChats.entrySet()){
+            List<String> members = allChatsItem.getValue().getMemberUsernames();
+            if (members.size() == 2 && members.contains(username)){
+                String other = members.get(0).equals(username) ? members.get(1) : members.get(0);
+                output.putIfAbsent(other, allChatsItem.getKey());
+            }
+        }
+        return output;
+    }
+
     /**
      * Getter for all of a user's chats
      * @param username The username of the user
@@ -194,6 +259,91 @@ public class ChatManager implements Serializable {
         }
     }
 
+    /**
+     * Getter for the ids of every chat
+     * @return A list of all chat ids
+     */
+    public List<UUID> getAllChatIds() {
+        return new ArrayList<>(allChats.keySet());
+    }
+
+    /**
+     * Getter for the number of chats. Chats are never removed, so the count only changes when a chat is created.
+     * @return The number of chats
+     */
+    public int getChatCount() {
+        return allChats.size();
+    }
+
+    /**
+     * Getter for the users who have archived chats (or have had them)
+     * @return A list of the usernames with an entry in the archived chats
+     */
+    public List<String> getUsersWithArchivedChats() {
+        return new ArrayList<>(archivedChats.keySet());
+    }
+
+    /**
+     * Get all messages of a chat without marking them as read
+     * @param chatId The id of the chat
+     * @return A list of all the message ids in the chat, oldest first
+     */
+    public List<UUID> getAllMessageIds(UUID chatId) {
+        return allChats.get(chatId).getAllMessages();
+    }
+
+    /**
+     * Checks if a message is in a chat
+     * @param chatId The id of the chat
+     * @param messageId The id of the message
+     * @return True iff the message is in the chat
+     */
+    public boolean doesMessageExist(UUID chatId, UUID messageId) {
+        return allChats.get(chatId).getMessageObject(messageId) != null;
+    }
+
+    /**
+     * Checks if a user is a member of a chat
+     * @param username The username of the user
+     * @param chatId The id of the chat
+     * @return True iff the chat exists and the user is one of its members
+     */
+    public boolean isChatMember(String username, UUID chatId) {
+        Chat chat = allChats.get(chatId);
+        return chat != null && chat.getMemberUsernames().contains(username);
+    }
+
+    /**
+     * Getter for the last message a user has viewed in a chat
+     * @param username The username of the user
+     * @param chatId The id of the chat
+     * @return The id of the last viewed message, or null if the user has not viewed any
+     */
+    public UUID getLastViewedMessage(String username, UUID chatId) {
+        return allChats.get(chatId).getLastViewedMessage(username);
+    }
+
+    /**
+     * Mark every message of a chat as unread for a user
+     * @param username The username of the user
+     * @param chatId The id of the chat
+     */
+    public void resetLastViewedMessage(String username, UUID chatId) {
+        allChats.get(chatId).setLastViewedMessage(username, null);
+        emit(DomainChange.chat(chatId, username));
+    }
+
+    /**
+     * Checks if a user has archived a chat, without changing anything
+     * @param username The username of the user
+     * @param chatId The id of the chat
+     * @return True iff the chat is one of the user's archived chats
+     */
+    public boolean isChatArchived(String username, UUID chatId) {
+        List<UUID> hiddenChats = archivedChats.get(username);
+        return hiddenChats != null && hiddenChats.contains(chatId);
+    }
+
     /**
      * Checks if a chat has no messages
      * @param chatId The id of the chat being checked
@@ -201,7 +351,7 @@ public class ChatManager implements Serializable {
      */
     public boolean isChatEmpty(UUID chatId) {
         Chat chat = allChats.get(chatId);
-        return chat.getAllMessages().isEmpty();
+        return chat.getMessageCount() == 0;
     }
 
     /**
@@ -212,10 +362,9 @@ public class ChatManager implements Serializable {
      */
     public boolean areNewMessages(String username, UUID chatId){
         Chat chat = allChats.get(chatId);
-        List<UUID> chatMessagesList = chat.getAllMessages();
         UUID lastViewedMessage = chat.getLastViewedMessage(username);
         if (!isChatEmpty(chatId)){
-            UUID lastMessage = chatMessagesList.get(chatMessagesList.size() - 1);
+            UUID lastMessage = chat.getLastMessage();
             return !lastMessage.equals(lastViewedMessage);
         }
         return false;
@@ -233,6 +382,28 @@ public class ChatManager implements Serializable {
         return chat.getAllMessages();
     }
 
+    /**
+     * Get the number of messages of a chat and updates the last viewed message, for reading the chat a page at a time.
+     * PRECONDITION : user exists in chat
+     * @param chatId The id of the chat being looked at
+     * @return The number of messages in the chat
+     */
+    public int getChatMessageCount(String username, UUID chatId) {
+        markChatAsRead(username, chatId);  //call helper
+        return allChats.get(chatId).getMessageCount();
+    }
+
+    /**
+     * Get one page of the messages of a chat, without updating the last viewed message
+     * @param chatId The id of the chat being looked at
+     * @param from The index of the first message on the page
+     * @param count The maximum number of messages on the page
+     * @return A list of the message ids on the page
+     */
+    public List<UUID> getChatMessagePage(UUID chatId, int from, int count) {
+        return allChats.get(chatId).getMessages(from, count);
+    }
+
     /**
      * Get all new messages for a user
      * PRECONDITION : Username is in the chat
@@ -244,7 +415,6 @@ public class ChatManager implements Serializable {
     public List<UUID> getNewMessages(String username, UUID chatId, Boolean peek) {
         Chat chat = allChats.get(chatId);
         UUID seenMessageId = chat.getLastViewedMessage(username);   // if the user has not seen any messages, then seenMessageId will be null.
-        List<UUID> chatMessagesList = chat.getAllMessages();
         if (!peek){  //If user does not want to peek, the messages are marked as viewed
             markChatAsRead(username, chatId);  //call helper
         }
@@ -253,9 +423,9 @@ public class ChatManager implements Serializable {
         if(seenMessageId == null){
             newMessageIndex = 0;
         } else{
-            newMessageIndex = chatMessagesList.indexOf(seenMessageId) + 1;
+            newMessageIndex = chat.getPosition(seenMessageId) + 1;
         }
-        return chatMessagesList.subList(newMessageIndex, chatMessagesList.size()); //return only the new messages
+        return chat.getMessages(newMessageIndex, chat.getMessageCount() - newMessageIndex); //return only the new messages
     }
 
     /**
@@ -337,9 +507,8 @@ public class ChatManager implements Serializable {
      */
     public UUID getMessageUUIDbyIndex(UUID chatId, int messageIndex) {
         Chat chosenChat = allChats.get(chatId);
-        List<UUID> chatMessagesList = chosenChat.getAllMessages();
-        if (messageIndex < chatMessagesList.size() && messageIndex >= 0){
-            return chatMessagesList.get(messageIndex);
+        if (messageIndex < chosenChat.getMessageCount() && messageIndex >= 0){
+            return chosenChat.getMessages(messageIndex, 1).get(0);
         } else {
             return null;
         }
@@ -377,12 +546,11 @@ public class ChatManager implements Serializable {
 
     //make sure messageId is not null
     private UUID getPreviousMessage(Chat chosenChat, UUID messageId){ //returns previous message or null if no previous exists
-        List<UUID> chatMessagesList = chosenChat.getAllMessages();
-        int messageIndex = chatMessagesList.indexOf(messageId);
+        int messageIndex = chosenChat.getPosition(messageId);
         UUID previousMessageId;
 
         if (messageIndex > 0){
-            previousMessageId = chatMessagesList.get(messageIndex - 1); //change this to use the new message uuid by index later
+            previousMessageId = chosenChat.getMessages(messageIndex - 1, 1).get(0);
         }else{
             previousMessageId = null;
         }
@@ -392,8 +560,22 @@ public class ChatManager implements Serializable {
     private void markChatAsRead(String username, UUID chatId){
         if (!isChatEmpty(chatId)){ //only marks if chat is not empty
             Chat chat = allChats.get(chatId);
-            List<UUID> chatMessagesList = chat.getAllMessages();
-            chat.setLastViewedMessage(username, chatMessagesList.get(chatMessagesList.size()-1));  //updates the last viewed message
+            chat.setLastViewedMessage(username, chat.getLastMessage());  //updates the last viewed message
+        }
+        emit(DomainChange.chat(chatId, username));  // also covers archiving, which marks the chat as read
+    }
+
+    private void emit(DomainChange change) {
+        if (listeners != null) {
+            for (ChangeListener listener : listeners) {
+                listener.changed(change);
+            }
+        }
+        List<ChangeListener> subscribed = chatListeners == null ? null : chatListeners.get(change.getChatId());
+        if (subscribed != null) {
+            for (ChangeListener listener : new ArrayList<>(subscribed)) {   // a listener may stop listening
+                listener.changed(change);
+            }
         }
     }
 
@@ -0,0 +1,408 @@
+package UseCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that the facts stored twice across the managers agree: the attendees of an event and the events of each
+ * attendee, the speakers of an event and the talks of each speaker, the room of an event and the events of each room,
+ * and the members of a chat and the chats they have archived or viewed. It can also repair what it finds.
+ * <p>
+ * A check first copies the relations out of the managers (their indexes are built lazily, so they are only read from
+ * one thread), then checks the events, users, rooms and chats in parallel. The events are taken as the truth for who
+ * attends and speaks, so a user who lists an event that does not list them is taken off it rather than squeezed in.
+ * Discrepancies that need an organizer to decide (ex. an event held in a room that does not exist) are only reported.
+ */
+public class ConsistencyChecker {
+    private static final int MAX_REPAIR_PASSES = 3;
+
+    /**
+     * The kinds of discrepancies, in the order they are reported and repaired
+     */
+    public enum Kind {
+        EVENT_ATTENDEE_UNKNOWN("an event lists an attendee who does not exist", true),
+        ATTENDEE_MISSING_EVENT("an attendee does not list an event that lists them", true),
+        ATTENDING_UNKNOWN_EVENT("an attendee lists an event that does not exist or does not list them", true),
+        ATTENDING_DUPLICATE("an attendee lists an event more than once", true),
+        EVENT_SPEAKER_UNKNOWN("an event lists a speaker who does not exist", false),
+        SPEAKER_MISSING_TALK("a speaker does not list an event that lists them", true),
+        SPEAKING_UNKNOWN_EVENT("a speaker lists an event that does not exist or does not list them", true),
+        EVENT_ROOM_UNKNOWN("an event is held in a room that does not exist", false),
+        ROOM_MISSING_EVENT("a room does not list an event held in it", true),
+        ROOM_UNKNOWN_EVENT("a room lists an event that does not exist or is held elsewhere", true),
+        VIP_STATUS_WRONG("a VIP status does not match the number of events attended", true),
+        MESSAGE_FROM_NON_MEMBER("a chat has a message from someone who is not in it", false),
+        LAST_VIEWED_UNKNOWN_MESSAGE("a chat member last viewed a message that is not in the chat", true),
+        ARCHIVED_UNKNOWN_CHAT("a user archived a chat that does not exist or that they are not in", true);
+
+        private final String description;
+        private final boolean repairable;
+
+        Kind(String description, boolean repairable) {
+            this.description = description;
+            this.repairable = repairable;
+        }
+
+        /**
+         * Get what this kind of discrepancy means
+         * @return the description
+         */
+        public String getDescription() {
+            return description;
+        }
+
+        /**
+         * Check whether this kind of discrepancy can be repaired without an organizer
+         * @return true iff repair fixes this kind
+         */
+        public boolean isRepairable() {
+            return repairable;
+        }
+    }
+
+    /**
+     * The result of a check (or of the check after a repair)
+     */
+    public static class Report {
+        private final List<Discrepancy> discrepancies;
+        private final Map<Kind, Integer> counts;
+        private final int repaired;
+
+        private Report(List<Discrepancy> discrepancies, int repaired) {
+            this.discrepancies = discrepancies;
+            this.counts = new EnumMap<>(Kind.class);
+            for (Discrepancy discrepancy : discrepancies) {
+                counts.merge(discrepancy.kind, 1, Integer::sum);
+            }
+            this.repaired = repaired;
+        }
+
+        /**
+         * Check whether nothing was found
+         * @return true iff there are no discrepancies
+         */
+        public boolean isConsistent() {
+            return discrepancies.isEmpty();
+        }
+
+        /**
+         * Get the number of discrepancies of each kind found
+         * @return the counts, in the order of the kinds; kinds that were not found are left out
+         */
+        public Map<Kind, Integer> getCounts() {
+            return Collections.unmodifiableMap(counts);
+        }
+
+        /**
+         * Get the number of discrepancies found that repair can fix
+         * @return the number of repairable discrepancies
+         */
+        public int getRepairableCount() {
+            int count = 0;
+            for (Map.Entry<Kind, Integer> entry : counts.entrySet()) {
+                count += entry.getKey().isRepairable() ? entry.getValue() : 0;
+            }
+            return count;
+        }
+
+        /**
+         * Get the number of discrepancies fixed before this report was made
+         * @return the number of repaired discrepancies, or 0 if this is the report of a check
+         */
+        public int getRepairedCount() {
+            return repaired;
+        }
+
+        /**
+         * Get one line for each discrepancy found
+         * @return the discrepancies, grouped by kind
+         */
+        public List<String> getDiscrepancies() {
+            List<String> lines = new ArrayList<>();
+            for (Discrepancy discrepancy : discrepancies) {
+                lines.add(discrepancy.detail);
+            }
+            return lines;
+        }
+
+        /**
+         * Get the report as lines of text: what was repaired, the count of each kind, then each discrepancy
+         * @return the lines of the report
+         */
+        public List<String> toLines() {
+            List<String> lines = new ArrayList<>();
+            if (repaired > 0) {
+                lines.add("Repaired " + repaired + " discrepancies.");
+            }
+            if (isConsistent()) {
+                lines.add("No discrepancies found.");
+                return lines;
+            }
+            lines.add(discrepancies.size() + " discrepancies found (" + getRepairableCount() + " can be repaired):");
+            for (Map.Entry<Kind, Integer> entry : counts.entrySet()) {
+                lines.add(entry.getValue() + "x " + entry.getKey().getDescription());
+            }
+            lines.addAll(getDiscrepancies());
+            return lines;
+        }
+    }
+
+    private final ChatManager cm;
+    private final EventManager em;
+    private final RoomManager rm;
+    private final UserManager um;
+
+    /**
+     * Create a checker for one conference
+     * @param cm the ChatManager of the conference
+     * @param em the EventManager of the conference
+     * @param rm the RoomManager of the conference
+     * @param um the UserManager of the conference
+     */
+    public ConsistencyChecker(ChatManager cm, EventManager em, RoomManager rm, UserManager um) {
+        this.cm = cm;
+        this.em = em;
+        this.rm = rm;
+        this.um = um;
+    }
+
+    /**
+     * Check every relation stored twice. Nothing is changed.
+     * @return the discrepancies found
+     */
+    public Report check() {
+        return new Report(findDiscrepancies(), 0);
+    }
+
+    /**
+     * Check every relation stored twice and fix the discrepancies that can be fixed. A fix can show up another
+     * discrepancy (ex. the VIP status of an attendee taken off an event), so this checks again after fixing, a few
+     * times at most.
+     * @return the discrepancies left after repairing, with the number that were fixed
+     */
+    public Report repair() {
+        List<Discrepancy> found = findDiscrepancies();
+        int repaired = 0;
+        for (int pass = 0; pass < MAX_REPAIR_PASSES; pass++) {
+            int fixed = 0;
+            for (Discrepancy discrepancy : found) {
+                if (discrepancy.repair != null) {
+                    discrepancy.repair.run();
+                    fixed++;
+                }
+            }
+            if (fixed == 0) {
+                break;
+            }
+            repaired += fixed;
+            found = findDiscrepancies();
+        }
+        return new Report(found, repaired);
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private static class Discrepancy {
+        private final Kind kind;
+        private final String detail;
+        private final Runnable repair;      // null if an organizer has to decide
+
+        private Discrepancy(Kind kind, String detail, Runnable repair) {
+            this.kind = kind;
+            this.detail = detail;
+            this.repair = kind.isRepairable() ? repair : null;
+        }
+    }
+
+    // the relations copied out of the managers, so the checks can read them from many threads
+    private static class Snapshot {
+        private final Map<String, List<String>> attendeesByEvent = new HashMap<>();
+        private final Map<String, List<String>> speakersByEvent = new HashMap<>();
+        private final Map<String, String> roomByEvent = new HashMap<>();
+        private final Map<String, List<String>> eventsByAttendee = new HashMap<>();
+        private final Map<String, Boolean> vipByAttendee = new HashMap<>();
+        private final Map<String, List<String>> talksBySpeaker = new HashMap<>();
+        private final Map<String, List<String>> eventsByRoom = new HashMap<>();
+        private final Map<String, List<UUID>> archivedByUser = new HashMap<>();
+        private final Map<UUID, ChatSnapshot> chats = new HashMap<>();
+    }
+
+    // the members of a chat, the sender of each message in it and the message each member last viewed
+    private static class ChatSnapshot {
+        private final Set<String> members = new HashSet<>();
+        private final Map<UUID, String> senderByMessage = new LinkedHashMap<>();
+        private final Map<String, UUID> lastViewedByMember = new HashMap<>();
+    }
+
+    private List<Discrepancy> findDiscrepancies() {
+        Snapshot snapshot = takeSnapshot();
+        List<Discrepancy> found = new ArrayList<>();
+        found.addAll(snapshot.attendeesByEvent.keySet().parallelStream()
+                .flatMap(title -> checkEvent(snapshot, title).stream()).collect(Collectors.toList()));
+        found.addAll(snapshot.eventsByAttendee.keySet().parallelStream()
+                .flatMap(user -> checkAttendee(snapshot, user).stream()).collect(Collectors.toList()));
+        found.addAll(snapshot.talksBySpeaker.keySet().parallelStream()
+                .flatMap(user -> checkSpeaker(snapshot, user).stream()).collect(Collectors.toList()));
+        found.addAll(snapshot.eventsByRoom.keySet().parallelStream()
+                .flatMap(room -> checkRoom(snapshot, room).stream()).collect(Collectors.toList()));
+        found.addAll(snapshot.chats.keySet().parallelStream()
+                .flatMap(chatId -> checkChat(snapshot, chatId).stream()).collect(Collectors.toList()));
+        found.addAll(snapshot.archivedByUser.keySet().parallelStream()
+                .flatMap(user -> checkArchivedChats(snapshot, user).stream()).collect(Collectors.toList()));
+        found.sort(Comparator.comparing((Discrepancy d) -> d.kind).thenComparing(d -> d.detail));
+        return found;
+    }
+
+    private Snapshot takeSnapshot() {
+        Snapshot snapshot = new Snapshot();
+        for (String title : em.getAllEventTitle()) {
+            snapshot.attendeesByEvent.put(title, new ArrayList<>(em.getAllAttendeesByTitle(title)));
+            snapshot.speakersByEvent.put(title, new ArrayList<>(em.getSpeakerUsernameByTitle(title)));
+            snapshot.roomByEvent.put(title, em.getRoomNumByTitle(title));
+        }
+        for (String user : um.getUsersOfType("Attendee").or(um.getUsersOfType("Organizer"))) {
+            snapshot.eventsByAttendee.put(user, new ArrayList<>(um.getEventAttending(user)));
+            snapshot.vipByAttendee.put(user, um.isAttendeeVIP(user));
+        }
+        for (String user : um.getAllSpeaker()) {
+            snapshot.talksBySpeaker.put(user, new ArrayList<>(um.getEventsSpeaking(user)));
+        }
+        for (String room : rm.getAllRoomNum()) {
+            snapshot.eventsByRoom.put(room, rm.getEventsInRoom(room));
+        }
+        for (UUID chatId : cm.getAllChatIds()) {
+            ChatSnapshot chat = new ChatSnapshot();
+            chat.members.addAll(cm.getChatMemberUsernames(chatId));
+            for (UUID messageId : cm.getAllMessageIds(chatId)) {
+                chat.senderByMessage.put(messageId, cm.getMessageSenderUsername(chatId, messageId));
+            }
+            for (String member : chat.members) {
+                chat.lastViewedByMember.put(member, cm.getLastViewedMessage(member, chatId));
+            }
+            snapshot.chats.put(chatId, chat);
+        }
+        for (String user : cm.getUsersWithArchivedChats()) {
+            snapshot.archivedByUser.put(user, cm.getArchivedChats(user));
+        }
+        return snapshot;
+    }
+
+    private List<Discrepancy> checkEvent(Snapshot snapshot, String title) {
+        List<Discrepancy> found = new ArrayList<>();
+        for (String user : new HashSet<>(snapshot.attendeesByEvent.get(title))) {
+            List<String> attending = snapshot.eventsByAttendee.get(user);
+            if (attending == null) {
+                found.add(new Discrepancy(Kind.EVENT_ATTENDEE_UNKNOWN, title + " lists attendee " + user,
+                        () -> em.deleteAttendee(user, title)));
+            } else if (!attending.contains(title)) {
+                found.add(new Discrepancy(Kind.ATTENDEE_MISSING_EVENT, user + " does not list " + title,
+                        () -> um.signUpEventAttendee(user, title)));
+            }
+        }
+        for (String speaker : snapshot.speakersByEvent.get(title)) {
+            List<String> talks = snapshot.talksBySpeaker.get(speaker);
+            if (talks == null) {
+                found.add(new Discrepancy(Kind.EVENT_SPEAKER_UNKNOWN, title + " lists speaker " + speaker, null));
+            } else if (!talks.contains(title)) {
+                found.add(new Discrepancy(Kind.SPEAKER_MISSING_TALK, speaker + " does not list " + title,
+                        () -> um.addEventToSpeaker(title, speaker)));
+            }
+        }
+        String room = snapshot.roomByEvent.get(title);
+        List<String> roomEvents = snapshot.eventsByRoom.get(room);
+        if (roomEvents == null) {
+            found.add(new Discrepancy(Kind.EVENT_ROOM_UNKNOWN, title + " is held in Room " + room, null));
+        } else if (!roomEvents.contains(title)) {
+            found.add(new Discrepancy(Kind.ROOM_MISSING_EVENT, "Room " + room + " does not list " + title,
+                    () -> rm.addEventToRoom(room, title)));
+        }
+        return found;
+    }
+
+    private List<Discrepancy> checkAttendee(Snapshot snapshot, String user) {
+        List<Discrepancy> found = new ArrayList<>();
+        List<String> attending = snapshot.eventsByAttendee.get(user);
+        Set<String> seen = new HashSet<>();
+        for (String title : attending) {
+            List<String> attendees = snapshot.attendeesByEvent.get(title);
+            if (!seen.add(title)) {
+                found.add(new Discrepancy(Kind.ATTENDING_DUPLICATE, user + " lists " + title + " more than once",
+                        () -> um.cancelSpotAttendee(user, title)));
+            } else if (attendees == null || !attendees.contains(user)) {
+                found.add(new Discrepancy(Kind.ATTENDING_UNKNOWN_EVENT, user + " lists " + title,
+                        () -> um.cancelSpotAttendee(user, title)));
+            }
+        }
+        if (snapshot.vipByAttendee.get(user) != (attending.size() >= 2)) {
+            found.add(new Discrepancy(Kind.VIP_STATUS_WRONG, user + " attends " + attending.size() + " events",
+                    () -> um.setAttendeeVIP(user)));
+        }
+        return found;
+    }
+
+    private List<Discrepancy> checkSpeaker(Snapshot snapshot, String speaker) {
+        List<Discrepancy> found = new ArrayList<>();
+        for (String title : new HashSet<>(snapshot.talksBySpeaker.get(speaker))) {
+            List<String> speakers = snapshot.speakersByEvent.get(title);
+            if (speakers == null || !speakers.contains(speaker)) {
+                found.add(new Discrepancy(Kind.SPEAKING_UNKNOWN_EVENT, speaker + " lists " + title,
+                        () -> um.deleteEventForSpeaker(title, speaker)));
+            }
+        }
+        return found;
+    }
+
+    private List<Discrepancy> checkRoom(Snapshot snapshot, String room) {
+        List<Discrepancy> found = new ArrayList<>();
+        for (String title : new HashSet<>(snapshot.eventsByRoom.get(room))) {
+            if (!room.equals(snapshot.roomByEvent.get(title))) {
+                found.add(new Discrepancy(Kind.ROOM_UNKNOWN_EVENT, "Room " + room + " lists " + title,
+                        () -> rm.deleteEventFromRoom(room, title)));
+            }
+        }
+        return found;
+    }
+
+    private List<Discrepancy> checkChat(Snapshot snapshot, UUID chatId) {
+        List<Discrepancy> found = new ArrayList<>();
+        ChatSnapshot chat = snapshot.chats.get(chatId);
+        Set<String> strangers = new HashSet<>();
+        for (String sender : chat.senderByMessage.values()) {
+            if (!chat.members.contains(sender) && strangers.add(sender)) {
+                found.add(new Discrepancy(Kind.MESSAGE_FROM_NON_MEMBER, "Chat " + chatId + " has messages from "
+                        + sender, null));
+            }
+        }
+        for (String member : chat.members) {
+            UUID lastViewed = chat.lastViewedByMember.get(member);
+            if (lastViewed != null && !chat.senderByMessage.containsKey(lastViewed)) {
+                found.add(new Discrepancy(Kind.LAST_VIEWED_UNKNOWN_MESSAGE, member + " last viewed message "
+                        + lastViewed + " in chat " + chatId, () -> cm.resetLastViewedMessage(member, chatId)));
+            }
+        }
+        return found;
+    }
+
+    private List<Discrepancy> checkArchivedChats(Snapshot snapshot, String user) {
+        List<Discrepancy> found = new ArrayList<>();
+        for (UUID chatId : new HashSet<>(snapshot.archivedByUser.get(user))) {
+            ChatSnapshot chat = snapshot.chats.get(chatId);
+            if (chat == null || !chat.members.contains(user)) {
+                found.add(new Discrepancy(Kind.ARCHIVED_UNKNOWN_CHAT, user + " archived chat " + chatId,
+                        () -> cm.unarchiveChat(user, chatId)));
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,130 @@
+package UseCase;
+
+import java.util.UUID;
+
+/**
+ * A change to one thing in the managers, given to their ChangeListeners right after it is made. A change only says
+ * what changed (an event, a user, a chat, or a request), so a listener that keeps a copy of something reads it again
+ * from the manager instead of piecing the change together.
+ */
+public class DomainChange {
+    /**
+     * The kinds of things that change
+     */
+    public enum Subject {
+        /** An event was created, changed (ex. someone signed up) or deleted */
+        EVENT,
+        /** A user's events, friends or VIP status changed */
+        USER,
+        /** A message was sent to or deleted from a chat, or the chat was created; or, for one user, the chat was
+         *  read, marked as unread, archived or unarchived */
+        CHAT,
+        /** A request was sent or its status changed */
+        REQUEST
+    }
+
+    private final Subject subject;
+    private final String title;
+    private final String username;
+    private final UUID chatId;
+    private final int requestNum;
+
+    private DomainChange(Subject subject, String title, String username, UUID chatId, int requestNum) {
+        this.subject = subject;
+        this.title = title;
+        this.username = username;
+        this.chatId = chatId;
+        this.requestNum = requestNum;
+    }
+
+    /**
+     * @param title the title of the event
+     * @return the change to an event
+     */
+    public static DomainChange event(String title) {
+        return new DomainChange(Subject.EVENT, title, null, null, 0);
+    }
+
+    /**
+     * @param username the username of the user
+     * @return the change to a user
+     */
+    public static DomainChange user(String username) {
+        return new DomainChange(Subject.USER, null, username, null, 0);
+    }
+
+    /**
+     * @param chatId the id of the chat
+     * @return the change to a chat, for all of its members
+     */
+    public static DomainChange chat(UUID chatId) {
+        return new DomainChange(Subject.CHAT, null, null, chatId, 0);
+    }
+
+    /**
+     * @param chatId the id of the chat
+     * @param username the username of the member
+     * @return the change to a chat for only one of its members
+     */
+    public static DomainChange chat(UUID chatId, String username) {
+        return new DomainChange(Subject.CHAT, null, username, chatId, 0);
+    }
+
+    /**
+     * @param requestNum the request number
+     * @return the change to a request
+     */
+    public static DomainChange request(int requestNum) {
+        return new DomainChange(Subject.REQUEST, null, null, null, requestNum);
+    }
+
+    /**
+     * @return what kind of thing changed
+     */
+    public Subject getSubject() {
+        return subject;
+    }
+
+    /**
+     * @return the title of the event that changed, or null if the change is not to an event
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * @return the username of the user who changed, or of the only member a chat changed for (null if it changed for
+     * all of them)
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return the id of the chat that changed, or null if the change is not to a chat
+     */
+    public UUID getChatId() {
+        return chatId;
+    }
+
+    /**
+     * @return the number of the request that changed, or 0 if the change is not to a request
+     */
+    public int getRequestNum() {
+        return requestNum;
+    }
+
+    @Override
+    public String toString() {
+        switch (subject) {
+            case EVENT:
+                return "event " + title;
+            case USER:
+                return "user " + username;
+            case CHAT:
+                return "chat " + chatId + (username == null ? "" : " for " + username);
+            default:
+                return "request " + requestNum;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package UseCase;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Something that happened in the conference (ex. an event was cancelled), published on a DomainEventBus once the
+ * transaction it happened in commits.
+ * <p>
+ * Unlike a DomainChange, which only says what to read again, a domain event carries everything its subscribers need
+ * (ex. who to tell), because they handle it later, on threads of their own, when the managers may have changed again.
+ */
+public abstract class DomainEvent {
+    private final LocalDateTime time;
+
+    private DomainEvent(LocalDateTime time) {
+        this.time = time;
+    }
+
+    /**
+     * @return when it happened
+     */
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    /**
+     * An organizer cancelled an event
+     */
+    public static class EventCancelled extends DomainEvent {
+        private final String title;
+        private final String organizer;
+        private final Audience audience;
+
+        /**
+         * @param title the title of the event
+         * @param organizer the username of the organizer who cancelled it
+         * @param audience the attendees and speakers of the event, found before it was deleted
+         * @param time when it was cancelled
+         */
+        public EventCancelled(String title, String organizer, Audience audience, LocalDateTime time) {
+            super(time);
+            this.title = title;
+            this.organizer = organizer;
+            this.audience = audience;
+        }
+
+        /**
+         * @return the title of the event
+         */
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * @return the username of the organizer who cancelled the event
+         */
+        public String getOrganizer() {
+            return organizer;
+        }
+
+        /**
+         * @return the attendees and speakers the event had
+         */
+        public Audience getAudience() {
+            return audience;
+        }
+    }
+
+    /**
+     * An organizer changed the capacity of an event
+     */
+    public static class CapacityChanged extends DomainEvent {
+        private final String title;
+        private final int capacity;
+        private final String organizer;
+        private final Audience audience;
+
+        /**
+         * @param title the title of the event
+         * @param capacity the new capacity
+         * @param organizer the username of the organizer who changed it
+         * @param audience the attendees and speakers of the event when it was changed
+         * @param time when it was changed
+         */
+        public CapacityChanged(String title, int capacity, String organizer, Audience audience, LocalDateTime time) {
+            super(time);
+            this.title = title;
+            this.capacity = capacity;
+            this.organizer = organizer;
+            this.audience = audience;
+        }
+
+        /**
+         * @return the title of the event
+         */
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * @return the new capacity
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * @return the username of the organizer who changed the capacity
+         */
+        public String getOrganizer() {
+            return organizer;
+        }
+
+        /**
+         * @return the attendees and speakers of the event when the capacity was changed
+         */
+        public Audience getAudience() {
+            return audience;
+        }
+    }
+
+    /**
+     * A user signed up for an event, by themselves or by being let in from its waitlist
+     */
+    public static class AttendeeSignedUp extends DomainEvent {
+        private final String username;
+        private final String title;
+
+        /**
+         * @param username the username of the user
+         * @param title the title of the event
+         * @param time when they signed up
+         */
+        public AttendeeSignedUp(String username, String title, LocalDateTime time) {
+            super(time);
+            this.username = username;
+            this.title = title;
+        }
+
+        /**
+         * @return the username of the user
+         */
+        public String getUsername() {
+            return username;
+        }
+
+        /**
+         * @return the title of the event
+         */
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    /**
+     * Users were let in to an event from its waitlist because a spot opened up
+     */
+    public static class WaitlistPromoted extends DomainEvent {
+        private final String title;
+        private final List<String> promoted;
+
+        /**
+         * @param title the title of the event
+         * @param promoted the usernames of the users let in, in the order they were let in
+         * @param time when they were let in
+         */
+        public WaitlistPromoted(String title, List<String> promoted, LocalDateTime time) {
+            super(time);
+            this.title = title;
+            this.promoted = Collections.unmodifiableList(promoted);
+        }
+
+        /**
+         * @return the title of the event
+         */
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * @return the usernames of the users let in, in the order they were let in
+         */
+        public List<String> getPromoted() {
+            return promoted;
+        }
+    }
+
+    /**
+     * A message was sent to some users
+     */
+    public static class MessageSent extends DomainEvent {
+        private final String sender;
+        private final int recipients;
+
+        /**
+         * @param sender the username of the sender
+         * @param recipients the number of users it was sent to
+         * @param time when it was sent
+         */
+        public MessageSent(String sender, int recipients, LocalDateTime time) {
+            super(time);
+            this.sender = sender;
+            this.recipients = recipients;
+        }
+
+        /**
+         * @return the username of the sender
+         */
+        public String getSender() {
+            return sender;
+        }
+
+        /**
+         * @return the number of users the message was sent to
+         */
+        public int getRecipients() {
+            return recipients;
+        }
+    }
+}
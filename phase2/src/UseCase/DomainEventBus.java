@@ -0,0 +1,165 @@
+package UseCase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Hands DomainEvents to the parts of the program that react to them (ex. sending notices), so the action the event
+ * came from returns without waiting for them.
+ * <p>
+ * Every subscriber has a thread of its own and gets the events it subscribed to one at a time, in the order they were
+ * published. An event published inside a transaction is only handed out once the transaction commits, and is dropped
+ * if it is rolled back. A subscriber that throws is counted as failed for that event and keeps getting the next ones.
+ * <p>
+ * The bus also counts the events published of each kind and the failures of the subscribers, for metrics.
+ */
+public class DomainEventBus {
+    private final TransactionManager tm;
+    private final List<Subscriber<?>> subscribers;
+    private final Map<String, AtomicLong> published;    // maps the kind of event to the number published
+    private final AtomicLong failures;
+    private volatile boolean shutdown;
+
+    /**
+     * Create a bus with no subscribers
+     * @param tm the TransactionManager events are published from
+     */
+    public DomainEventBus(TransactionManager tm) {
+        this.tm = tm;
+        this.subscribers = new CopyOnWriteArrayList<>();
+        this.published = new ConcurrentHashMap<>();
+        this.failures = new AtomicLong();
+    }
+
+    /**
+     * Start handing events of one kind to a subscriber, on a thread of its own
+     * @param name the name of the subscriber, used for its thread
+     * @param type the kind of event (DomainEvent for all of them)
+     * @param handler what the subscriber does with each event
+     * @param <E> the kind of event
+     */
+    public <E extends DomainEvent> void subscribe(String name, Class<E> type, Consumer<? super E> handler) {
+        subscribers.add(new Subscriber<>(name, type, handler));
+    }
+
+    /**
+     * Publish an event: once the running transaction commits (or right away outside one), it is queued for every
+     * subscriber of its kind
+     * @param event the event
+     */
+    public void publish(DomainEvent event) {
+        tm.afterCommit(() -> deliver(event));
+    }
+
+    /**
+     * Wait until every subscriber has handled the events published so far (ex. before saving)
+     * @param timeoutMillis how long to wait at most
+     * @return true iff they were all handled in time
+     */
+    public boolean awaitIdle(long timeoutMillis) {
+        CountDownLatch idle = new CountDownLatch(subscribers.size());
+        for (Subscriber<?> subscriber : subscribers) {
+            try {
+                subscriber.executor.execute(idle::countDown);
+            } catch (RejectedExecutionException e) {
+                idle.countDown();
+            }
+        }
+        try {
+            return idle.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Get the number of events published of each kind
+     * @return maps the simple class name of each kind of event to the number published
+     */
+    public Map<String, Long> getPublishedCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : published.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    /**
+     * Get the number of times a subscriber threw while handling an event
+     * @return the number of failures
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Stop handing out events once this bus is no longer used; the subscribers still handle the events already queued
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Subscriber<?> subscriber : subscribers) {
+            subscriber.executor.shutdown();
+        }
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private class Subscriber<E extends DomainEvent> {
+        private final Class<E> type;
+        private final Consumer<? super E> handler;
+        private final ExecutorService executor;
+
+        private Subscriber(String name, Class<E> type, Consumer<? super E> handler) {
+            this.type = type;
+            this.handler = handler;
+            this.executor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "events-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        private void offer(DomainEvent event) {
+            if (!type.isInstance(event)) {
+                return;
+            }
+            E typed = type.cast(event);
+            executor.execute(() -> {
+                try {
+                    handler.accept(typed);
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                    System.err.println("Uh-oh! A subscriber failed to handle " + event.getClass().getSimpleName()
+                            + ": " + e);
+                }
+            });
+        }
+    }
+
+    // runs while the transaction that published the event still holds the lock, so it must not throw
+    private void deliver(DomainEvent event) {
+        if (shutdown) {
+            return;
+        }
+        published.computeIfAbsent(event.getClass().getSimpleName(), kind -> new AtomicLong()).incrementAndGet();
+        for (Subscriber<?> subscriber : subscribers) {
+            try {
+                subscriber.offer(event);
+            } catch (RejectedExecutionException e) {
+                // the bus was shut down while the event was being handed out
+            }
+        }
+    }
+}
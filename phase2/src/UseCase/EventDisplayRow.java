@@ -0,0 +1,123 @@
+package UseCase;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A snapshot of everything shown about an event in the lists of events, along with the line of text shown for it.
+ * <p>
+ * Rows are made by EventManager and kept until the event changes, so displaying a list of events does not format any
+ * dates or build any strings.
+ */
+public class EventDisplayRow {
+    private static final DateTimeFormatter FORMATTER =
+            DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM, FormatStyle.SHORT);
+
+    private final String title;
+    private final String eventType;
+    private final boolean VIP;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final String roomNum;
+    private final List<String> speakerUserNames;
+    private final String text;
+
+    /**
+     * Create the display row for an event
+     * @param title the title of the event
+     * @param eventType "Talk", "Panel" or "Party"
+     * @param VIP whether or not the event is VIP-only
+     * @param startTime the start time of the event
+     * @param endTime the end time of the event
+     * @param roomNum the room number of the event
+     * @param speakerUserNames the usernames of the speakers of the event
+     */
+    EventDisplayRow(String title, String eventType, boolean VIP, LocalDateTime startTime, LocalDateTime endTime,
+                    String roomNum, List<String> speakerUserNames) {
+        this.title = title;
+        this.eventType = eventType;
+        this.VIP = VIP;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.roomNum = roomNum;
+        this.speakerUserNames = List.copyOf(speakerUserNames);
+        this.text = render();
+    }
+
+    /**
+     * Getter for the title of the event
+     * @return the title of the event
+     */
+    public String getTitle() { return title; }
+
+    /**
+     * Getter for the type of the event
+     * @return "Talk", "Panel" or "Party"
+     */
+    public String getEventType() { return eventType; }
+
+    /**
+     * Getter for whether the event is VIP-only
+     * @return true iff the event is VIP-only
+     */
+    public boolean getVIP() { return VIP; }
+
+    /**
+     * Getter for the start time of the event
+     * @return the start time of the event
+     */
+    public LocalDateTime getStartTime() { return startTime; }
+
+    /**
+     * Getter for the end time of the event
+     * @return the end time of the event
+     */
+    public LocalDateTime getEndTime() { return endTime; }
+
+    /**
+     * Getter for the room number of the event
+     * @return the room number of the event
+     */
+    public String getRoomNum() { return roomNum; }
+
+    /**
+     * Getter for the speakers of the event
+     * @return the usernames of the speakers of the event
+     */
+    public List<String> getSpeakerUserNames() { return Collections.unmodifiableList(speakerUserNames); }
+
+    /**
+     * Getter for the line of text shown for the event
+     * @return the string representation of the event
+     */
+    public String getText() { return text; }
+
+    @Override
+    public String toString() { return text; }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private String render() {
+        StringBuilder row = new StringBuilder(title).append("( ").append(eventType).append(" )");
+        if (VIP) {
+            row.append("[VIP-only]");
+        }
+        row.append(": ").append(startTime.format(FORMATTER)).append(" - ").append(endTime.format(FORMATTER))
+                .append(", in Room ").append(roomNum).append('.');
+        if (eventType.equals("Party")) {
+            if (!VIP) {
+                row.append(' ');
+            }
+        } else {
+            row.append(" Speaker: ");
+            for (String speaker : speakerUserNames) {
+                row.append(speaker).append(' ');
+            }
+        }
+        return row.toString();
+    }
+}
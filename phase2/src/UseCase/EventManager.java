@@ -3,10 +3,11 @@ package UseCase;
 import Entities.Event;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.time.format.FormatStyle;
 import java.util.*;
+import java.util.stream.Collectors;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -16,13 +17,37 @@ import java.time.LocalTime;
  * @author Xinyi Chen and Xinpeng Shan
  */
 public class EventManager implements Serializable {
+    private static final long serialVersionUID = -3975739575346634609L;
     // The list allEvents including all events created including all parties, talks and panels.
     private final List<Event> allEvents;
     private final List<Event> allParties;
     private final List<Event> allTalks;
     private final List<Event> allPanels;
-
-
+    // Indexes of the events by title, of all events ordered by start time, and of the events held in each room, given
+    // by each speaker and attended by each attendee ordered by start time. Not saved; rebuilt from allEvents when
+    // needed.
+    private transient Map<String, Event> eventsByTitle;
+    private transient TreeSet<Event> timeline;
+    private transient Map<String, TreeSet<Event>> roomSchedules;
+    private transient Map<String, TreeSet<Event>> speakerSchedules;
+    private transient Map<String, TreeSet<Event>> attendeeSchedules;
+    // Ids of the users (shared with UserManager once set) and the ids of the attendees signed up for each event, so
+    // checking whether someone has signed up does not scan the attendee list. Attendee lists hold the usernames kept
+    // by userIds, so each username is stored once however many events it is in. Not saved; rebuilt when needed.
+    private transient IdDictionary userIds;
+    private transient Map<Event, IntSet> rosters;
+    // The length of the longest event indexed, so a range query knows how far before its start to look.
+    private transient Duration longestEvent;
+    // Display rows made for events since they last changed. Not saved; rows are made again when needed.
+    private transient Map<Event, EventDisplayRow> displayRows;
+    // The number of seats held in each event by people who have not confirmed yet. Holds only last a few minutes, so
+    // they are not saved.
+    private transient Map<Event, Integer> heldSeats;
+    // Told about every change; not saved.
+    private transient List<ChangeListener> listeners;
+
+    private static final Comparator<Event> BY_START_TIME =
+            Comparator.comparing(Event::getStartTime).thenComparing(Event::getTitle);
 
     /**
      * Initialize a new EventManager.
@@ -49,10 +74,28 @@ public class EventManager implements Serializable {
     public void createEvent(boolean VIP, String title, String startDate, String endDate, String startTime, String endTime,
                                String rmNum, int maxNum, List<String> speakerUserNames){
         List<LocalDateTime> time = parseStringToLocalDateTime(startDate, endDate, startTime, endTime);
+        addEvent(new Event(title, time.get(0), time.get(1), rmNum, VIP, maxNum, speakerUserNames));
+    }
 
-        // Create an event object with the specification
-        Event event = new Event(title, time.get(0), time.get(1), rmNum, VIP, maxNum, speakerUserNames);
+    /**
+     * Create an Event object from a proposal whose times have already been parsed and validated, and add it into the
+     * list of talks/panels/parties accordingly.
+     * @param proposal the validated proposal for the event
+     */
+    public void createEvent(EventProposal proposal){
+        addEvent(new Event(proposal.getTitle(), proposal.getStartTime(), proposal.getEndTime(), proposal.getRoomNum(),
+                proposal.getVIP(), proposal.getMaxNum(), new ArrayList<>(proposal.getSpeakerUserNames())));
+    }
+
+    /**
+     * private helper method for adding a new event to the list of all events, the room index and the list of its type
+     * @param event the new event
+     */
+    private void addEvent(Event event){
+        List<String> speakerUserNames = event.getSpeakerUserNames();
         allEvents.add(event);
+        indexEvent(event);
+        emit(DomainChange.event(event.getTitle()));
         //also need to add to corresponding list variables
         if (speakerUserNames.size() == 0) {
             allParties.add(event);
@@ -83,6 +126,19 @@ public class EventManager implements Serializable {
                 break;
         }
         allEvents.removeIf(e -> e.getTitle().equals(title));
+        roomSchedule(event.getRoomNum()).remove(event);
+        for (String speaker : event.getSpeakerUserNames()){
+            speakerSchedule(speaker).remove(event);
+        }
+        for (String attendee : event.getAttendeeList()){
+            attendeeSchedule(attendee).remove(event);
+        }
+        rosters().remove(event);
+        timeline().remove(event);
+        eventsByTitle().remove(title);
+        displayRows().remove(event);
+        heldSeats().remove(event);
+        emit(DomainChange.event(title));
     }
 
     /**
@@ -91,30 +147,19 @@ public class EventManager implements Serializable {
      */
     public void changeEventMaxNum(String title, int maxNum){
         Event event = helperEventTitle(title);
-        String type = event.getEventType();
-        switch (type) {
-            case "Party":
-                for (Event e1 : allParties){
-                    if (e1.getTitle().equals(title)){
-                        e1.setMaxNum(maxNum);
-                    }
-                }
-                break;
-            case "Talk":
-                for (Event e2 : allTalks){
-                    if (e2.getTitle().equals(title)){
-                        e2.setMaxNum(maxNum);
-                    }
-                }
-                break;
-            case "Panel":
-                for (Event e3 : allPanels){
-                    if (e3.getTitle().equals(title)){
-                        e3.setMaxNum(maxNum);
-                    }
-                }
-                break;
+        event.setMaxNum(maxNum);
+        changed(event);
+    }
+
+    /**
+     * Tell a listener about every change to the events from now on (ex. a ReadModel). Listeners are not saved.
+     * @param listener the listener
+     */
+    public void addChangeListener(ChangeListener listener){
+        if (listeners == null){
+            listeners = new ArrayList<>();
         }
+        listeners.add(listener);
     }
 
     /**
@@ -182,9 +227,8 @@ public class EventManager implements Serializable {
      * @return true if this time frame is a valid time frame (start time < endtime)
      */
     public boolean isTimeValid(String startDate, String endDate, String startTime, String endTime){
-        LocalDateTime start = parseStringToLocalDateTime(startDate, endDate, startTime, endTime).get(0);
-        LocalDateTime end = parseStringToLocalDateTime(startDate, endDate, startTime, endTime).get(1);
-        return end.isAfter(start);
+        List<LocalDateTime> time = parseStringToLocalDateTime(startDate, endDate, startTime, endTime);
+        return time.get(1).isAfter(time.get(0));
     }
 
     /**
@@ -209,18 +253,19 @@ public class EventManager implements Serializable {
      * @return true iff the room given is not booked by another event at the same time
      */
     public boolean isRoomAvailableAtTime(String roomNum, String startDate, String endDate, String startTime, String endTime){
-        LocalDateTime start = parseStringToLocalDateTime(startDate, endDate, startTime, endTime).get(0);
-        LocalDateTime end = parseStringToLocalDateTime(startDate, endDate, startTime, endTime).get(1);
-        //check if room is booked at the time
-        for(Event e: allEvents){
-            //lower and upper limits
-            LocalDateTime lower = e.getStartTime();
-            LocalDateTime upper = e.getEndTime();
-            if (doTimesOverlap(lower, upper, start, end) && e.getRoomNum().equals(roomNum)) {
-                return false;
-            }
-        }
-        return true;
+        List<LocalDateTime> time = parseStringToLocalDateTime(startDate, endDate, startTime, endTime);
+        return isRoomAvailableAtTime(roomNum, time.get(0), time.get(1));
+    }
+
+    /**
+     * Returns whether or not the given room is booked between the given times
+     * @param roomNum the room number for the potential event
+     * @param start the start time for the potential event
+     * @param end the end time for the potential event
+     * @return true iff the room given is not booked by another event at the same time
+     */
+    public boolean isRoomAvailableAtTime(String roomNum, LocalDateTime start, LocalDateTime end){
+        return helperFindOverlap(roomSchedule(roomNum), start, end, null) == null;
     }
 
     /**
@@ -233,18 +278,93 @@ public class EventManager implements Serializable {
      * @return true iff the speaker is not booked for any other event at give date and time
      */
     public boolean isSpeakerAvailableAtTime(String startDate, String endDate, String startTime, String endTime, String speakerUserName){
-        LocalDateTime start = parseStringToLocalDateTime(startDate, endDate, startTime, endTime).get(0);
-        LocalDateTime end = parseStringToLocalDateTime(startDate, endDate, startTime, endTime).get(1);
-        //check if speaker is booked at the time
-        for(Event event: allEvents){
-            //lower and upper limits
-            LocalDateTime lower = event.getStartTime();
-            LocalDateTime upper = event.getEndTime();
-            if (doTimesOverlap(lower, upper, start, end) && event.getSpeakerUserNames().contains(speakerUserName)){
-                return false;
+        List<LocalDateTime> time = parseStringToLocalDateTime(startDate, endDate, startTime, endTime);
+        return getBusySpeakers(Collections.singletonList(speakerUserName), time.get(0), time.get(1)).isEmpty();
+    }
+
+    /**
+     * Returns the speakers among the given ones that are already hosting an event between the given times.
+     * @param speakerUserNames the usernames of the speakers to check
+     * @param start the start time for the potential event
+     * @param end the end time for the potential event
+     * @return the set of usernames of the speakers that are booked at the given time (empty if all are available)
+     */
+    public Set<String> getBusySpeakers(Collection<String> speakerUserNames, LocalDateTime start, LocalDateTime end){
+        Set<String> busy = new HashSet<>();
+        for (String speaker : speakerUserNames){
+            if (helperFindOverlap(speakerSchedule(speaker), start, end, null) != null){
+                busy.add(speaker);
             }
         }
-        return true;
+        return busy;
+    }
+
+    /**
+     * Returns the event the user has signed up for that overlaps with the given event.
+     * @param userName the username of the user
+     * @param eventTitle the event title of the event the user wants to attend
+     * @return the title of an overlapping event the user has signed up for, or null if there is none
+     */
+    public String getConflictingEvent(String userName, String eventTitle){
+        Event event = helperEventTitle(eventTitle);
+        Event conflict = helperFindOverlap(attendeeSchedule(userName), event.getStartTime(), event.getEndTime(), event);
+        return conflict == null ? null : conflict.getTitle();
+    }
+
+    /**
+     * Finds the overlapping events in the schedules of the given users. The users are checked in parallel.
+     * @param userNames the usernames of the users to check
+     * @return a map from each user with overlapping events to pairs of titles {earlier event, later event} of the
+     * events that overlap, ordered by username
+     */
+    public SortedMap<String, List<String[]>> getScheduleConflicts(Collection<String> userNames){
+        // build the indexes before the users are checked, so the parallel checks only read them
+        Map<String, TreeSet<Event>> schedules = attendeeSchedules();
+        return userNames.parallelStream()
+                .map(userName -> new AbstractMap.SimpleImmutableEntry<>(userName,
+                        helperScheduleConflicts(schedules.get(userName))))
+                .filter(entry -> !entry.getValue().isEmpty())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, TreeMap::new));
+    }
+
+    /**
+     * Use the given user ids for the rosters of the events, so the audiences made here can be combined with the ones
+     * made by UserManager
+     * @param userIds the ids of all users
+     */
+    public void setUserIds(IdDictionary userIds){
+        this.userIds = userIds;
+        rosters = null;
+    }
+
+    /**
+     * Replace each username in the attendee lists with the one instance kept by the user ids. Attendee lists read from
+     * a saved conference may hold several copies of the same username, so this is done once when it is loaded.
+     */
+    public void shareUsernames(){
+        for (Event event : allEvents){
+            event.getAttendeeList().replaceAll(userIds()::canonical);
+        }
+    }
+
+    /**
+     * Get the attendees of the given events, and optionally their speakers, as one audience
+     * @param eventTitles the titles of the events, which must all exist
+     * @param withSpeakers whether the speakers of the events are in the audience too
+     * @return the people at any of the events
+     */
+    public Audience getEventAudience(Collection<String> eventTitles, boolean withSpeakers){
+        BitSet members = new BitSet();
+        for (String title : eventTitles){
+            Event event = helperEventTitle(title);
+            roster(event).forEach(members::set);
+            if (withSpeakers){
+                for (String speaker : event.getSpeakerUserNames()){
+                    members.set(userIds().intern(speaker));
+                }
+            }
+        }
+        return new Audience(userIds(), members);
     }
 
     /**
@@ -253,12 +373,7 @@ public class EventManager implements Serializable {
      * @return true iff the given event title has not been created before
      */
     public boolean isEventTitleUnique(String title){
-        for (Event e: allEvents){
-            if (e.getTitle().equals(title)){
-                return false;
-            }
-        }
-        return true;
+        return !eventsByTitle().containsKey(title);
     }
 
     /**
@@ -267,10 +382,7 @@ public class EventManager implements Serializable {
      * @return true iff the event with the corresponding event title is in the allEvents list
      */
     public boolean isEventExist(String eventTitle){
-        for(Event event:allEvents){
-            if (event.getTitle().equals(eventTitle)){return true;}
-        }
-        return false;
+        return eventsByTitle().containsKey(eventTitle);
     }
 
     /**
@@ -281,11 +393,11 @@ public class EventManager implements Serializable {
      */
     public boolean isAttendeeAdded(String userName, String eventTitle){
         Event event = helperEventTitle(eventTitle);
-        return event.getAttendeeList().contains(userName);
+        return roster(event).contains(userIds().idOf(userName));
     }
 
     /**
-     * Returns whether or not the the capacity of the event is full
+     * Returns whether or not the the capacity of the event is full. Held seats count as taken.
      * @param eventTitle the event title that we want to check
      * @return true iff the event is in its full capacity
      */
@@ -293,11 +405,44 @@ public class EventManager implements Serializable {
 
         Event event = helperEventTitle(eventTitle);
         int eventNum = event.getMaxNum();
-        int currentNum = event.getAttendeeList().size();
+        int currentNum = event.getAttendeeList().size() + heldSeats().getOrDefault(event, 0);
         return eventNum <= currentNum;
 
     }
 
+    /**
+     * Take one seat of the event out of availability until it is released
+     * @param eventTitle the event title
+     * @return true iff the seat was held, false if the event is full
+     */
+    public boolean holdSeat(String eventTitle){
+        if (isEventFull(eventTitle)){
+            return false;
+        }
+        heldSeats().merge(helperEventTitle(eventTitle), 1, Integer::sum);
+        return true;
+    }
+
+    /**
+     * Give a held seat of the event back. Does nothing if the event has been deleted since the seat was held.
+     * @param eventTitle the event title
+     */
+    public void releaseHeldSeat(String eventTitle){
+        Event event = eventsByTitle().get(eventTitle);
+        if (event != null){
+            heldSeats().computeIfPresent(event, (e, held) -> held > 1 ? held - 1 : null);
+        }
+    }
+
+    /**
+     * Get the number of seats of the event that are held but not confirmed
+     * @param eventTitle the event title
+     * @return the number of held seats
+     */
+    public int getHeldSeats(String eventTitle){
+        return heldSeats().getOrDefault(helperEventTitle(eventTitle), 0);
+    }
+
     /**
      * private helper method for finding corresponding Event base on eventTitle
      * Precondition: eventTitle correspond to a event in event List
@@ -306,15 +451,11 @@ public class EventManager implements Serializable {
      * @return the event that has this eventTitle
      */
     private Event helperEventTitle(String eventTitle) {
-        assert isEventExist(eventTitle);
-        for (Event event : allEvents) {
-            //issue with allEvents; Try to create a event. and Sign up that event. The error occurs here;
-            if (event.getTitle().equals(eventTitle)) {
-                return event;
-            }
+        Event event = eventsByTitle().get(eventTitle);
+        if (event == null) {
+            throw new IllegalArgumentException("eventTitle does not correspond to any event in event List");
         }
-        throw new IllegalArgumentException("eventTitle does not correspond to any event in event List");
-
+        return event;
     }
 
     /**
@@ -336,8 +477,11 @@ public class EventManager implements Serializable {
     public void addAttendee(String attendeeUserName, String eventTitle){
         Event event = helperEventTitle(eventTitle);
         List<String> currAttendee = event.getAttendeeList();
-        currAttendee.add(attendeeUserName);
+        currAttendee.add(userIds().canonical(attendeeUserName));
         event.setAttendeeList(currAttendee);
+        roster(event).add(userIds().idOf(attendeeUserName));
+        attendeeSchedule(attendeeUserName).add(event);
+        changed(event);
     }
 
     /**
@@ -350,6 +494,126 @@ public class EventManager implements Serializable {
         List<String> currAttendee = event.getAttendeeList();
         currAttendee.remove(attendeeUserName);
         event.setAttendeeList(currAttendee);
+        roster(event).remove(userIds().idOf(attendeeUserName));
+        attendeeSchedule(attendeeUserName).remove(event);
+        changed(event);
+    }
+
+    /**
+     * Add a user to the end of the waitlist of the given event
+     * @param userName the username of the user
+     * @param eventTitle the event title of the full event
+     * @param priority true iff the user should be let in before users without priority (ex. a VIP)
+     * @return true iff the user was not already on the waitlist
+     */
+    public boolean addToWaitlist(String userName, String eventTitle, boolean priority){
+        Event event = helperEventTitle(eventTitle);
+        boolean added = event.addToWaitlist(userName, priority);
+        changed(event);
+        return added;
+    }
+
+    /**
+     * Remove a user from the waitlist of the given event
+     * @param userName the username of the user
+     * @param eventTitle the event title
+     * @return true iff the user was on the waitlist
+     */
+    public boolean removeFromWaitlist(String userName, String eventTitle){
+        Event event = helperEventTitle(eventTitle);
+        boolean removed = event.removeFromWaitlist(userName);
+        changed(event);
+        return removed;
+    }
+
+    /**
+     * Returns whether or not the user is on the waitlist of the given event
+     * @param userName the username of the user
+     * @param eventTitle the event title
+     * @return true iff the user is waiting for a spot in this event
+     */
+    public boolean isWaitlisted(String userName, String eventTitle){
+        return helperEventTitle(eventTitle).isWaitlisted(userName);
+    }
+
+    /**
+     * Get the number of people on the waitlist of the given event
+     * @param eventTitle the event title
+     * @return the length of the waitlist
+     */
+    public int getWaitlistSize(String eventTitle){
+        return helperEventTitle(eventTitle).getWaitlistSize();
+    }
+
+    /**
+     * Get the waitlist of the given event, in the order people will be let in
+     * @param eventTitle the event title
+     * @return the usernames on the waitlist
+     */
+    public List<String> getWaitlist(String eventTitle){
+        return helperEventTitle(eventTitle).getWaitlist();
+    }
+
+    /**
+     * Get the users on the waitlist of the given event with or without priority
+     * @param eventTitle the event title
+     * @param priority true for the users with priority (ex. VIPs), false for everyone else
+     * @return the usernames, in the order they will be let in
+     */
+    public List<String> getWaitlist(String eventTitle, boolean priority){
+        return helperEventTitle(eventTitle).getWaitlist(priority);
+    }
+
+    /**
+     * Replace the waitlist of the given event, as read by getWaitlist(eventTitle, priority)
+     * @param eventTitle the event title
+     * @param priorityWaitlist the users with priority, in the order they will be let in
+     * @param otherWaitlist everyone else, in the order they will be let in
+     */
+    public void setWaitlist(String eventTitle, List<String> priorityWaitlist, List<String> otherWaitlist){
+        Event event = helperEventTitle(eventTitle);
+        event.setWaitlist(priorityWaitlist, otherWaitlist);
+        changed(event);
+    }
+
+    /**
+     * Move people from the waitlist into the event until it is full (held seats included) or nobody is waiting. People
+     * who have signed up for an overlapping event since they joined the waitlist are taken off it instead.
+     * @param eventTitle the event title
+     * @return the usernames of the people who got a spot, in the order they were let in
+     */
+    public List<String> promoteFromWaitlist(String eventTitle){
+        Event event = helperEventTitle(eventTitle);
+        List<String> promoted = new ArrayList<>();
+        int held = heldSeats().getOrDefault(event, 0);
+        while (event.getAttendeeList().size() + held < event.getMaxNum()){
+            String userName = event.pollWaitlist();
+            if (userName == null){
+                break;
+            }
+            if (getConflictingEvent(userName, eventTitle) != null){
+                continue;
+            }
+            event.getAttendeeList().add(userIds().canonical(userName));
+            roster(event).add(userIds().idOf(userName));
+            attendeeSchedule(userName).add(event);
+            promoted.add(userName);
+        }
+        changed(event);
+        return promoted;
+    }
+
+    /**
+     * Get the titles of the events held in the given room, ordered by start time
+     * @param roomNum the room number
+     * @return a list of event titles
+     */
+    public List<String> getRoomSchedule(String roomNum){
+        List<String> titles = new ArrayList<>();
+        for (Event event: roomSchedule(roomNum)){
+            titles.add(event.getTitle());
+        }
+        return titles;
     }
 
     /**
@@ -370,26 +634,16 @@ public class EventManager implements Serializable {
      * @return a string with the details about the event with given event title
      */
     public String getEventInfo(String eventTitle){
-        Event event = helperEventTitle(eventTitle);
-        DateTimeFormatter formatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM, FormatStyle.SHORT);
-        String startTime = event.getStartTime().format(formatter);
-        String endTime = event.getEndTime().format(formatter);
-        StringBuilder speakers = new StringBuilder();
-        for (String speaker: event.getSpeakerUserNames()){
-                speakers.append(speaker).append(" ");
-            }
-        String roomNum = event.getRoomNum();
-        String eventType = "( " + event.getEventType() + " )";
-        if(event.getVIP() & event.getEventType().equals("Party"))
-        {return eventTitle + eventType +"[VIP-only]"+ ": " + startTime + " - " + endTime + ", in Room " + roomNum +
-                ".";}
-        else if(event.getVIP() & !event.getEventType().equals("Party")){{return eventTitle + eventType +"[VIP-only]"+ ": " + startTime + " - " + endTime + ", in Room " + roomNum +
-                ". Speaker: " + speakers;}}
-        else if(!event.getVIP() & !event.getEventType().equals("Party")){return eventTitle + eventType + ": " + startTime + " - " + endTime + ", in Room " + roomNum +
-                ". Speaker: " + speakers;}
-        else{return eventTitle + eventType + ": " + startTime + " - " + endTime + ", in Room " + roomNum +
-                ". ";}
+        return getEventDisplayRow(eventTitle).getText();
+    }
 
+    /**
+     * Get the display row for the given event title. The row is made once and kept until the event changes.
+     * @param eventTitle the title for the event
+     * @return the details about the event with given event title, along with its string representation
+     */
+    public EventDisplayRow getEventDisplayRow(String eventTitle){
+        return displayRow(helperEventTitle(eventTitle));
     }
 
     /**
@@ -397,12 +651,34 @@ public class EventManager implements Serializable {
      * @return a list of all the attendee usernames for the given event title
      */
     public List<String> getAllAttendeesByTitle(String title){
-        for(Event event: allEvents) {
-            if (event.getTitle().equals(title)) {
-                return event.getAttendeeList();
-            }
-        }
-        throw new IllegalArgumentException("The given title does not correspond to any event in the event list.");
+        return helperEventTitle(title).getAttendeeList();
+    }
+
+    /**
+     * Get the start time for the given event title
+     * @param eventTitle the title for the event
+     * @return the start time of the event
+     */
+    public LocalDateTime getStartTimeByTitle(String eventTitle){
+        return helperEventTitle(eventTitle).getStartTime();
+    }
+
+    /**
+     * Get the end time for the given event title
+     * @param eventTitle the title for the event
+     * @return the end time of the event
+     */
+    public LocalDateTime getEndTimeByTitle(String eventTitle){
+        return helperEventTitle(eventTitle).getEndTime();
+    }
+
+    /**
+     * Get the room number for the given event title
+     * @param eventTitle the title for the event
+     * @return the room number the event is held in
+     */
+    public String getRoomNumByTitle(String eventTitle){
+        return helperEventTitle(eventTitle).getRoomNum();
     }
 
     /**
@@ -426,4 +702,270 @@ public class EventManager implements Serializable {
         }
         return false;
     }
+
+    /**
+     * Get the number of events that are scheduled
+     * @return the number of events
+     */
+    public int getEventCount(){
+        return allEvents.size();
+    }
+
+    /**
+     * Get the titles of the events that take place at least partly between the given times, earliest first.
+     * @param from the start of the time range
+     * @param to the end of the time range
+     * @param roomNum the room the events must be held in, or null for any room
+     * @param eventType the type the events must have ("Talk", "Panel" or "Party"), or null for any type
+     * @return the titles of the events ordered by start time
+     */
+    public List<String> getEventTitlesBetween(LocalDateTime from, LocalDateTime to, String roomNum, String eventType){
+        List<String> titles = new ArrayList<>();
+        if (!to.isAfter(from)){
+            return titles;
+        }
+        // an event starting more than the longest event length before the range cannot reach into it
+        TreeSet<Event> index = roomNum == null ? timeline() : roomSchedule(roomNum);
+        Event lower = new Event("", from.minus(longestEvent()), from, "", false, 0, Collections.emptyList());
+        Event upper = new Event("", to, to, "", false, 0, Collections.emptyList());
+        for (Event event : index.subSet(lower, true, upper, false)){
+            if (event.getEndTime().isAfter(from) && (eventType == null || event.getEventType().equals(eventType))){
+                titles.add(event.getTitle());
+            }
+        }
+        return titles;
+    }
+
+    /**
+     * Get the titles of the events that take place at least partly on the given day, earliest first.
+     * @param day the day
+     * @return the titles of the events ordered by start time
+     */
+    public List<String> getEventTitlesOnDay(LocalDate day){
+        return getEventTitlesBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), null, null);
+    }
+
+    /**
+     * Get the day the earliest event starts on, which is the first day of the conference.
+     * @return the date of the earliest event, or null if there are no events
+     */
+    public LocalDate getFirstEventDate(){
+        return timeline().isEmpty() ? null : timeline().first().getStartTime().toLocalDate();
+    }
+
+    /**
+     * Get the maximum number of people who can attend the event with the given title
+     * @return the maximum number of attendees for the given event title
+     */
+    public int getMaxNumByTitle(String eventTitle){
+        return helperEventTitle(eventTitle).getMaxNum();
+    }
+
+    /**
+     * private helper method for getting the index of events by title, building the indexes if they have not been built
+     * @return the map from event title to event
+     */
+    private Map<String, Event> eventsByTitle(){
+        if (eventsByTitle == null){
+            rebuildIndexes();
+        }
+        return eventsByTitle;
+    }
+
+    /**
+     * private helper method for getting all events ordered by start time, building the indexes if they have not been built
+     * @return the events ordered by start time
+     */
+    private TreeSet<Event> timeline(){
+        if (timeline == null){
+            rebuildIndexes();
+        }
+        return timeline;
+    }
+
+    private Duration longestEvent(){
+        if (longestEvent == null){
+            rebuildIndexes();
+        }
+        return longestEvent;
+    }
+
+    /**
+     * private helper method for getting the schedule of a room, building the indexes if they have not been built
+     * @param roomNum the room number
+     * @return the events in this room ordered by start time
+     */
+    private TreeSet<Event> roomSchedule(String roomNum){
+        if (roomSchedules == null){
+            rebuildIndexes();
+        }
+        return roomSchedules.computeIfAbsent(roomNum, r -> new TreeSet<>(BY_START_TIME));
+    }
+
+    /**
+     * private helper method for getting the schedule of a speaker, building the indexes if they have not been built
+     * @param speakerUserName the username of the speaker
+     * @return the events given by this speaker ordered by start time
+     */
+    private TreeSet<Event> speakerSchedule(String speakerUserName){
+        if (speakerSchedules == null){
+            rebuildIndexes();
+        }
+        return speakerSchedules.computeIfAbsent(speakerUserName, r -> new TreeSet<>(BY_START_TIME));
+    }
+
+    /**
+     * private helper method for getting the schedule of an attendee, building the indexes if they have not been built
+     * @param userName the username of the attendee
+     * @return the events this attendee has signed up for ordered by start time
+     */
+    private TreeSet<Event> attendeeSchedule(String userName){
+        return attendeeSchedules().computeIfAbsent(userName, r -> new TreeSet<>(BY_START_TIME));
+    }
+
+    private IdDictionary userIds(){
+        if (userIds == null){
+            rebuildIndexes();
+        }
+        return userIds;
+    }
+
+    private IntSet roster(Event event){
+        if (rosters == null){
+            rebuildIndexes();
+        }
+        return rosters.computeIfAbsent(event, e -> new IntSet());
+    }
+
+    private Map<Event, IntSet> rosters(){
+        if (rosters == null){
+            rebuildIndexes();
+        }
+        return rosters;
+    }
+
+    private Map<String, TreeSet<Event>> attendeeSchedules(){
+        if (attendeeSchedules == null){
+            rebuildIndexes();
+        }
+        return attendeeSchedules;
+    }
+
+    /**
+     * private helper method for finding an event in a schedule that overlaps the given times. Bookings that overlap each
+     * other (ex. from an imported program or an old save) are possible, so every event starting late enough to reach
+     * into the times is checked, not only the last one starting before their end.
+     * @param schedule the events ordered by start time
+     * @param start the start of the times
+     * @param end the end of the times
+     * @param ignore an event that is not counted (ex. the event the times are from), or null
+     * @return an overlapping event, or null if there is none
+     */
+    private Event helperFindOverlap(TreeSet<Event> schedule, LocalDateTime start, LocalDateTime end, Event ignore){
+        if (!start.isBefore(end)){
+            return null;
+        }
+        Event lower = new Event("", start.minus(longestEvent()), start, "", false, 0, Collections.emptyList());
+        Event upper = new Event("", end, end, "", false, 0, Collections.emptyList());
+        for (Event event : schedule.subSet(lower, true, upper, false)){
+            if (event != ignore && doTimesOverlap(event.getStartTime(), event.getEndTime(), start, end)){
+                return event;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * private helper method for finding the overlapping events in one schedule, by keeping track of the event that
+     * ends last while going through the events in order of start time
+     * @param schedule the events ordered by start time, or null for an empty schedule
+     * @return pairs of titles {earlier event, later event} of the events that overlap
+     */
+    private List<String[]> helperScheduleConflicts(TreeSet<Event> schedule){
+        List<String[]> conflicts = new ArrayList<>();
+        if (schedule == null){
+            return conflicts;
+        }
+        Event latest = null;
+        for (Event event : schedule){
+            if (latest != null && latest.getEndTime().isAfter(event.getStartTime())){
+                conflicts.add(new String[]{latest.getTitle(), event.getTitle()});
+            }
+            if (latest == null || event.getEndTime().isAfter(latest.getEndTime())){
+                latest = event;
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * private helper method for getting the display row of an event, making it if there is none
+     * @param event the event
+     * @return the display row of the event
+     */
+    private EventDisplayRow displayRow(Event event){
+        return displayRows().computeIfAbsent(event, e -> new EventDisplayRow(e.getTitle(), e.getEventType(),
+                e.getVIP(), e.getStartTime(), e.getEndTime(), e.getRoomNum(), e.getSpeakerUserNames()));
+    }
+
+    // forgets what was made for displaying the event, and tells the listeners it changed
+    private void changed(Event event){
+        displayRows().remove(event);
+        emit(DomainChange.event(event.getTitle()));
+    }
+
+    private void emit(DomainChange change){
+        if (listeners != null){
+            for (ChangeListener listener : listeners){
+                listener.changed(change);
+            }
+        }
+    }
+
+    private Map<Event, EventDisplayRow> displayRows(){
+        if (displayRows == null){
+            displayRows = new HashMap<>();
+        }
+        return displayRows;
+    }
+
+    private Map<Event, Integer> heldSeats(){
+        if (heldSeats == null){
+            heldSeats = new HashMap<>();
+        }
+        return heldSeats;
+    }
+
+    private void rebuildIndexes(){
+        eventsByTitle = new HashMap<>();
+        timeline = new TreeSet<>(BY_START_TIME);
+        longestEvent = Duration.ZERO;
+        roomSchedules = new HashMap<>();
+        speakerSchedules = new HashMap<>();
+        attendeeSchedules = new HashMap<>();
+        if (userIds == null){
+            userIds = new IdDictionary();
+        }
+        rosters = new HashMap<>();
+        for (Event event: allEvents){
+            indexEvent(event);
+        }
+    }
+
+    private void indexEvent(Event event){
+        eventsByTitle().put(event.getTitle(), event);
+        timeline().add(event);
+        Duration length = Duration.between(event.getStartTime(), event.getEndTime());
+        if (length.compareTo(longestEvent()) > 0){
+            longestEvent = length;
+        }
+        roomSchedule(event.getRoomNum()).add(event);
+        for (String speaker : event.getSpeakerUserNames()){
+            speakerSchedule(speaker).add(event);
+        }
+        for (String attendee : event.getAttendeeList()){
+            attendeeSchedule(attendee).add(event);
+            roster(event).add(userIds().intern(attendee));
+        }
+    }
 }
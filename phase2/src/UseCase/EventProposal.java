@@ -0,0 +1,168 @@
+package UseCase;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A candidate event whose dates and times have been parsed once from the strings the organizer entered.
+ * <p>
+ * If a date or time could not be parsed, the matching isValid method returns false and the start or end time is null.
+ */
+public class EventProposal {
+    private final boolean VIP;
+    private final String title;
+    private final String roomNum;
+    private final int maxNum;
+    private final List<String> speakerUserNames;
+    private final boolean startDateValid;
+    private final boolean endDateValid;
+    private final boolean startTimeValid;
+    private final boolean endTimeValid;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+
+    private EventProposal(boolean VIP, String title, String roomNum, int maxNum, List<String> speakerUserNames,
+                          LocalDate startDate, LocalDate endDate, LocalTime startTime, LocalTime endTime) {
+        this.VIP = VIP;
+        this.title = title;
+        this.roomNum = roomNum;
+        this.maxNum = maxNum;
+        this.speakerUserNames = new ArrayList<>(speakerUserNames);
+        this.startDateValid = startDate != null;
+        this.endDateValid = endDate != null;
+        this.startTimeValid = startTime != null;
+        this.endTimeValid = endTime != null;
+        this.startTime = startDate != null && startTime != null ? LocalDateTime.of(startDate, startTime) : null;
+        this.endTime = endDate != null && endTime != null ? LocalDateTime.of(endDate, endTime) : null;
+    }
+
+    /**
+     * Parse the strings entered for a new event into a proposal
+     * @param VIP whether or not the event is VIP
+     * @param title the title for the event
+     * @param startDate the start date for the event (YYYYMMDD)
+     * @param endDate the end date for the event (YYYYMMDD)
+     * @param startTime the start time for the event (HH:mm:ss)
+     * @param endTime the end time for the event (HH:mm:ss)
+     * @param rmNum the room number for the event
+     * @param maxNum the maximum number of people that can attend this event
+     * @param speakerUserNames the list of speaker usernames for this event
+     * @return the parsed proposal
+     */
+    public static EventProposal parse(boolean VIP, String title, String startDate, String endDate, String startTime,
+                                      String endTime, String rmNum, int maxNum, List<String> speakerUserNames) {
+        return new EventProposal(VIP, title, rmNum, maxNum, speakerUserNames, parseDate(startDate), parseDate(endDate),
+                parseTime(startTime), parseTime(endTime));
+    }
+
+    /**
+     * Create a proposal from times that have already been parsed
+     * @param VIP whether or not the event is VIP
+     * @param title the title for the event
+     * @param startTime the start time for the event
+     * @param endTime the end time for the event
+     * @param rmNum the room number for the event
+     * @param maxNum the maximum number of people that can attend this event
+     * @param speakerUserNames the list of speaker usernames for this event
+     * @return the proposal
+     */
+    public static EventProposal of(boolean VIP, String title, LocalDateTime startTime, LocalDateTime endTime,
+                                   String rmNum, int maxNum, List<String> speakerUserNames) {
+        return new EventProposal(VIP, title, rmNum, maxNum, speakerUserNames, startTime.toLocalDate(),
+                endTime.toLocalDate(), startTime.toLocalTime(), endTime.toLocalTime());
+    }
+
+    /**
+     * Getter for the type of the event.
+     * @return true iff this is a VIP event.
+     */
+    public boolean getVIP() { return VIP; }
+
+    /**
+     * Getter for the title of the event
+     * @return the title of the event
+     */
+    public String getTitle() { return title; }
+
+    /**
+     * Getter for the room number of the event
+     * @return the room number of the event
+     */
+    public String getRoomNum() { return roomNum; }
+
+    /**
+     * Getter for the maximum number of people who can attend this event.
+     * @return the maximum number of people who can attend this event.
+     */
+    public int getMaxNum() { return maxNum; }
+
+    /**
+     * Getter for the speaker usernames of this event
+     * @return the speaker usernames of this event
+     */
+    public List<String> getSpeakerUserNames() { return Collections.unmodifiableList(speakerUserNames); }
+
+    /**
+     * Getter for the start time of the event
+     * @return the start time, or null if the start date or time could not be parsed
+     */
+    public LocalDateTime getStartTime() { return startTime; }
+
+    /**
+     * Getter for the end time of the event
+     * @return the end time, or null if the end date or time could not be parsed
+     */
+    public LocalDateTime getEndTime() { return endTime; }
+
+    /**
+     * @return true iff the start date is a valid date written in the form "YYYYMMDD"
+     */
+    public boolean isStartDateValid() { return startDateValid; }
+
+    /**
+     * @return true iff the end date is a valid date written in the form "YYYYMMDD"
+     */
+    public boolean isEndDateValid() { return endDateValid; }
+
+    /**
+     * @return true iff the start time is a valid time written in the form "HH:MM:SS"
+     */
+    public boolean isStartTimeValid() { return startTimeValid; }
+
+    /**
+     * @return true iff the end time is a valid time written in the form "HH:MM:SS"
+     */
+    public boolean isEndTimeValid() { return endTimeValid; }
+
+    /**
+     * @return true iff both times were parsed and the end time is after the start time
+     */
+    public boolean isTimeValid() {
+        return startTime != null && endTime != null && endTime.isAfter(startTime);
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date, DateTimeFormatter.BASIC_ISO_DATE);
+        } catch (DateTimeParseException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    private static LocalTime parseTime(String time) {
+        try {
+            return LocalTime.parse(time);
+        } catch (DateTimeParseException | NullPointerException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package UseCase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The graph of who has added whom as a friend. Each username has an int id from the IdDictionary shared with the rest
+ * of UseCase, and each user has an IntSet of the ids of the users they have added, so checking whether one user has added another takes constant time and never
+ * compares strings.
+ * <p>
+ * Friendship is one-way, as in the rest of the program: a user can message the users they have added.
+ */
+public class FriendGraph {
+    private static final IntSet EMPTY = new IntSet();
+
+    private final IdDictionary userIds;
+    private final List<IntSet> friends;     // the friends of the user with id i are at index i
+
+    /**
+     * Create an empty friend graph
+     * @param userIds the ids of all users, which are also used by UserManager and EventManager
+     */
+    public FriendGraph(IdDictionary userIds) {
+        this.userIds = userIds;
+        friends = new ArrayList<>();
+    }
+
+    /**
+     * Record that one user has added another as a friend
+     * @param userName the user adding the friend
+     * @param friendName the user being added
+     * @return true iff the friend was not already added
+     */
+    public boolean addFriend(String userName, String friendName) {
+        int friendId = id(friendName);
+        return friends.get(id(userName)).add(friendId);
+    }
+
+    /**
+     * Check whether one user has added another as a friend
+     * @param userName the user
+     * @param friendName the possible friend
+     * @return true iff userName has added friendName
+     */
+    public boolean isFriend(String userName, String friendName) {
+        return friendsOf(userName).contains(userIds.idOf(friendName));
+    }
+
+    /**
+     * Get the users a user has added as friends
+     * @param userName the user
+     * @return the usernames of the user's friends, in the order they got their ids
+     */
+    public List<String> getFriends(String userName) {
+        return names(friendsOf(userName).toArray());
+    }
+
+    /**
+     * Get the users both users have added as friends
+     * @param userNameA the first user
+     * @param userNameB the second user
+     * @return the usernames of the friends they have in common
+     */
+    public List<String> getMutualFriends(String userNameA, String userNameB) {
+        IntSet friendsA = friendsOf(userNameA);
+        IntSet friendsB = friendsOf(userNameB);
+        // go through the smaller set and look each friend up in the larger one
+        if (friendsA.size() > friendsB.size()) {
+            IntSet swap = friendsA;
+            friendsA = friendsB;
+            friendsB = swap;
+        }
+        IntSet larger = friendsB;
+        List<String> mutual = new ArrayList<>();
+        friendsA.forEach(id -> {
+            if (larger.contains(id)) {
+                mutual.add(userIds.nameOf(id));
+            }
+        });
+        Collections.sort(mutual);
+        return mutual;
+    }
+
+    /**
+     * Get the friends of a user among the given users (ex. the attendees of an event)
+     * @param userName the user
+     * @param userNames the users to look through
+     * @return the usernames in userNames the user has added as friends, in the same order
+     */
+    public List<String> getFriendsAmong(String userName, Collection<String> userNames) {
+        IntSet userFriends = friendsOf(userName);
+        List<String> found = new ArrayList<>();
+        for (String other : userNames) {
+            if (userFriends.contains(userIds.idOf(other))) {
+                found.add(other);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Suggest friends for a user: the users they have not added yet who are in the most groups with them
+     * @param userName the user
+     * @param groups the groups the user is in (ex. the attendees of each event the user attends)
+     * @param limit the most suggestions to return
+     * @return the suggested usernames, the ones sharing the most groups first
+     */
+    public List<String> suggestFriends(String userName, Collection<? extends Collection<String>> groups, int limit) {
+        IntSet userFriends = friendsOf(userName);
+        Map<String, Integer> shared = new HashMap<>();
+        for (Collection<String> group : groups) {
+            for (String other : group) {
+                if (!other.equals(userName) && !userFriends.contains(userIds.idOf(other))) {
+                    shared.merge(other, 1, Integer::sum);
+                }
+            }
+        }
+        List<String> suggestions = new ArrayList<>(shared.keySet());
+        suggestions.sort((a, b) -> shared.get(a).equals(shared.get(b)) ? a.compareTo(b)
+                : Integer.compare(shared.get(b), shared.get(a)));
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private int id(String userName) {
+        int id = userIds.intern(userName);
+        // the ids are shared, so ids given out elsewhere may be skipped over here
+        while (friends.size() <= id) {
+            friends.add(null);
+        }
+        if (friends.get(id) == null) {
+            friends.set(id, new IntSet());
+        }
+        return id;
+    }
+
+    private IntSet friendsOf(String userName) {
+        int id = userIds.idOf(userName);
+        return id < 0 || id >= friends.size() || friends.get(id) == null ? EMPTY : friends.get(id);
+    }
+
+    private List<String> names(int[] ids) {
+        List<String> names = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            names.add(userIds.nameOf(id));
+        }
+        return names;
+    }
+}
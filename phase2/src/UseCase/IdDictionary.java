@@ -0,0 +1,77 @@
+package UseCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives each name (ex. a username or an event title) a dense int id, starting at 0 in the order the names are first
+ * seen, so relations between names can be kept as primitive int sets.
+ * <p>
+ * The dictionary also keeps one String instance per name. Storing that instance everywhere the name is used, instead
+ * of the copies read from text fields or files, keeps each name in memory (and in a saved conference) only once.
+ */
+public class IdDictionary {
+    private final Map<String, Integer> ids;
+    private final List<String> names;
+
+    /**
+     * Create an empty dictionary
+     */
+    public IdDictionary() {
+        ids = new HashMap<>();
+        names = new ArrayList<>();
+    }
+
+    /**
+     * Get the id of a name, giving it the next id if it has none yet
+     * @param name the name
+     * @return the id of the name
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    /**
+     * Get the id of a name without giving it one
+     * @param name the name
+     * @return the id of the name, or -1 if it has none
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Get the name with the given id
+     * @param id the id
+     * @return the name, as the one instance kept by the dictionary
+     */
+    public String nameOf(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * Get the one instance of a name kept by the dictionary, giving the name an id if it has none yet
+     * @param name the name
+     * @return an equal String that is shared by every user of this dictionary
+     */
+    public String canonical(String name) {
+        return names.get(intern(name));
+    }
+
+    /**
+     * Get the number of names with ids, which is also the smallest id not given out yet
+     * @return the number of names
+     */
+    public int size() {
+        return names.size();
+    }
+}
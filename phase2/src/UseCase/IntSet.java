@@ -0,0 +1,140 @@
+package UseCase;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of non-negative ints kept in one int array with open addressing, so adding, removing and checking an id never
+ * boxes it or allocates a node.
+ */
+public class IntSet {
+    private static final int EMPTY = -1;
+
+    private int[] slots;
+    private int size;
+
+    /**
+     * Create an empty set
+     */
+    public IntSet() {
+        slots = new int[8];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    /**
+     * Add an id to the set
+     * @param id the id, which must not be negative
+     * @return true iff the id was not already in the set
+     */
+    public boolean add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Ids should not be negative.");
+        }
+        int slot = find(id);
+        if (slots[slot] == id) {
+            return false;
+        }
+        slots[slot] = id;
+        if (++size * 2 > slots.length) {
+            resize(slots.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Check whether an id is in the set
+     * @param id the id
+     * @return true iff the id is in the set
+     */
+    public boolean contains(int id) {
+        return id >= 0 && slots[find(id)] == id;
+    }
+
+    /**
+     * Remove an id from the set
+     * @param id the id
+     * @return true iff the id was in the set
+     */
+    public boolean remove(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int slot = find(id);
+        if (slots[slot] != id) {
+            return false;
+        }
+        slots[slot] = EMPTY;
+        size--;
+        // move the ids after the removed one back, so no probe sequence has a gap in it
+        int mask = slots.length - 1;
+        int next = (slot + 1) & mask;
+        while (slots[next] != EMPTY) {
+            int moved = slots[next];
+            slots[next] = EMPTY;
+            slots[find(moved)] = moved;
+            next = (next + 1) & mask;
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of ids in the set
+     * @return the size of the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Call the action with every id in the set, in no particular order
+     * @param action the action
+     */
+    public void forEach(IntConsumer action) {
+        for (int id : slots) {
+            if (id != EMPTY) {
+                action.accept(id);
+            }
+        }
+    }
+
+    /**
+     * Get the ids in the set
+     * @return the ids in increasing order
+     */
+    public int[] toArray() {
+        int[] ids = new int[size];
+        int i = 0;
+        for (int id : slots) {
+            if (id != EMPTY) {
+                ids[i++] = id;
+            }
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    // the slot holding the id, or the empty slot where it would go
+    private int find(int id) {
+        int mask = slots.length - 1;
+        int hash = id * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (slots[slot] != EMPTY && slots[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        int[] old = slots;
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        for (int id : old) {
+            if (id != EMPTY) {
+                slots[find(id)] = id;
+            }
+        }
+    }
+}
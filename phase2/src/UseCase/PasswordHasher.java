@@ -0,0 +1,245 @@
+package UseCase;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Hashes and checks passwords with salted PBKDF2 (HMAC-SHA256), so passwords are never stored as they were typed.
+ * <p>
+ * A stored password looks like "pbkdf2-sha256$iterations$salt$hash". The number of iterations is the cost: each one
+ * makes a hash take longer to compute, for logging in and for guessing alike. It can be changed at any time; passwords
+ * hashed at another cost still work, and needsRehash tells when one should be hashed again. Passwords from saves made
+ * before hashing are plain text, and are still accepted until they are hashed.
+ * <p>
+ * Hashing is slow on purpose, so it runs on a small pool with one thread per core and a bounded queue rather than on
+ * the threads handling requests. When the queue is full, the work is rejected right away with a
+ * RejectedExecutionException instead of piling up.
+ */
+public class PasswordHasher {
+    /**
+     * The number of iterations used unless set otherwise
+     */
+    public static final int DEFAULT_ITERATIONS = 600_000;
+
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int QUEUE_PER_THREAD = 8;
+
+    private final SecureRandom random;
+    private final ThreadPoolExecutor pool;
+    private volatile int iterations;
+
+    /**
+     * Create a password hasher with one thread per core
+     * @param iterations the cost of new hashes
+     */
+    public PasswordHasher(int iterations) {
+        this(iterations, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a password hasher
+     * @param iterations the cost of new hashes
+     * @param threads the number of passwords hashed at the same time
+     */
+    public PasswordHasher(int iterations, int threads) {
+        setIterations(iterations);
+        this.random = new SecureRandom();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD), task -> {
+                    Thread thread = new Thread(task, "password-hasher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Get the cost of new hashes
+     * @return the number of iterations
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Set the cost of new hashes
+     * @param iterations the number of iterations, at least 1
+     */
+    public void setIterations(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Uh-oh! The cost must be at least 1 iteration.");
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Hash a password with a new salt, on the calling thread
+     * @param password the password
+     * @return the stored form of the password
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        int cost = iterations;
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + cost + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(derive(password, salt, cost));
+    }
+
+    /**
+     * Check a password against its stored form, on the calling thread
+     * @param password the password that was entered
+     * @param stored the stored form of the password (or the password itself, from a save made before hashing)
+     * @return true iff the password matches
+     */
+    public boolean verify(String password, String stored) {
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[3]);
+            return MessageDigest.isEqual(derive(password, decoder.decode(parts[2]), Integer.parseInt(parts[1])),
+                    expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check whether a stored password should be hashed again, because it is plain text or has another cost
+     * @param stored the stored form of the password
+     * @return true iff it should be hashed again the next time the password is known
+     */
+    public boolean needsRehash(String stored) {
+        return !isHashed(stored) || !stored.startsWith(PREFIX + "$" + iterations + "$");
+    }
+
+    /**
+     * Check whether a stored password has been hashed
+     * @param stored the stored form of the password
+     * @return false iff it is plain text (from a save made before hashing)
+     */
+    public static boolean isHashed(String stored) {
+        return stored.startsWith(PREFIX + "$");
+    }
+
+    /**
+     * Check whether a hash from outside the program (ex. an imported file) can be stored as it is: it has the form of
+     * a hash, and costs no more to check than the hashes made here
+     * @param stored the hash
+     * @return true iff it can be stored
+     */
+    public boolean isValidHash(String stored) {
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4 || !parts[0].equals(PREFIX)) {
+            return false;
+        }
+        try {
+            int cost = Integer.parseInt(parts[1]);
+            Base64.Decoder decoder = Base64.getDecoder();
+            return cost >= 1 && cost <= Math.max(iterations, DEFAULT_ITERATIONS)
+                    && decoder.decode(parts[2]).length == SALT_BYTES && decoder.decode(parts[3]).length * 8 == HASH_BITS;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run hashing work on the pool and wait for it
+     * @param work the work
+     * @param <T> the type of the result
+     * @return the result of the work
+     * @throws RejectedExecutionException if the pool is too busy to take the work
+     */
+    public <T> T submit(Callable<T> work) {
+        return await(pool.submit(work));
+    }
+
+    /**
+     * Hash many passwords, spread over the pool; work the pool is too busy for is done on the calling thread
+     * @param passwords the passwords
+     * @return their stored forms, in the same order
+     */
+    public List<String> hashAll(List<String> passwords) {
+        String[] hashes = new String[passwords.size()];
+        int chunks = Math.min(pool.getMaximumPoolSize(), passwords.size());
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            int from = c * passwords.size() / chunks;
+            int to = (c + 1) * passwords.size() / chunks;
+            Runnable chunk = () -> {
+                for (int i = from; i < to; i++) {
+                    hashes[i] = hash(passwords.get(i));
+                }
+            };
+            try {
+                futures.add(pool.submit(chunk));
+            } catch (RejectedExecutionException e) {
+                chunk.run();
+            }
+        }
+        for (Future<?> future : futures) {
+            await(future);
+        }
+        return Arrays.asList(hashes);
+    }
+
+    /**
+     * Stop the pool once this hasher is no longer used
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Uh-oh! PBKDF2 is not available.", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Uh-oh! Interrupted while hashing a password.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+}
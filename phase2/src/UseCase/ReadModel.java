@@ -0,0 +1,342 @@
+package UseCase;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copies of what the dashboard screens show, kept up to date as the managers change, so the screens are read without
+ * computing anything from the managers: the list of all events, each user's agenda, each user's chat list (with the
+ * chat names and unread counts) and the request board.
+ * <p>
+ * The read model listens to the managers and, for each change, reads again only the rows the change is about (ex. one
+ * event, or one chat for each of its members). Reading a screen takes time in the size of the screen. Changes are
+ * applied on the thread that makes them, but every copy is held in a concurrent map of rows that are never changed in
+ * place, so the screens can be read from any thread at the same time without holding the transaction lock. A reader
+ * may see a transaction's changes before it finishes (or before it is rolled back, which is a change of its own).
+ * <p>
+ * The list of all events and the request board can also be read a page at a time (ex. by a list that only shows the
+ * rows scrolled to). Pages are cut from an array of the rows that is made the first time a page is read after a
+ * change, so reading a page takes time in the size of the page.
+ */
+public class ReadModel implements ChangeListener {
+    private final EventManager em;
+    private final UserManager um;
+    private final ChatManager cm;
+    private final RequestManager rm;
+    private final ConcurrentNavigableMap<EventKey, String> events;     // event info ordered by start time
+    private final Map<String, EventKey> eventKeys;                      // maps event title to its key in events
+    private final Map<String, Agenda> agendas;                          // maps username to their agenda
+    private final Map<String, Map<UUID, ChatRow>> chatLists;            // maps username to their chats
+    private final ConcurrentNavigableMap<Integer, String> requests;    // request info ordered by request number
+    private final AtomicInteger eventVersion;                           // counts the changes to events
+    private final AtomicInteger requestVersion;                         // counts the changes to requests
+    private volatile Snapshot eventSnapshot;                            // events as an array, for paging
+    private volatile Snapshot requestSnapshot;                          // requests as an array, for paging
+
+    /**
+     * Build the read model from the managers and start listening to them
+     * @param em the EventManager
+     * @param um the UserManager
+     * @param cm the ChatManager
+     * @param rm the RequestManager
+     */
+    public ReadModel(EventManager em, UserManager um, ChatManager cm, RequestManager rm) {
+        this.em = em;
+        this.um = um;
+        this.cm = cm;
+        this.rm = rm;
+        this.events = new ConcurrentSkipListMap<>();
+        this.eventKeys = new ConcurrentHashMap<>();
+        this.agendas = new ConcurrentHashMap<>();
+        this.chatLists = new ConcurrentHashMap<>();
+        this.requests = new ConcurrentSkipListMap<>();
+        this.eventVersion = new AtomicInteger();
+        this.requestVersion = new AtomicInteger();
+        rebuild();
+        em.addChangeListener(this);
+        um.addChangeListener(this);
+        cm.addChangeListener(this);
+        rm.addChangeListener(this);
+    }
+
+    /**
+     * Build every copy again from the managers (ex. after they have been repaired)
+     */
+    public void rebuild() {
+        events.clear();
+        eventKeys.clear();
+        for (String title : em.getAllEventTitle()) {
+            refreshEvent(title);
+        }
+        agendas.clear();
+        IdDictionary userIds = um.getUserIds();
+        for (int id = 0; id < userIds.size(); id++) {
+            refreshAgenda(userIds.nameOf(id));
+        }
+        chatLists.clear();
+        for (UUID chatId : cm.getAllChatIds()) {
+            refreshChat(chatId, null);
+        }
+        requests.clear();
+        for (int requestNum : rm.allRequestNum()) {
+            requests.put(requestNum, rm.requestInfo(requestNum));
+        }
+        eventVersion.incrementAndGet();
+        requestVersion.incrementAndGet();
+    }
+
+    @Override
+    public void changed(DomainChange change) {
+        switch (change.getSubject()) {
+            case EVENT:
+                refreshEvent(change.getTitle());
+                break;
+            case USER:
+                refreshAgenda(change.getUsername());
+                break;
+            case CHAT:
+                refreshChat(change.getChatId(), change.getUsername());
+                break;
+            case REQUEST:
+                requests.put(change.getRequestNum(), rm.requestInfo(change.getRequestNum()));
+                requestVersion.incrementAndGet();
+                break;
+        }
+    }
+
+    /**
+     * Get the string representation of every event
+     * @return the event info, earliest first
+     */
+    public String[] getAllEventInfo() {
+        return events.values().toArray(new String[0]);
+    }
+
+    /**
+     * Get the number of events
+     * @return the number of events
+     */
+    public int getEventCount() {
+        return events.size();
+    }
+
+    /**
+     * Get one page of the events
+     * @param page the page number, starting at 0
+     * @param pageSize the number of events on a page
+     * @return the event info of the events on the page, earliest first (empty if the page is past the last event)
+     */
+    public String[] getEventInfoPage(int page, int pageSize) {
+        eventSnapshot = current(eventSnapshot, eventVersion, events);
+        return eventSnapshot.page(page, pageSize);
+    }
+
+    /**
+     * Get a user's agenda
+     * @param username the username of the user
+     * @return the titles of the events a speaker speaks at, or the info of the events anyone else has signed up for
+     */
+    public String[] getAgenda(String username) {
+        Agenda agenda = agendas.get(username);
+        if (agenda == null) {
+            return new String[0];
+        }
+        if (agenda.speaker) {
+            return agenda.titles.toArray(new String[0]);
+        }
+        List<String> info = new ArrayList<>(agenda.titles.size());
+        for (String title : agenda.titles) {
+            EventKey key = eventKeys.get(title);
+            String row = key == null ? null : events.get(key);
+            if (row != null) {
+                info.add(row);
+            }
+        }
+        return info.toArray(new String[0]);
+    }
+
+    /**
+     * Get a user's current chats: the ones they have not archived, and the archived ones with new messages
+     * @param username the username of the user
+     * @return rows of [chatHandle, chatName, number of unread messages]
+     */
+    public String[][] getChats(String username) {
+        Map<UUID, ChatRow> chats = chatLists.getOrDefault(username, Collections.emptyMap());
+        List<String[]> rows = new ArrayList<>(chats.size());
+        for (ChatRow chat : chats.values()) {
+            if (!chat.archived || chat.unread > 0) {
+                rows.add(new String[]{chat.handle, chat.name, String.valueOf(chat.unread)});
+            }
+        }
+        return rows.toArray(new String[0][]);
+    }
+
+    /**
+     * Get the request board
+     * @return the request info of every request, in the order they were sent
+     */
+    public String[] getRequestBoard() {
+        return requests.values().toArray(new String[0]);
+    }
+
+    /**
+     * Get the number of requests
+     * @return the number of requests
+     */
+    public int getRequestCount() {
+        return requests.size();
+    }
+
+    /**
+     * Get one page of the request board
+     * @param page the page number, starting at 0
+     * @param pageSize the number of requests on a page
+     * @return the request info of the requests on the page, in the order they were sent (empty if the page is past the
+     * last request)
+     */
+    public String[] getRequestPage(int page, int pageSize) {
+        requestSnapshot = current(requestSnapshot, requestVersion, requests);
+        return requestSnapshot.page(page, pageSize);
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private static class EventKey implements Comparable<EventKey> {
+        private final LocalDateTime start;
+        private final String title;
+
+        private EventKey(LocalDateTime start, String title) {
+            this.start = start;
+            this.title = title;
+        }
+
+        @Override
+        public int compareTo(EventKey other) {
+            int byStart = start.compareTo(other.start);
+            return byStart != 0 ? byStart : title.compareTo(other.title);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EventKey && start.equals(((EventKey) o).start) && title.equals(((EventKey) o).title);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, title);
+        }
+    }
+
+    // the rows of a copy as an array, as of one version of the copy
+    private static class Snapshot {
+        private final int version;
+        private final String[] rows;
+
+        private Snapshot(int version, String[] rows) {
+            this.version = version;
+            this.rows = rows;
+        }
+
+        private String[] page(int page, int pageSize) {
+            if (page < 0 || pageSize <= 0 || (long) page * pageSize >= rows.length) {
+                return new String[0];
+            }
+            int from = page * pageSize;
+            return Arrays.copyOfRange(rows, from, Math.min(rows.length, from + pageSize));
+        }
+    }
+
+    // versions count up after each change is applied and are read before the rows, so a snapshot that may have missed a
+    // change is made again on the next read
+    private static Snapshot current(Snapshot snapshot, AtomicInteger version, Map<?, String> rows) {
+        int now = version.get();
+        if (snapshot != null && snapshot.version == now) {
+            return snapshot;
+        }
+        return new Snapshot(now, rows.values().toArray(new String[0]));
+    }
+
+    private static class Agenda {
+        private final boolean speaker;
+        private final List<String> titles;
+
+        private Agenda(boolean speaker, List<String> titles) {
+            this.speaker = speaker;
+            this.titles = titles;
+        }
+    }
+
+    private static class ChatRow {
+        private final String handle;
+        private final String name;
+        private final int unread;
+        private final boolean archived;
+
+        private ChatRow(String handle, String name, int unread, boolean archived) {
+            this.handle = handle;
+            this.name = name;
+            this.unread = unread;
+            this.archived = archived;
+        }
+    }
+
+    // the new row goes in before the old one comes out, so a reader never misses an event that is only changing
+    private void refreshEvent(String title) {
+        EventKey old = eventKeys.get(title);
+        if (em.isEventExist(title)) {
+            EventKey key = new EventKey(em.getStartTimeByTitle(title), title);
+            events.put(key, em.getEventInfo(title));
+            eventKeys.put(title, key);
+            if (old != null && !old.equals(key)) {
+                events.remove(old);
+            }
+        } else if (old != null) {
+            eventKeys.remove(title);
+            events.remove(old);
+        }
+        eventVersion.incrementAndGet();
+    }
+
+    private void refreshAgenda(String username) {
+        String type = um.userType(username);
+        if (type.equals("Speaker")) {
+            agendas.put(username, new Agenda(true, new ArrayList<>(um.getEventsSpeaking(username))));
+        } else if (type.equals("Attendee") || type.equals("Organizer")) {
+            agendas.put(username, new Agenda(false, new ArrayList<>(um.getEventAttending(username))));
+        } else {
+            agendas.remove(username);
+        }
+    }
+
+    // reads the chat again for one member, or for all of them if username is null
+    private void refreshChat(UUID chatId, String username) {
+        List<String> members = cm.getChatMemberUsernames(chatId);
+        for (String member : members) {
+            if (username == null || username.equals(member)) {
+                ChatRow row = new ChatRow(chatId.toString(), chatName(chatId, member, members),
+                        cm.getNewMessages(member, chatId, true).size(), cm.isChatArchived(member, chatId));
+                // each member's map is updated in place, so a message to a chat does not copy all of the member's chats
+                chatLists.computeIfAbsent(member, m -> new ConcurrentHashMap<>()).put(chatId, row);
+            }
+        }
+    }
+
+    // two person chats are named after the other person
+    private String chatName(UUID chatId, String username, List<String> members) {
+        if (members.size() == 2) {
+            return members.get(0).equals(username) ? members.get(1) : members.get(0);
+        }
+        return cm.getChatName(chatId);
+    }
+}
@@ -3,6 +3,7 @@ package UseCase;
 import Entities.Request;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,7 +12,9 @@ import java.util.List;
  * @author Xinyi Chen and Xinpeng Shan
  */
 public class RequestManager implements Serializable {
+    private static final long serialVersionUID = 1444523641762793755L;
     private final List<Request> allRequests;
+    private transient List<ChangeListener> listeners;  // told about every change; not saved
 
     /**
      * Initialize a new RequestManager
@@ -25,12 +28,27 @@ public class RequestManager implements Serializable {
      *
      * @param senderUserName the sender's username
      * @param content the content of the request
+     * @return the request number of the new request
      */
-    public void createRequest(String senderUserName, String content){
+    public int createRequest(String senderUserName, String content){
         List<Integer> allRequestNum= allRequestNum();
         int newRequestNum = allRequestNum.size() + 1;
-        Request request = new Request(newRequestNum, senderUserName, content);
+        Request request = new Request(newRequestNum, senderUserName, content, LocalDateTime.now());
         allRequests.add(request);
+        emit(DomainChange.request(newRequestNum));
+        return newRequestNum;
+    }
+
+    /**
+     * Tell a listener about every change to the requests from now on (ex. a ReadModel). Listeners are not saved.
+     *
+     * @param listener the listener
+     */
+    public void addChangeListener(ChangeListener listener){
+        if (listeners == null){
+            listeners = new ArrayList<>();
+        }
+        listeners.add(listener);
     }
 
     /**
@@ -42,6 +60,7 @@ public class RequestManager implements Serializable {
         for(Request request: allRequests ){
             if(request.getRequestNum().equals(requestNum)){
                 request.setStatusAddressed();
+                emit(DomainChange.request(requestNum));
             }
         }
     }
@@ -55,6 +74,7 @@ public class RequestManager implements Serializable {
         for(Request request: allRequests ){
             if(request.getRequestNum().equals(requestNum)){
                 request.setStatusPending();
+                emit(DomainChange.request(requestNum));
             }
         }
     }
@@ -86,6 +106,87 @@ public class RequestManager implements Serializable {
         return requestNumList;
     }
 
+    /**
+     * Get the request numbers of all requests that are still pending
+     *
+     * @return a list of request numbers of pending requests, in the order they were sent
+     */
+    public List<Integer> pendingRequestNum() {
+        List<Integer> requestNumList = new ArrayList<>();
+        for(Request request: allRequests){
+            if(!request.getStatus()){
+                requestNumList.add(request.getRequestNum());
+            }
+        }
+        return requestNumList;
+    }
+
+    /**
+     * Get the sender of a request
+     * PRECONDITION : the request number is valid
+     *
+     * @param requestNum the request number of the request
+     * @return the username of the sender of the request
+     */
+    public String getRequestSender(Integer requestNum){
+        return helperRequestNum(requestNum).getSenderUsername();
+    }
+
+    /**
+     * Get the content of a request
+     * PRECONDITION : the request number is valid
+     *
+     * @param requestNum the request number of the request
+     * @return the content of the request
+     */
+    public String getRequestContent(Integer requestNum){
+        return helperRequestNum(requestNum).getContent();
+    }
+
+    /**
+     * Get the time a request was sent
+     * PRECONDITION : the request number is valid
+     *
+     * @param requestNum the request number of the request
+     * @return the time the request was sent, or null if the request predates time stamps
+     */
+    public LocalDateTime getRequestTime(Integer requestNum){
+        return helperRequestNum(requestNum).getTimeCreated();
+    }
+
+    /**
+     * Get the request info of one request
+     * PRECONDITION : the request number is valid
+     *
+     * @param requestNum the request number of the request
+     * @return the string description of the request
+     */
+    public String requestInfo(Integer requestNum){
+        return getRequestInfo(helperRequestNum(requestNum));
+    }
+
+    /**
+     * Private helper method for finding the Request with the given request number.
+     * Request numbers are assigned consecutively from 1, so the request sits at index requestNum - 1.
+     *
+     * @param requestNum the request number of the request
+     * @return the Request with this request number
+     */
+    private Request helperRequestNum(Integer requestNum){
+        if (!isRequestNumValid(requestNum)){
+            throw new IllegalArgumentException("requestNum does not correspond to any request in request List");
+        }
+        return allRequests.get(requestNum - 1);
+    }
+
+    private void emit(DomainChange change){
+        if (listeners != null){
+            for (ChangeListener listener : listeners){
+                listener.changed(change);
+            }
+        }
+    }
+
     /**
      * Private helper method to get the request info of a request
      *
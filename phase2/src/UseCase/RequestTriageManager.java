@@ -0,0 +1,319 @@
+package UseCase;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Keeps the pending requests in priority order so a team of organizers can each claim the next request to handle.
+ * <p>
+ * A request's priority is its base score (VIP sender, keyword categories) plus a bonus that grows with the time it has
+ * been waiting. Since every request ages at the same rate, the order of two requests never changes as time passes, so
+ * the queue is ordered by the fixed key (base score - aging rate * time sent) and never has to be re-sorted.
+ * <p>
+ * Claimed requests are leased to one organizer; a lease that is not completed, released or renewed before it expires
+ * puts the request back in the queue. All methods are synchronized so organizers can drain the queue concurrently.
+ * The queue is not saved with the conference; it is rebuilt from the pending requests in RequestManager.
+ */
+public class RequestTriageManager {
+    private static final int VIP_SCORE = 20;
+    private static final double DEFAULT_AGING_PER_MINUTE = 0.5;
+    private static final Duration DEFAULT_LEASE = Duration.ofMinutes(15);
+
+    private final TreeSet<TriageEntry> queue;              // unclaimed requests, highest priority first
+    private final Map<Integer, TriageEntry> queuedEntries; // maps request number to its entry in queue
+    private final Map<Integer, Lease> leases;              // maps request number to its current lease
+    private final PriorityQueue<Lease> leaseExpiries;      // all leases handed out, earliest expiry first
+    private final Map<String, Integer> categoryScores;     // maps category name to its score
+    private final Map<String, String> keywordCategories;   // maps a lower case keyword to its category
+    private final double agingPerMinute;
+    private final Duration leaseDuration;
+    private final LocalDateTime untimedSent;               // when requests without a time stamp count as sent
+
+    /**
+     * Create a triage queue with the default aging rate, lease duration and keyword categories
+     */
+    public RequestTriageManager() {
+        this(DEFAULT_AGING_PER_MINUTE, DEFAULT_LEASE);
+    }
+
+    /**
+     * Create a triage queue with the default keyword categories
+     * @param agingPerMinute the number of points a request gains for every minute it waits
+     * @param leaseDuration how long an organizer may hold a claimed request before it returns to the queue
+     */
+    public RequestTriageManager(double agingPerMinute, Duration leaseDuration) {
+        this.agingPerMinute = agingPerMinute;
+        this.leaseDuration = leaseDuration;
+        this.untimedSent = LocalDateTime.now();
+        this.queue = new TreeSet<>(Comparator.comparingDouble(TriageEntry::getKey).reversed()
+                .thenComparingInt(TriageEntry::getRequestNum));
+        this.queuedEntries = new HashMap<>();
+        this.leases = new HashMap<>();
+        this.leaseExpiries = new PriorityQueue<>(Comparator.comparing(Lease::getExpiry));
+        this.categoryScores = new LinkedHashMap<>();
+        this.keywordCategories = new HashMap<>();
+
+        addCategory("Accessibility", 30, "accessibility", "accessible", "wheelchair", "hearing", "mobility");
+        addCategory("Health", 30, "medical", "allergy", "allergic", "emergency", "injury");
+        addCategory("Dietary", 15, "dietary", "vegan", "vegetarian", "halal", "kosher", "gluten");
+        addCategory("Scheduling", 10, "room", "schedule", "conflict", "cancel", "refund");
+    }
+
+    /**
+     * Add a keyword category, or replace the score and keywords of an existing one. A request scores each category
+     * at most once, no matter how many of its keywords appear in the content.
+     * @param category the name of the category
+     * @param score the score added to a request that mentions one of the keywords
+     * @param keywords the keywords of the category
+     */
+    public synchronized void addCategory(String category, int score, String... keywords) {
+        categoryScores.put(category, score);
+        keywordCategories.values().removeIf(c -> c.equals(category));
+        for (String keyword : keywords) {
+            keywordCategories.put(keyword.toLowerCase(Locale.ROOT), category);
+        }
+    }
+
+    /**
+     * Add a pending request to the queue. Does nothing if the request is already queued or claimed. Requests saved
+     * before requests had time stamps start aging when this queue was created, so they rank by score among the
+     * requests sent at that time instead of all outranking every dated request.
+     * @param requestNum the request number of the request
+     * @param content the content of the request
+     * @param timeCreated the time the request was sent (null for requests saved before requests had time stamps)
+     * @param vipSender true iff the request was sent by a VIP
+     */
+    public synchronized void addRequest(int requestNum, String content, LocalDateTime timeCreated, boolean vipSender) {
+        if (queuedEntries.containsKey(requestNum) || leases.containsKey(requestNum)) {
+            return;
+        }
+        int baseScore = baseScore(content, vipSender);
+        LocalDateTime sent = timeCreated == null ? untimedSent : timeCreated;
+        double minutesSent = sent.toEpochSecond(ZoneOffset.UTC) / 60.0;
+        enqueue(new TriageEntry(requestNum, baseScore, baseScore - agingPerMinute * minutesSent, minutesSent));
+    }
+
+    /**
+     * Remove a request from the queue, and end its lease if it is claimed (ex. because it has been addressed).
+     * @param requestNum the request number of the request
+     */
+    public synchronized void removeRequest(int requestNum) {
+        TriageEntry entry = queuedEntries.remove(requestNum);
+        if (entry != null) {
+            queue.remove(entry);
+        }
+        leases.remove(requestNum);  // the stale entry in leaseExpiries is skipped when it expires
+    }
+
+    /**
+     * Claim the pending request with the highest priority for an organizer. Expired leases are returned to the queue
+     * first, so an abandoned request is handed to the next organizer.
+     * @param organizerUsername the username of the organizer claiming the request
+     * @param now the current time
+     * @return the request number of the claimed request, or null if there are no unclaimed requests
+     */
+    public synchronized Integer claimNextRequest(String organizerUsername, LocalDateTime now) {
+        expireLeases(now);
+        TriageEntry entry = queue.pollFirst();
+        if (entry == null) {
+            return null;
+        }
+        queuedEntries.remove(entry.getRequestNum());
+        grantLease(entry, organizerUsername, now);
+        return entry.getRequestNum();
+    }
+
+    /**
+     * Extend the lease of a request claimed by this organizer.
+     * @param requestNum the request number of the request
+     * @param organizerUsername the username of the organizer holding the lease
+     * @param now the current time
+     * @return true iff the organizer held an unexpired lease on the request
+     */
+    public synchronized boolean renewLease(int requestNum, String organizerUsername, LocalDateTime now) {
+        expireLeases(now);
+        Lease lease = leases.get(requestNum);
+        if (lease == null || !lease.getOrganizerUsername().equals(organizerUsername)) {
+            return false;
+        }
+        grantLease(lease.getEntry(), organizerUsername, now);
+        return true;
+    }
+
+    /**
+     * Give a claimed request back to the queue without handling it.
+     * @param requestNum the request number of the request
+     * @param organizerUsername the username of the organizer holding the lease
+     * @return true iff the organizer held the lease on the request
+     */
+    public synchronized boolean releaseRequest(int requestNum, String organizerUsername) {
+        Lease lease = leases.get(requestNum);
+        if (lease == null || !lease.getOrganizerUsername().equals(organizerUsername)) {
+            return false;
+        }
+        leases.remove(requestNum);
+        enqueue(lease.getEntry());
+        return true;
+    }
+
+    /**
+     * Get the organizer currently holding the lease on a request.
+     * @param requestNum the request number of the request
+     * @param now the current time
+     * @return the username of the organizer, or null if the request is not claimed
+     */
+    public synchronized String getClaimant(int requestNum, LocalDateTime now) {
+        expireLeases(now);
+        Lease lease = leases.get(requestNum);
+        return lease == null ? null : lease.getOrganizerUsername();
+    }
+
+    /**
+     * Get the priority of a queued or claimed request at the given time.
+     * @param requestNum the request number of the request
+     * @param now the current time
+     * @return the priority of the request, or -1 if the request is not in the queue
+     */
+    public synchronized double getPriority(int requestNum, LocalDateTime now) {
+        TriageEntry entry = queuedEntries.get(requestNum);
+        if (entry == null && leases.containsKey(requestNum)) {
+            entry = leases.get(requestNum).getEntry();
+        }
+        if (entry == null) {
+            return -1;
+        }
+        double minutesNow = now.toEpochSecond(ZoneOffset.UTC) / 60.0;
+        return entry.getBaseScore() + agingPerMinute * Math.max(0, minutesNow - entry.getMinutesSent());
+    }
+
+    /**
+     * Get the names of the keyword categories the content falls into.
+     * @param content the content of a request
+     * @return the list of category names, in the order the categories were added
+     */
+    public synchronized List<String> getCategories(String content) {
+        String lowerContent = content == null ? "" : content.toLowerCase(Locale.ROOT);
+        TreeSet<String> matched = new TreeSet<>(Comparator.comparingInt(this::categoryOrder));
+        for (Map.Entry<String, String> keyword : keywordCategories.entrySet()) {
+            if (lowerContent.contains(keyword.getKey())) {
+                matched.add(keyword.getValue());
+            }
+        }
+        return List.copyOf(matched);
+    }
+
+    /**
+     * Get the number of requests waiting to be claimed.
+     * @param now the current time
+     * @return the number of unclaimed requests
+     */
+    public synchronized int unclaimedCount(LocalDateTime now) {
+        expireLeases(now);
+        return queue.size();
+    }
+
+    /**
+     * Get the number of requests currently claimed by organizers.
+     * @param now the current time
+     * @return the number of claimed requests
+     */
+    public synchronized int claimedCount(LocalDateTime now) {
+        expireLeases(now);
+        return leases.size();
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private int baseScore(String content, boolean vipSender) {
+        int score = vipSender ? VIP_SCORE : 0;
+        for (String category : getCategories(content)) {
+            score += categoryScores.get(category);
+        }
+        return score;
+    }
+
+    private int categoryOrder(String category) {
+        int order = 0;
+        for (String name : categoryScores.keySet()) {
+            if (name.equals(category)) {
+                return order;
+            }
+            order++;
+        }
+        return order;
+    }
+
+    private void enqueue(TriageEntry entry) {
+        queue.add(entry);
+        queuedEntries.put(entry.getRequestNum(), entry);
+    }
+
+    private void grantLease(TriageEntry entry, String organizerUsername, LocalDateTime now) {
+        Lease lease = new Lease(entry, organizerUsername, now.plus(leaseDuration));
+        leases.put(entry.getRequestNum(), lease);
+        leaseExpiries.add(lease);
+    }
+
+    // returns every request whose lease has expired to the queue; leases that were renewed, released or removed are
+    // no longer in the leases map and are dropped
+    private void expireLeases(LocalDateTime now) {
+        while (!leaseExpiries.isEmpty() && !leaseExpiries.peek().getExpiry().isAfter(now)) {
+            Lease expired = leaseExpiries.poll();
+            int requestNum = expired.getEntry().getRequestNum();
+            if (leases.get(requestNum) == expired) {
+                leases.remove(requestNum);
+                enqueue(expired.getEntry());
+            }
+        }
+    }
+
+    private static class TriageEntry {
+        private final int requestNum;
+        private final int baseScore;
+        private final double key;
+        private final double minutesSent;
+
+        TriageEntry(int requestNum, int baseScore, double key, double minutesSent) {
+            this.requestNum = requestNum;
+            this.baseScore = baseScore;
+            this.key = key;
+            this.minutesSent = minutesSent;
+        }
+
+        int getRequestNum() { return requestNum; }
+
+        int getBaseScore() { return baseScore; }
+
+        double getKey() { return key; }
+
+        double getMinutesSent() { return minutesSent; }
+    }
+
+    private static class Lease {
+        private final TriageEntry entry;
+        private final String organizerUsername;
+        private final LocalDateTime expiry;
+
+        Lease(TriageEntry entry, String organizerUsername, LocalDateTime expiry) {
+            this.entry = entry;
+            this.organizerUsername = organizerUsername;
+            this.expiry = expiry;
+        }
+
+        TriageEntry getEntry() { return entry; }
+
+        String getOrganizerUsername() { return organizerUsername; }
+
+        LocalDateTime getExpiry() { return expiry; }
+    }
+}
@@ -2,15 +2,26 @@ package UseCase;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import Entities.Room;
 
 /**
  * A Use Case class that manages the functionality of room.
+ * <p>
+ * Rooms are indexed by room number and by capacity. The indexes are not saved; they are rebuilt from the list of all
+ * rooms the first time they are needed after loading.
  */
 public class RoomManager implements Serializable {
+    private static final long serialVersionUID = 2854313000664924215L;
     private final List<Room> allRoom;
+    private transient Map<String, Room> roomsByNum;                     // maps room number to Room
+    private transient NavigableMap<Integer, TreeSet<String>> roomsByCapacity; // maps capacity to room numbers
 
     /**
      * A constructor for a RoomManager that initializes the list of all room as an empty list.
@@ -23,7 +34,10 @@ public class RoomManager implements Serializable {
      * Create a new room.
      * @param roomNum the room number of the new room.
      */
-    public void createRoom(String roomNum, int capacity){ allRoom.add(new Room(roomNum, capacity));
+    public void createRoom(String roomNum, int capacity){
+        Room room = new Room(roomNum, capacity);
+        allRoom.add(room);
+        indexRoom(room);
     }
 
     /**
@@ -32,10 +46,7 @@ public class RoomManager implements Serializable {
      * @return true iff the room has existed. Otherwise, return false.
      */
     public boolean doesRoomExist(String roomNum){
-        for(Room room: allRoom){
-            if(room.getRoomNum().equals(roomNum)) return true;
-        }
-        return false;
+        return roomsByNum().containsKey(roomNum);
     }
 
     /**
@@ -45,12 +56,11 @@ public class RoomManager implements Serializable {
      * @return the room object with given room number.
      */
     private Room stringToRoom(String roomNum){
-        assert doesRoomExist(roomNum);
-
-        for (Room room: allRoom){
-            if (room.getRoomNum().equals(roomNum)) { return room; }
+        Room room = roomsByNum().get(roomNum);
+        if (room == null) {
+            throw new IllegalArgumentException("There is no such a room with the room number " + roomNum + ". ");
         }
-        throw new IllegalArgumentException("There is no such a speaker with the username. ");
+        return room;
     }
 
     /**
@@ -59,9 +69,98 @@ public class RoomManager implements Serializable {
      * @return if the room exits, return the capacity of the room. Otherwise, return 0.
      */
     public int getCapacity(String roomNum){
-        if (doesRoomExist(roomNum)){
-            return stringToRoom(roomNum).getCapacity();
+        Room room = roomsByNum().get(roomNum);
+        if (room != null){
+            return room.getCapacity();
         }
         return 0;
     }
+
+    /**
+     * Get the room numbers of all rooms that can hold at least the given number of people, smallest room first.
+     * @param capacity the minimum capacity
+     * @return the list of room numbers ordered by capacity, then by room number
+     */
+    public List<String> getRoomsWithCapacityAtLeast(int capacity){
+        List<String> rooms = new ArrayList<>();
+        for (TreeSet<String> sameCapacity : roomsByCapacity().tailMap(capacity, true).values()){
+            rooms.addAll(sameCapacity);
+        }
+        return rooms;
+    }
+
+    /**
+     * Get the room numbers of all rooms.
+     * @return the list of all room numbers
+     */
+    public List<String> getAllRoomNum(){
+        List<String> rooms = new ArrayList<>();
+        for (Room room: allRoom){
+            rooms.add(room.getRoomNum());
+        }
+        return rooms;
+    }
+
+    /**
+     * Add the given event to the list of events held in the room.
+     * Precondition: the room exists.
+     * @param roomNum the room number of the room
+     * @param eventTitle the title of the event
+     */
+    public void addEventToRoom(String roomNum, String eventTitle){
+        stringToRoom(roomNum).addEvent(eventTitle);
+    }
+
+    /**
+     * Delete the given event from the list of events held in the room. Does nothing if the room does not exist.
+     * @param roomNum the room number of the room
+     * @param eventTitle the title of the event
+     */
+    public void deleteEventFromRoom(String roomNum, String eventTitle){
+        Room room = roomsByNum().get(roomNum);
+        if (room != null){
+            room.deleteEvent(eventTitle);
+        }
+    }
+
+    /**
+     * Get the titles of the events held in the room.
+     * Precondition: the room exists.
+     * @param roomNum the room number of the room
+     * @return the list of event titles
+     */
+    public List<String> getEventsInRoom(String roomNum){
+        List<String> events = stringToRoom(roomNum).getEvents();
+        return events == null ? new ArrayList<>() : new ArrayList<>(events);
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private Map<String, Room> roomsByNum(){
+        if (roomsByNum == null){
+            rebuildIndexes();
+        }
+        return roomsByNum;
+    }
+
+    private NavigableMap<Integer, TreeSet<String>> roomsByCapacity(){
+        if (roomsByCapacity == null){
+            rebuildIndexes();
+        }
+        return roomsByCapacity;
+    }
+
+    private void rebuildIndexes(){
+        roomsByNum = new HashMap<>();
+        roomsByCapacity = new TreeMap<>();
+        for (Room room: allRoom){
+            indexRoom(room);
+        }
+    }
+
+    private void indexRoom(Room room){
+        roomsByNum().put(room.getRoomNum(), room);
+        roomsByCapacity().computeIfAbsent(room.getCapacity(), c -> new TreeSet<>()).add(room.getRoomNum());
+    }
 }
@@ -0,0 +1,156 @@
+package UseCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Manages the seats people are holding while they confirm a sign up. A held seat counts as taken in EventManager until
+ * it is confirmed, released, or its hold runs out.
+ * <p>
+ * Holds are scheduled to run out on a TimingWheel, so holding, renewing and releasing a seat take constant time no
+ * matter how many holds there are. Holds are not saved with the conference.
+ */
+public class SeatHoldManager {
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 1024;
+
+    private final EventManager em;
+    private final long holdMillis;
+    private final TimingWheel<Hold> wheel;
+    private final Map<Hold, TimingWheel.Timeout<Hold>> holds;
+
+    /**
+     * Initialize a new SeatHoldManager
+     * @param em the EventManager whose seats are held
+     * @param holdMillis how long a hold lasts, in milliseconds
+     * @param nowMillis the current time in milliseconds
+     */
+    public SeatHoldManager(EventManager em, long holdMillis, long nowMillis) {
+        this.em = em;
+        this.holdMillis = holdMillis;
+        this.wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, nowMillis);
+        this.holds = new HashMap<>();
+    }
+
+    /**
+     * Hold a seat in the event for the user, or restart the user's hold if they already have one
+     * @param userName the username of the user
+     * @param eventTitle the event title
+     * @param nowMillis the current time in milliseconds
+     * @return true iff the user now holds a seat, false if the event is full
+     */
+    public boolean holdSeat(String userName, String eventTitle, long nowMillis) {
+        Hold hold = new Hold(userName, eventTitle);
+        TimingWheel.Timeout<Hold> timeout = holds.get(hold);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        } else if (!em.holdSeat(eventTitle)) {
+            return false;
+        }
+        holds.put(hold, wheel.schedule(hold, nowMillis + holdMillis));
+        return true;
+    }
+
+    /**
+     * Returns whether or not the user holds a seat in the event
+     * @param userName the username of the user
+     * @param eventTitle the event title
+     * @return true iff the user has a hold that has not run out
+     */
+    public boolean hasHold(String userName, String eventTitle) {
+        return holds.containsKey(new Hold(userName, eventTitle));
+    }
+
+    /**
+     * Give the user's held seat in the event back
+     * @param userName the username of the user
+     * @param eventTitle the event title
+     * @return true iff the user was holding a seat
+     */
+    public boolean releaseHold(String userName, String eventTitle) {
+        TimingWheel.Timeout<Hold> timeout = holds.remove(new Hold(userName, eventTitle));
+        if (timeout == null) {
+            return false;
+        }
+        wheel.cancel(timeout);
+        em.releaseHeldSeat(eventTitle);
+        return true;
+    }
+
+    /**
+     * Give back every seat held in the event
+     * @param eventTitle the event title
+     * @return the usernames of the users who were holding a seat
+     */
+    public List<String> releaseHolds(String eventTitle) {
+        List<String> userNames = new ArrayList<>();
+        for (Hold hold : new ArrayList<>(holds.keySet())) {
+            if (hold.eventTitle.equals(eventTitle)) {
+                releaseHold(hold.userName, eventTitle);
+                userNames.add(hold.userName);
+            }
+        }
+        return userNames;
+    }
+
+    /**
+     * Give back the seats of every hold that has run out
+     * @param nowMillis the current time in milliseconds
+     * @return the titles of the events that got a seat back, once for every seat
+     */
+    public List<String> expireHolds(long nowMillis) {
+        List<String> titles = new ArrayList<>();
+        for (Hold hold : wheel.advance(nowMillis)) {
+            holds.remove(hold);
+            em.releaseHeldSeat(hold.eventTitle);
+            titles.add(hold.eventTitle);
+        }
+        return titles;
+    }
+
+    /**
+     * Get the number of holds that have not run out
+     * @return the number of held seats
+     */
+    public int getHoldCount() {
+        return holds.size();
+    }
+
+    /**
+     * Getter for how long a hold lasts
+     * @return the length of a hold in milliseconds
+     */
+    public long getHoldMillis() {
+        return holdMillis;
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private static final class Hold {
+        private final String userName;
+        private final String eventTitle;
+
+        Hold(String userName, String eventTitle) {
+            this.userName = userName;
+            this.eventTitle = eventTitle;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Hold)) {
+                return false;
+            }
+            Hold other = (Hold) o;
+            return userName.equals(other.userName) && eventTitle.equals(other.eventTitle);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userName, eventTitle);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package UseCase;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps track of who is logged in, by session token, for front ends that serve many users at once.
+ * <p>
+ * When a session is opened, the user's type is looked up once and kept. While a user has a session, their VIP status,
+ * events and chats are also cached the first time they are asked for, so the requests of a logged in user do not look
+ * them up again. A cached result is kept until it is out of date: the VIP status and events until the user's revision
+ * in UserManager changes, and the chats until a chat is created. Users without a session are looked up every time, so
+ * the cache only ever holds the users who are logged in.
+ * <p>
+ * A session that has not been used for the idle timeout is closed. Sessions are checked when they are used, and all
+ * of them are swept now and then when a session is opened.
+ */
+public class SessionRegistry {
+    private final UserManager um;
+    private final ChatManager cm;
+    private final long idleMillis;
+    private final SecureRandom random;
+    private final Map<String, Session> sessions;        // maps token to session
+    private final Map<String, CachedUser> users;        // maps username to the cache of a user with a session
+    private long lastSweep;
+
+    /**
+     * Create an empty session registry
+     * @param um the UserManager the users come from
+     * @param cm the ChatManager the chats of the users come from
+     * @param idleMillis how long a session can go unused before it is closed
+     */
+    public SessionRegistry(UserManager um, ChatManager cm, long idleMillis) {
+        this.um = um;
+        this.cm = cm;
+        this.idleMillis = idleMillis;
+        this.random = new SecureRandom();
+        this.sessions = new HashMap<>();
+        this.users = new HashMap<>();
+    }
+
+    /**
+     * Open a session for a user who has logged in
+     * PRECONDITION : the user exists
+     * @param username the username of the user
+     * @param nowMillis the current time
+     * @return the token of the new session
+     */
+    public String open(String username, long nowMillis) {
+        if (nowMillis - lastSweep >= idleMillis / 4) {
+            expireIdle(nowMillis);
+        }
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        CachedUser user = users.computeIfAbsent(username, name -> new CachedUser(um.userType(name)));
+        user.sessions++;
+        sessions.put(token, new Session(username, nowMillis));
+        return token;
+    }
+
+    /**
+     * Get the user of a session, and mark the session as used
+     * @param token the token of the session
+     * @param nowMillis the current time
+     * @return the username, or null if there is no such session or it has been idle for too long
+     */
+    public String getUsername(String token, long nowMillis) {
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (nowMillis - session.lastUsed >= idleMillis) {
+            close(token);
+            return null;
+        }
+        session.lastUsed = nowMillis;
+        return session.username;
+    }
+
+    /**
+     * Close a session (ex. when the user logs out)
+     * @param token the token of the session
+     * @return true iff the session was open
+     */
+    public boolean close(String token) {
+        Session session = sessions.remove(token);
+        if (session == null) {
+            return false;
+        }
+        CachedUser user = users.get(session.username);
+        if (--user.sessions == 0) {
+            users.remove(session.username);
+        }
+        return true;
+    }
+
+    /**
+     * Close every session that has been idle for too long
+     * @param nowMillis the current time
+     * @return the number of sessions closed
+     */
+    public int expireIdle(long nowMillis) {
+        lastSweep = nowMillis;
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (nowMillis - entry.getValue().lastUsed >= idleMillis) {
+                expired.add(entry.getKey());
+            }
+        }
+        for (String token : expired) {
+            close(token);
+        }
+        return expired.size();
+    }
+
+    /**
+     * Get the number of open sessions
+     * @return the number of sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Get the type of a user
+     * @param username the username of the user
+     * @return "Attendee", "Organizer", "Speaker" or "Invalid Username", as UserManager.userType
+     */
+    public String getUserType(String username) {
+        CachedUser user = users.get(username);
+        return user == null ? um.userType(username) : user.type;
+    }
+
+    /**
+     * Check whether a user is a VIP
+     * @param username the username of the user
+     * @return true iff the user is a VIP attendee or organizer
+     */
+    public boolean isVIP(String username) {
+        CachedUser user = users.get(username);
+        if (user == null) {
+            return isAttending(um.userType(username)) && um.isAttendeeVIP(username);
+        }
+        refresh(username, user);
+        return user.vip;
+    }
+
+    /**
+     * Get the events a user attends, or speaks at if they are a speaker
+     * @param username the username of the user
+     * @return the event titles
+     */
+    public List<String> getEvents(String username) {
+        CachedUser user = users.get(username);
+        if (user == null) {
+            return new ArrayList<>(lookUpEvents(username, um.userType(username)));
+        }
+        refresh(username, user);
+        return new ArrayList<>(user.events);
+    }
+
+    /**
+     * Get every chat a user is in, archived or not
+     * @param username the username of the user
+     * @return the chat ids, in the same order as ChatManager.getUserChats
+     */
+    public List<UUID> getUserChats(String username) {
+        CachedUser user = users.get(username);
+        if (user == null) {
+            return cm.getUserChats(username);
+        }
+        int chatCount = cm.getChatCount();
+        if (user.chats == null || user.chatCount != chatCount) {
+            user.chats = cm.getUserChats(username);
+            user.chatCount = chatCount;
+        }
+        return new ArrayList<>(user.chats);
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private static class Session {
+        private final String username;
+        private long lastUsed;
+
+        private Session(String username, long lastUsed) {
+            this.username = username;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    // what is cached for a user with at least one session
+    private static class CachedUser {
+        private final String type;
+        private int sessions;
+        private int revision = -1;      // the revision the VIP status and events were cached at
+        private boolean vip;
+        private List<String> events;
+        private int chatCount = -1;     // the number of chats when the chats were cached
+        private List<UUID> chats;
+
+        private CachedUser(String type) {
+            this.type = type;
+        }
+    }
+
+    private void refresh(String username, CachedUser user) {
+        int revision = um.getRevision(username);
+        if (user.revision != revision) {
+            user.vip = isAttending(user.type) && um.isAttendeeVIP(username);
+            user.events = new ArrayList<>(lookUpEvents(username, user.type));
+            user.revision = revision;
+        }
+    }
+
+    private List<String> lookUpEvents(String username, String type) {
+        if (type.equals("Speaker")) {
+            return um.getEventsSpeaking(username);
+        }
+        return isAttending(type) ? um.getEventAttending(username) : Collections.emptyList();
+    }
+
+    private static boolean isAttending(String type) {
+        return type.equals("Attendee") || type.equals("Organizer");
+    }
+}
@@ -0,0 +1,86 @@
+package UseCase;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A talk, panel or party that still has to be given a room and a time slot by the TimetableSolver.
+ * <p>
+ * The session may be placed anywhere inside one of its time windows; it is an error to add a window shorter than the
+ * session itself.
+ */
+public class SessionRequest {
+    private final String title;
+    private final List<String> speakerUsernames;
+    private final int expectedAudience;
+    private final Duration duration;
+    private final boolean VIP;
+    private final List<LocalDateTime[]> windows;
+
+    /**
+     * Creates a new session request with no time windows
+     * @param title the title of the event
+     * @param speakerUsernames the usernames of the speakers (empty for a party)
+     * @param expectedAudience the number of attendees the room has to hold
+     * @param duration how long the event lasts
+     * @param VIP whether or not the event is VIP-only
+     */
+    public SessionRequest(String title, List<String> speakerUsernames, int expectedAudience, Duration duration, boolean VIP) {
+        this.title = title;
+        this.speakerUsernames = new ArrayList<>(speakerUsernames);
+        this.expectedAudience = expectedAudience;
+        this.duration = duration;
+        this.VIP = VIP;
+        this.windows = new ArrayList<>();
+    }
+
+    /**
+     * Allow the session to be held between the two times
+     * @param earliestStart the earliest time the session may start
+     * @param latestEnd the latest time the session may end
+     * @return this session request
+     */
+    public SessionRequest addWindow(LocalDateTime earliestStart, LocalDateTime latestEnd) {
+        windows.add(new LocalDateTime[] {earliestStart, latestEnd});
+        return this;
+    }
+
+    /**
+     * Getter for the title of the event
+     * @return the title of the event
+     */
+    public String getTitle() { return title; }
+
+    /**
+     * Getter for the speakers of the event
+     * @return the usernames of the speakers
+     */
+    public List<String> getSpeakerUsernames() { return Collections.unmodifiableList(speakerUsernames); }
+
+    /**
+     * Getter for the expected audience of the event
+     * @return the number of attendees the room has to hold
+     */
+    public int getExpectedAudience() { return expectedAudience; }
+
+    /**
+     * Getter for the duration of the event
+     * @return how long the event lasts
+     */
+    public Duration getDuration() { return duration; }
+
+    /**
+     * Getter for the type of the event.
+     * @return true iff this event is a VIP event.
+     */
+    public boolean getVIP() { return VIP; }
+
+    /**
+     * Getter for the time windows of the event
+     * @return the list of [earliest start, latest end] pairs
+     */
+    public List<LocalDateTime[]> getWindows() { return Collections.unmodifiableList(windows); }
+}
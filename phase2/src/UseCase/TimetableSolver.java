@@ -0,0 +1,515 @@
+package UseCase;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Places a batch of sessions into rooms and time slots so that no room or speaker is double booked and every session
+ * fits in its room.
+ * <p>
+ * Every worker thread builds a greedy timetable (hardest sessions first, smallest fitting room first) and then runs a
+ * local search until the time budget is used up: an unplaced session is forced into a random slot and the one session
+ * in its way is moved elsewhere, and placed sessions are moved to smaller rooms to cut down on empty seats. Workers
+ * use different random orders and the best timetable wins.
+ */
+public class TimetableSolver {
+    private static final int FIXED = -1;  // marks a booking that belongs to an existing event
+
+    private final List<String> roomNums;  // ordered by capacity, smallest first
+    private final int[] roomCapacities;
+    private final long slotMinutes;
+    private final Map<String, List<long[]>> roomBookings;
+    private final Map<String, List<long[]>> speakerBookings;
+    private final int workerCount;
+
+    /**
+     * Creates a solver for the given rooms using one worker per processor
+     * @param roomCapacities maps room number to the capacity of the room
+     * @param slotLength the distance between two possible start times inside a time window
+     */
+    public TimetableSolver(Map<String, Integer> roomCapacities, Duration slotLength) {
+        this(roomCapacities, slotLength, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a solver for the given rooms
+     * @param roomCapacities maps room number to the capacity of the room
+     * @param slotLength the distance between two possible start times inside a time window
+     * @param workerCount the number of timetables searched in parallel
+     */
+    public TimetableSolver(Map<String, Integer> roomCapacities, Duration slotLength, int workerCount) {
+        List<Map.Entry<String, Integer>> rooms = new ArrayList<>(roomCapacities.entrySet());
+        rooms.sort(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        this.roomNums = new ArrayList<>();
+        this.roomCapacities = new int[rooms.size()];
+        for (int i = 0; i < rooms.size(); i++) {
+            roomNums.add(rooms.get(i).getKey());
+            this.roomCapacities[i] = rooms.get(i).getValue();
+        }
+        this.slotMinutes = Math.max(1, slotLength.toMinutes());
+        this.roomBookings = new HashMap<>();
+        this.speakerBookings = new HashMap<>();
+        this.workerCount = Math.max(1, workerCount);
+    }
+
+    /**
+     * Mark a room as taken by an existing event
+     * @param roomNum the room number
+     * @param start the start time of the existing event
+     * @param end the end time of the existing event
+     */
+    public void addRoomBooking(String roomNum, LocalDateTime start, LocalDateTime end) {
+        roomBookings.computeIfAbsent(roomNum, r -> new ArrayList<>()).add(new long[] {toMinutes(start), toMinutes(end)});
+    }
+
+    /**
+     * Mark a speaker as busy with an existing event
+     * @param speakerUsername the username of the speaker
+     * @param start the start time of the existing event
+     * @param end the end time of the existing event
+     */
+    public void addSpeakerBooking(String speakerUsername, LocalDateTime start, LocalDateTime end) {
+        speakerBookings.computeIfAbsent(speakerUsername, s -> new ArrayList<>())
+                .add(new long[] {toMinutes(start), toMinutes(end)});
+    }
+
+    /**
+     * Find a conflict-free timetable for the sessions, using at most the given time budget.
+     * @param sessions the sessions to place; their titles must be unique
+     * @param timeBudget how long the search may run
+     * @return the best timetable found
+     */
+    public Result solve(List<SessionRequest> sessions, Duration timeBudget) {
+        long startNanos = System.nanoTime();
+        Problem problem = new Problem(sessions);
+        long deadline = startNanos + timeBudget.toNanos();
+
+        List<Callable<Worker>> tasks = new ArrayList<>();
+        for (int i = 0; i < workerCount; i++) {
+            final int seed = i;
+            tasks.add(() -> {
+                Worker worker = new Worker(problem, seed);
+                worker.run(deadline);
+                return worker;
+            });
+        }
+
+        Worker best = null;
+        long iterations = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+        try {
+            for (Future<Worker> future : executor.invokeAll(tasks)) {
+                Worker worker = future.get();
+                iterations += worker.iterations;
+                if (best == null || worker.isBetterThan(best)) {
+                    best = worker;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The timetable search was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The timetable search failed.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Result result = new Result(workerCount, iterations, (System.nanoTime() - startNanos) / 1_000_000);
+        for (int s = 0; s < problem.size(); s++) {
+            SessionRequest session = sessions.get(s);
+            if (best.bestRoom[s] >= 0) {
+                int room = best.bestRoom[s];
+                LocalDateTime start = fromMinutes(best.bestStart[s]);
+                result.placements.put(session.getTitle(), new Placement(roomNums.get(room), start,
+                        start.plus(session.getDuration())));
+                result.wastedSeats += roomCapacities[room] - session.getExpectedAudience();
+            } else {
+                result.unplaced.put(session.getTitle(), problem.reasonUnplaceable(s));
+            }
+        }
+        return result;
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private static long toMinutes(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static LocalDateTime fromMinutes(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    // the parts of the sessions the workers need, computed once and shared read-only between the workers
+    private class Problem {
+        private final int[][] eligibleRooms;   // room indexes that fit the audience, smallest first
+        private final long[][] starts;         // possible start times in minutes, earliest first
+        private final long[] durations;
+        private final int[][] speakers;        // speaker indexes
+        private final int[] audience;
+        private final List<String> speakerNames = new ArrayList<>();
+
+        Problem(List<SessionRequest> sessions) {
+            int n = sessions.size();
+            eligibleRooms = new int[n][];
+            starts = new long[n][];
+            durations = new long[n];
+            speakers = new int[n][];
+            audience = new int[n];
+            Map<String, Integer> speakerIndexes = new HashMap<>();
+            for (int s = 0; s < n; s++) {
+                SessionRequest session = sessions.get(s);
+                audience[s] = session.getExpectedAudience();
+                durations[s] = Math.max(1, session.getDuration().toMinutes());
+
+                List<Integer> rooms = new ArrayList<>();
+                for (int r = 0; r < roomCapacities.length; r++) {
+                    if (roomCapacities[r] >= audience[s]) { rooms.add(r); }
+                }
+                eligibleRooms[s] = rooms.stream().mapToInt(Integer::intValue).toArray();
+
+                TreeSet<Long> sessionStarts = new TreeSet<>();
+                for (LocalDateTime[] window : session.getWindows()) {
+                    long latestEnd = toMinutes(window[1]);
+                    for (long start = toMinutes(window[0]); start + durations[s] <= latestEnd; start += slotMinutes) {
+                        sessionStarts.add(start);
+                    }
+                }
+                starts[s] = sessionStarts.stream().mapToLong(Long::longValue).toArray();
+
+                speakers[s] = new int[session.getSpeakerUsernames().size()];
+                for (int i = 0; i < speakers[s].length; i++) {
+                    String name = session.getSpeakerUsernames().get(i);
+                    Integer index = speakerIndexes.get(name);
+                    if (index == null) {
+                        index = speakerNames.size();
+                        speakerIndexes.put(name, index);
+                        speakerNames.add(name);
+                    }
+                    speakers[s][i] = index;
+                }
+            }
+        }
+
+        int size() { return durations.length; }
+
+        String reasonUnplaceable(int s) {
+            if (eligibleRooms[s].length == 0) {
+                return "no room holds " + audience[s] + " people";
+            } else if (starts[s].length == 0) {
+                return "no time window is long enough";
+            }
+            return "every room and time slot that fits conflicts with another event or speaker booking";
+        }
+    }
+
+    private static class Booking {
+        private final long end;
+        private final int session;
+
+        Booking(long end, int session) {
+            this.end = end;
+            this.session = session;
+        }
+    }
+
+    // one independent search; only the thread running it touches its state
+    private class Worker {
+        private final Problem problem;
+        private final Random random;
+        private final List<TreeMap<Long, Booking>> roomOccupancy = new ArrayList<>();
+        private final List<TreeMap<Long, Booking>> speakerOccupancy = new ArrayList<>();
+        private final int[] room;
+        private final long[] start;
+        private int placedCount;
+        private long wastedSeats;
+        private final int[] bestRoom;
+        private final long[] bestStart;
+        private int bestPlacedCount = -1;
+        private long bestWastedSeats;
+        private long iterations;
+        private long lastImprovement;
+        private final int seed;
+
+        Worker(Problem problem, int seed) {
+            this.problem = problem;
+            this.seed = seed;
+            this.random = new Random(seed);
+            for (String roomNum : roomNums) {
+                roomOccupancy.add(fixedBookings(roomBookings.get(roomNum)));
+            }
+            for (String speaker : problem.speakerNames) {
+                speakerOccupancy.add(fixedBookings(speakerBookings.get(speaker)));
+            }
+            int n = problem.size();
+            room = new int[n];
+            start = new long[n];
+            bestRoom = new int[n];
+            bestStart = new long[n];
+            Arrays.fill(room, -1);
+        }
+
+        void run(long deadline) {
+            List<Integer> order = new ArrayList<>();
+            for (int s = 0; s < problem.size(); s++) { order.add(s); }
+            // sessions with the fewest choices and the most speakers are the hardest to place, so they go first;
+            // every worker but the first adds some noise to try a different order
+            Map<Integer, Double> difficulty = new HashMap<>();
+            for (int s : order) {
+                double choices = (double) problem.eligibleRooms[s].length * problem.starts[s].length;
+                double noise = seed == 0 ? 1 : 0.7 + 0.6 * random.nextDouble();
+                difficulty.put(s, choices * noise / (1 + problem.speakers[s].length));
+            }
+            order.sort(Comparator.comparingDouble(difficulty::get));
+            for (int s : order) {
+                placeGreedily(s, seed == 0 ? 0 : random.nextInt(Integer.MAX_VALUE));
+            }
+            saveIfBest();
+
+            List<Integer> unplaced = new ArrayList<>();
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                iterations++;
+                unplaced.clear();
+                for (int s = 0; s < problem.size(); s++) {
+                    if (room[s] < 0 && problem.eligibleRooms[s].length > 0 && problem.starts[s].length > 0) {
+                        unplaced.add(s);
+                    }
+                }
+                if (!unplaced.isEmpty()) {
+                    forceIn(unplaced.get(random.nextInt(unplaced.size())));
+                } else if (placedCount > 0) {
+                    shrinkRoom(random.nextInt(problem.size()));
+                } else {
+                    break;
+                }
+                if (saveIfBest()) {
+                    lastImprovement = iterations;
+                } else if (unplaced.isEmpty() && iterations - lastImprovement > 20L * problem.size() + 1000) {
+                    break;  // every session is placed and moving them around has stopped paying off
+                }
+            }
+        }
+
+        boolean isBetterThan(Worker other) {
+            return bestPlacedCount > other.bestPlacedCount
+                    || (bestPlacedCount == other.bestPlacedCount && bestWastedSeats < other.bestWastedSeats);
+        }
+
+        // place the session in the smallest room and earliest slot (starting the scan at offset) that is free
+        private boolean placeGreedily(int s, int offset) {
+            long[] starts = problem.starts[s];
+            for (int r : problem.eligibleRooms[s]) {
+                for (int k = 0; k < starts.length; k++) {
+                    long candidate = starts[(k + offset) % starts.length];
+                    if (conflicts(s, r, candidate).isEmpty()) {
+                        place(s, r, candidate);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // put the session into a random slot, moving the one session in the way somewhere else
+        private void forceIn(int s) {
+            int r = problem.eligibleRooms[s][random.nextInt(problem.eligibleRooms[s].length)];
+            long candidate = problem.starts[s][random.nextInt(problem.starts[s].length)];
+            List<Integer> inTheWay = conflicts(s, r, candidate);
+            if (inTheWay.size() != 1 || inTheWay.get(0) == FIXED) {
+                return;
+            }
+            int moved = inTheWay.get(0);
+            int movedRoom = room[moved];
+            long movedStart = start[moved];
+            unplace(moved);
+            place(s, r, candidate);
+            if (!placeGreedily(moved, random.nextInt(Integer.MAX_VALUE))) {
+                unplace(s);
+                place(moved, movedRoom, movedStart);
+            }
+        }
+
+        // move a placed session to a smaller room if one is free at any of its possible times
+        private void shrinkRoom(int s) {
+            if (room[s] < 0) {
+                return;
+            }
+            int oldRoom = room[s];
+            long oldStart = start[s];
+            unplace(s);
+            if (!placeGreedily(s, random.nextInt(Integer.MAX_VALUE)) || roomCapacities[room[s]] > roomCapacities[oldRoom]) {
+                if (room[s] >= 0) { unplace(s); }
+                place(s, oldRoom, oldStart);
+            }
+        }
+
+        // sessions (or FIXED for existing events) that overlap the session if it were held in room r at the given time
+        private List<Integer> conflicts(int s, int r, long candidate) {
+            List<Integer> found = new ArrayList<>();
+            long end = candidate + problem.durations[s];
+            collectOverlaps(roomOccupancy.get(r), candidate, end, found);
+            for (int speaker : problem.speakers[s]) {
+                collectOverlaps(speakerOccupancy.get(speaker), candidate, end, found);
+            }
+            return found;
+        }
+
+        private void collectOverlaps(TreeMap<Long, Booking> occupancy, long from, long to, List<Integer> found) {
+            for (Map.Entry<Long, Booking> entry : occupancy.headMap(to, false).descendingMap().entrySet()) {
+                if (entry.getValue().end <= from) {
+                    break;  // bookings of one room or speaker never overlap, so every earlier one ends earlier too
+                }
+                if (!found.contains(entry.getValue().session)) {
+                    found.add(entry.getValue().session);
+                }
+            }
+        }
+
+        private void place(int s, int r, long candidate) {
+            Booking booking = new Booking(candidate + problem.durations[s], s);
+            roomOccupancy.get(r).put(candidate, booking);
+            for (int speaker : problem.speakers[s]) {
+                speakerOccupancy.get(speaker).put(candidate, booking);
+            }
+            room[s] = r;
+            start[s] = candidate;
+            placedCount++;
+            wastedSeats += roomCapacities[r] - problem.audience[s];
+        }
+
+        private void unplace(int s) {
+            roomOccupancy.get(room[s]).remove(start[s]);
+            for (int speaker : problem.speakers[s]) {
+                speakerOccupancy.get(speaker).remove(start[s]);
+            }
+            placedCount--;
+            wastedSeats -= roomCapacities[room[s]] - problem.audience[s];
+            room[s] = -1;
+        }
+
+        private boolean saveIfBest() {
+            if (placedCount > bestPlacedCount || (placedCount == bestPlacedCount && wastedSeats < bestWastedSeats)) {
+                bestPlacedCount = placedCount;
+                bestWastedSeats = wastedSeats;
+                System.arraycopy(room, 0, bestRoom, 0, room.length);
+                System.arraycopy(start, 0, bestStart, 0, start.length);
+                return true;
+            }
+            return false;
+        }
+
+        private TreeMap<Long, Booking> fixedBookings(List<long[]> bookings) {
+            TreeMap<Long, Booking> occupancy = new TreeMap<>();
+            if (bookings != null) {
+                for (long[] booking : bookings) {
+                    occupancy.merge(booking[0], new Booking(booking[1], FIXED),
+                            (a, b) -> a.end >= b.end ? a : b);
+                }
+            }
+            return occupancy;
+        }
+    }
+
+    /**
+     * Where and when a session was placed
+     */
+    public static class Placement {
+        private final String roomNum;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Placement(String roomNum, LocalDateTime start, LocalDateTime end) {
+            this.roomNum = roomNum;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Getter for the room number of the placement
+         * @return the room number
+         */
+        public String getRoomNum() { return roomNum; }
+
+        /**
+         * Getter for the start time of the placement
+         * @return the start time
+         */
+        public LocalDateTime getStart() { return start; }
+
+        /**
+         * Getter for the end time of the placement
+         * @return the end time
+         */
+        public LocalDateTime getEnd() { return end; }
+    }
+
+    /**
+     * The timetable found by the solver and how good it is
+     */
+    public static class Result {
+        private final Map<String, Placement> placements = new LinkedHashMap<>();
+        private final Map<String, String> unplaced = new LinkedHashMap<>();
+        private long wastedSeats;
+        private final int workers;
+        private final long iterations;
+        private final long elapsedMillis;
+
+        Result(int workers, long iterations, long elapsedMillis) {
+            this.workers = workers;
+            this.iterations = iterations;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * Getter for the placed sessions
+         * @return maps the session title to its placement, in the order the sessions were given
+         */
+        public Map<String, Placement> getPlacements() { return Collections.unmodifiableMap(placements); }
+
+        /**
+         * Getter for the sessions that could not be placed
+         * @return maps the session title to the reason it could not be placed
+         */
+        public Map<String, String> getUnplaced() { return Collections.unmodifiableMap(unplaced); }
+
+        /**
+         * Getter for the number of empty seats over all placed sessions
+         * @return the sum of room capacity minus expected audience
+         */
+        public long getWastedSeats() { return wastedSeats; }
+
+        /**
+         * Summarize the quality of the timetable
+         * @return the lines of the quality report
+         */
+        public List<String> getReport() {
+            List<String> report = new ArrayList<>();
+            int total = placements.size() + unplaced.size();
+            report.add("Placed " + placements.size() + " of " + total + " sessions.");
+            report.add("Empty seats in placed sessions: " + wastedSeats + ".");
+            report.add("Searched " + iterations + " moves on " + workers + " worker(s) in " + elapsedMillis + " ms.");
+            for (Map.Entry<String, String> entry : unplaced.entrySet()) {
+                report.add("Not placed: " + entry.getKey() + " (" + entry.getValue() + ")");
+            }
+            return report;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package UseCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hashed timing wheel that tells which scheduled items have reached their deadline.
+ * <p>
+ * Time is cut into ticks, and the wheel has one bucket per tick for a fixed number of ticks. An item is put in the
+ * bucket of its deadline tick, so scheduling and cancelling take constant time no matter how many items are scheduled.
+ * Items due more than one turn of the wheel away share a bucket with nearer ones and are skipped until their turn
+ * comes. Items expire at most one tick late and never early.
+ * <p>
+ * The wheel is not synchronized; callers that share it between threads have to lock around it.
+ * @param <T> the type of the scheduled items
+ */
+public class TimingWheel<T> {
+    private final long tickMillis;
+    private final Timeout<T>[] buckets;     // the sentinel at the head of each bucket's list
+    private final int mask;
+    private long currentTick;               // the next tick to be processed
+    private int size;
+
+    /**
+     * Create a timing wheel
+     * @param tickMillis the length of one tick in milliseconds
+     * @param wheelSize the number of buckets, rounded up to a power of two
+     * @param startMillis the current time in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("The tick length and the wheel size should be positive.");
+        }
+        int buckets = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = (Timeout<T>[]) new Timeout<?>[buckets];
+        for (int i = 0; i < buckets; i++) {
+            this.buckets[i] = new Timeout<>(null, 0);
+            this.buckets[i].prev = this.buckets[i];
+            this.buckets[i].next = this.buckets[i];
+        }
+        this.mask = buckets - 1;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedule an item to expire at the given time
+     * @param item the item
+     * @param deadlineMillis the time in milliseconds the item expires at
+     * @return the handle used to cancel the item
+     */
+    public Timeout<T> schedule(T item, long deadlineMillis) {
+        // round up so an item never expires before its deadline
+        long deadlineTick = Math.max(currentTick, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        Timeout<T> timeout = new Timeout<>(item, deadlineTick);
+        Timeout<T> head = buckets[(int) (deadlineTick & mask)];
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancel a scheduled item so it never expires
+     * @param timeout the handle returned when the item was scheduled
+     * @return true iff the item was still scheduled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || timeout.next == null) {
+            return false;
+        }
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * Move the wheel forward to the given time and remove every item whose deadline has passed
+     * @param nowMillis the current time in milliseconds
+     * @return the expired items, in the order their ticks were reached
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        if (targetTick < currentTick) {
+            return expired;
+        }
+        // after more than a full turn every bucket is visited once rather than once per tick
+        long lastTick = Math.min(targetTick, currentTick + mask);
+        for (long tick = currentTick; tick <= lastTick; tick++) {
+            Timeout<T> head = buckets[(int) (tick & mask)];
+            Timeout<T> timeout = head.next;
+            while (timeout != head) {
+                Timeout<T> next = timeout.next;
+                if (timeout.deadlineTick <= targetTick) {
+                    unlink(timeout);
+                    expired.add(timeout.item);
+                }
+                timeout = next;
+            }
+        }
+        currentTick = targetTick + 1;
+        return expired;
+    }
+
+    /**
+     * Get the number of items that are scheduled and have not expired or been cancelled
+     * @return the number of scheduled items
+     */
+    public int size() {
+        return size;
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+        size--;
+    }
+
+    /**
+     * The handle of an item scheduled on a timing wheel
+     * @param <T> the type of the item
+     */
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Getter for the scheduled item
+         * @return the item
+         */
+        public T getItem() { return item; }
+
+        /**
+         * Check whether the item is still waiting to expire
+         * @return true iff the item has not expired or been cancelled
+         */
+        public boolean isScheduled() { return next != null; }
+    }
+}
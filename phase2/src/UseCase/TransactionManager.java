@@ -0,0 +1,130 @@
+package UseCase;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs actions that change several managers as transactions, so an action that fails part way leaves no half-made
+ * changes behind.
+ * <p>
+ * Only one transaction runs at a time: every transaction holds the same lock, which makes this the single writer for
+ * all the managers it guards (including background timers). While an action runs, each step that changes a manager
+ * records how to undo itself with onUndo. If the action throws, the recorded steps are undone in reverse order and the
+ * exception is passed on; if it returns, the undo log is thrown away. Transactions can be nested; a nested transaction
+ * that fails undoes only its own steps before the exception reaches the outer one.
+ * <p>
+ * Steps that should only happen once the changes are kept for good (ex. publishing what happened) are registered with
+ * afterCommit. They run when the outermost transaction returns, still holding the lock, so they run in the order the
+ * transactions committed; the ones registered by a failed transaction are dropped.
+ */
+public class TransactionManager {
+    private final ReentrantLock lock;
+    private final Deque<Runnable> undoLog;      // only used by the thread holding the lock
+    private final List<Runnable> commitLog;     // only used by the thread holding the lock
+
+    /**
+     * Create a transaction manager
+     */
+    public TransactionManager() {
+        lock = new ReentrantLock();
+        undoLog = new ArrayDeque<>();
+        commitLog = new ArrayList<>();
+    }
+
+    /**
+     * Run an action as a transaction
+     * @param action the action, which should call onUndo after each change it makes
+     * @param <T> the type of the result of the action
+     * @return the result of the action
+     */
+    public <T> T execute(Supplier<T> action) {
+        lock.lock();
+        int mark = undoLog.size();
+        int commitMark = commitLog.size();
+        try {
+            T result = action.get();
+            if (lock.getHoldCount() == 1) {
+                commit();
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            rollback(mark, e);
+            commitLog.subList(commitMark, commitLog.size()).clear();
+            throw e;
+        } finally {
+            if (lock.getHoldCount() == 1) {
+                undoLog.clear();
+                commitLog.clear();
+            }
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run an action with no result as a transaction
+     * @param action the action, which should call onUndo after each change it makes
+     */
+    public void run(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Record how to undo the change just made by the running transaction
+     * @param undo the step that undoes the change
+     * @throws IllegalStateException if the calling thread is not running a transaction
+     */
+    public void onUndo(Runnable undo) {
+        if (!lock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("Changes can only be recorded inside a transaction.");
+        }
+        undoLog.push(undo);
+    }
+
+    /**
+     * Run a step once the running transaction commits, or right away if the calling thread is not running one
+     * @param step the step, which should be quick and must not throw
+     */
+    public void afterCommit(Runnable step) {
+        if (lock.isHeldByCurrentThread()) {
+            commitLog.add(step);
+        } else {
+            step.run();
+        }
+    }
+
+    /**
+     * Check whether the calling thread is running a transaction
+     * @return true iff the calling thread holds the transaction lock
+     */
+    public boolean inTransaction() {
+        return lock.isHeldByCurrentThread();
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    // a commit step may register more steps (ex. by running a transaction of its own), so the log is read by index
+    private void commit() {
+        for (int i = 0; i < commitLog.size(); i++) {
+            commitLog.get(i).run();
+        }
+    }
+
+    private void rollback(int mark, Throwable cause) {
+        while (undoLog.size() > mark) {
+            try {
+                undoLog.pop().run();
+            } catch (RuntimeException e) {
+                // keep undoing the other steps; the first failure is what the caller sees
+                cause.addSuppressed(e);
+            }
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package UseCase;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import Entities.Attendee;
 import Entities.Organizer;
 import Entities.Speaker;
@@ -9,15 +13,47 @@ import Entities.User;
 
 /**
  * A UseCase class that manages the functionalities of User class.
- *
+ * <p>
+ * Users are indexed by username, and who has added whom as a friend is kept in a FriendGraph. Each user also has a
+ * dense int id, and the users of each type and the VIPs are kept as bitmaps over the ids, so audiences for
+ * announcements can be built with set algebra. None of these are saved; they are rebuilt from the lists of all users
+ * the first time they are needed after loading.
+ * <p>
+ * Each user also has a revision number that goes up whenever their events, VIP status or friends change, so results
+ * cached for a user (ex. by a SessionRegistry) can tell when they are out of date.
  */
 public class UserManager implements Serializable {
+    private static final long serialVersionUID = -5518286756477111684L;
+    /**
+     * The username the conference sends its own messages as (ex. waitlist notices), which no account can take
+     */
+    public static final String SYSTEM_USERNAME = "TechConferenceSystem";
+
     private final List <Attendee> allAttendee = new ArrayList<>();
     private final List <Organizer> allOrganizer = new ArrayList<>();
     private final List <Speaker> allSpeaker = new ArrayList<>();
+    private transient Map<String, User> usersByName;    // maps username to the attendee, organizer or speaker
+    private transient FriendGraph friendGraph;
+    private transient IdDictionary userIds;
+    private transient Map<String, BitSet> membersByType;    // maps "Attendee", "Organizer" or "Speaker" to their ids
+    private transient BitSet vipMembers;
+    private transient Map<String, Integer> revisions;    // maps username to the number of changes since loading
+    private transient List<ChangeListener> listeners;   // told about every change to a user's revision
 
     public UserManager() {}
 
+    /**
+     * Tell a listener whenever a user's events, VIP status or friends change from now on (ex. a ReadModel). Listeners
+     * are not saved.
+     * @param listener the listener
+     */
+    public void addChangeListener(ChangeListener listener){
+        if (listeners == null){
+            listeners = new ArrayList<>();
+        }
+        listeners.add(listener);
+    }
+
 
     /**
      * Getter for all userName of all attendees
@@ -50,40 +86,60 @@ public class UserManager implements Serializable {
      */
 
     public boolean isUserExists(String userName){
-        for (Attendee attendee: allAttendee){
-            if (userName.equals(attendee.getUsername())) { return true; }
-        }
+        return usersByName().containsKey(userName);
+    }
 
-        for (Organizer organizer: allOrganizer){
-            if (userName.equals(organizer.getUsername())) { return true; }
-        }
+    /**
+     * Check whether a username cannot be used for a new account, because a user has it or the conference sends as it
+     * @param userName the username of the new account
+     * @return true iff the username is taken
+     */
+    public boolean isUsernameTaken(String userName){
+        return isUserExists(userName) || SYSTEM_USERNAME.equals(userName);
+    }
 
-        for (Speaker speaker: allSpeaker){
-            if (userName.equals(speaker.getUsername())) { return true; }
-        }
-        return false;
+    /**
+     * Get the stored password of a user, to check a password entered when logging in against (see PasswordHasher)
+     *
+     * @param username  the username entered into the system
+     * @return the stored password, or null if the user does not exist
+     */
+    public String getStoredPassword(String username){
+        User user = usersByName().get(username);
+        return user == null ? null : user.getPassword();
     }
 
     /**
-     * Authorization of a user trying to log into their account
+     * Replace the stored password of a user (ex. with a new hash of the same password), unless it has changed since
+     * it was read
      *
-     * @param enteredUsername  the username entered into the system
-     * @param enteredPassword  the password entered into the system
-     * @return a boolean value if the user successfully logged into the system of not.
+     * @param username  the username of the user
+     * @param expected  the stored password that was read
+     * @param replacement  the new stored password
+     * @return true iff the stored password was replaced
      */
-    public boolean credentialAuthorization(String enteredUsername, String enteredPassword){
+    public boolean replaceStoredPassword(String username, String expected, String replacement){
+        User user = usersByName().get(username);
+        if (user == null || !user.getPassword().equals(expected)){
+            return false;
+        }
+        user.setPassword(replacement);
+        return true;
+    }
 
-        if(isUserExists(enteredUsername)){
-            String userType = userType(enteredUsername);
-            if (userType.equals("Speaker")){
-                Speaker user = stringToSpeaker(enteredUsername);
-                return user.getPassword().equals(enteredPassword);
+    /**
+     * Get the users whose passwords are still stored as plain text (from saves made before passwords were hashed)
+     *
+     * @return a map of username to plain text password
+     */
+    public Map<String, String> getPlainTextPasswords(){
+        Map<String, String> passwords = new HashMap<>();
+        for (User user : usersByName().values()){
+            if (!PasswordHasher.isHashed(user.getPassword())){
+                passwords.put(user.getUsername(), user.getPassword());
             }
-            Attendee user = stringToAttendee(enteredUsername);
-            return user.getPassword().equals(enteredPassword);
         }
-
-        return false;
+        return passwords;
     }
 
     /**
@@ -98,6 +154,7 @@ public class UserManager implements Serializable {
         List<String> eventList = user.getEventAttending();
         eventList.add(eventTitle);
         user.setEventAttending(eventList);
+        touch(username);
     }
 
     /**
@@ -112,6 +169,7 @@ public class UserManager implements Serializable {
         List<String> eventList = user.getEventAttending();
         eventList.remove(eventTitle);
         user.setEventAttending(eventList);
+        touch(username);
     }
 
     /**
@@ -129,14 +187,16 @@ public class UserManager implements Serializable {
      * Creates an Attendee Account
      *
      * @param userName  Username for an Attendee Account
-     * @param password  Password for an Attendee Account
+     * @param password  Hashed password for an Attendee Account (see PasswordHasher)
      * @return          true if successfully created an attendee account. False otherwise.
      */
     public boolean createAttendeeAccount(String userName, String password){
 
-        if(isUserExists(userName)) { return false; }
+        if(isUsernameTaken(userName)) { return false; }
 
-        allAttendee.add(new Attendee(userName, password));
+        Attendee attendee = new Attendee(userName, password);
+        allAttendee.add(attendee);
+        indexUser(attendee);
         return true;
     }
 
@@ -145,14 +205,16 @@ public class UserManager implements Serializable {
      * Creates an Organizer Account
      *
      * @param userName  Username for an Organizer Account
-     * @param password  Password for an Organizer Account
+     * @param password  Hashed password for an Organizer Account (see PasswordHasher)
      * @return          true if successfully created an organizer account. False otherwise
      */
     public boolean createOrganizerAccount(String userName, String password){
 
-        if(isUserExists(userName)){ return false; }
+        if(isUsernameTaken(userName)){ return false; }
 
-        allOrganizer.add(new Organizer(userName, password));
+        Organizer organizer = new Organizer(userName, password);
+        allOrganizer.add(organizer);
+        indexUser(organizer);
         return true;
     }
 
@@ -161,15 +223,17 @@ public class UserManager implements Serializable {
      * Creates a Speaker Account
      *
      * @param userName    Username for a speaker Account
-     * @param password    Password for a speaker Account
+     * @param password    Hashed password for a speaker Account (see PasswordHasher)
      * @return            true if successfully created a speaker account. False otherwise
      */
     public boolean createSpeakerAccount(String userName, String password){
-        if(isUserExists(userName)){
+        if(isUsernameTaken(userName)){
             return false;
         }
 
-        allSpeaker.add(new Speaker(userName, password));
+        Speaker speaker = new Speaker(userName, password);
+        allSpeaker.add(speaker);
+        indexUser(speaker);
         return true;
     }
 
@@ -182,16 +246,9 @@ public class UserManager implements Serializable {
      * @return         User object that matches with username
      */
     private Attendee stringToAttendee(String username){
-        assert isUserExists(username);
-        for (Attendee attendee: allAttendee){
-            if (attendee.getUsername().equals(username)){
-                return attendee;
-            }
-        }
-        for (Organizer organizer: allOrganizer){
-            if (organizer.getUsername().equals(username)){
-                return organizer;
-            }
+        User user = usersByName().get(username);
+        if (user instanceof Attendee){
+            return (Attendee) user;
         }
         throw new IllegalArgumentException("There is no such an attendee or organizer with the username. ");
     }
@@ -203,11 +260,9 @@ public class UserManager implements Serializable {
      */
 
     private Speaker stringToSpeaker(String username){
-        assert isUserExists(username) && userType(username).equals("Speaker");
-        for (Speaker speaker: allSpeaker) {
-            if (speaker.getUsername().equals(username)) {
-                return speaker;
-            }
+        User user = usersByName().get(username);
+        if (user instanceof Speaker){
+            return (Speaker) user;
         }
         throw new IllegalArgumentException("There is no such a speaker with the username " + username + ". ");
     }
@@ -220,24 +275,7 @@ public class UserManager implements Serializable {
      */
 
     public boolean isAddFriend(String usernameA, String usernameB){
-        if (userType(usernameA).equals("Speaker")){
-            Speaker userA = stringToSpeaker(usernameA);
-            List<String> friends = userA.getFriends();
-            for (String friend: friends){
-                if(friend.equals(usernameB)){
-                    return true;
-                }
-            }
-        }else{
-            Attendee userA = stringToAttendee(usernameA);
-            List<String> friends = userA.getFriends();
-            for (String friend: friends){
-                if(friend.equals(usernameB)){
-                    return true;
-                }
-            }
-        }
-        return false;
+        return friendGraph().isFriend(usernameA, usernameB);
     }
 
     /**
@@ -248,20 +286,47 @@ public class UserManager implements Serializable {
      * @return   true if successfully added (iff the user b exists, they aren't already a friend and user b!= user a), false otherwise
      */
     public boolean addFriend(String usernameA, String usernameB){
-        User userA;
-        if (userType(usernameA).equals("Speaker")) {
-            userA = stringToSpeaker(usernameA);
-        }else{
-            userA = stringToAttendee(usernameA);
+        User userA = usersByName().get(usernameA);
+        if (userA == null || !isUserExists(usernameB) || usernameA.equals(usernameB)
+                || !friendGraph().addFriend(usernameA, usernameB)){
+            return false;
         }
-
         List<String> friends = userA.getFriends();
-        if (isUserExists(usernameB) && !isAddFriend(usernameA, usernameB) && !usernameA.equals(usernameB)){
-                friends.add(usernameB);
-                userA.setFriends(friends);
-                return true;
-        }
-        return false;
+        friends.add(usersByName().get(usernameB).getUsername());
+        userA.setFriends(friends);
+        touch(usernameA);
+        return true;
+    }
+
+    /**
+     * Get the users both users have added as friends
+     * @param usernameA the first user
+     * @param usernameB the second user
+     * @return the usernames of their mutual friends, in alphabetical order
+     */
+    public List<String> getMutualFriends(String usernameA, String usernameB){
+        return friendGraph().getMutualFriends(usernameA, usernameB);
+    }
+
+    /**
+     * Get the users among the given ones that the user has added as friends
+     * @param username the user
+     * @param usernames the usernames to look through (ex. the attendees of an event)
+     * @return the friends of the user in usernames, in the same order
+     */
+    public List<String> getFriendsAmong(String username, Collection<String> usernames){
+        return friendGraph().getFriendsAmong(username, usernames);
+    }
+
+    /**
+     * Suggest users the user has not added yet, the ones who are in the most of the same groups first
+     * @param username the user
+     * @param groups the groups the user is in (ex. the attendees of each event the user attends)
+     * @param limit the most suggestions to return
+     * @return the suggested usernames
+     */
+    public List<String> suggestFriends(String username, Collection<? extends Collection<String>> groups, int limit){
+        return friendGraph().suggestFriends(username, groups, limit);
     }
 
     /**
@@ -272,6 +337,7 @@ public class UserManager implements Serializable {
     public void addEventToSpeaker(String title, String speakerUserName){
         Speaker speaker = stringToSpeaker(speakerUserName);
         speaker.addEventToSpeaker(title);
+        touch(speakerUserName);
     }
 
     /**
@@ -282,6 +348,7 @@ public class UserManager implements Serializable {
     public void deleteEventForSpeaker(String title, String speakerUserName){
         Speaker speaker = stringToSpeaker(speakerUserName);
         speaker.deleteEventForSpeaker(title);
+        touch(speakerUserName);
     }
 
     /**
@@ -294,16 +361,46 @@ public class UserManager implements Serializable {
      */
 
     public String userType(String username){
-        for(Attendee attendee: allAttendee){
-            if(username.equals(attendee.getUsername())) {return "Attendee";}
-        }
-        for (Organizer organizer: allOrganizer){
-            if(username.equals(organizer.getUsername())) {return "Organizer";}
-        }
-        for(Speaker speaker: allSpeaker){
-            if(username.equals(speaker.getUsername())) {return "Speaker";}
+        return typeOf(usersByName().get(username));
+    }
+
+    /**
+     * Get the dictionary of user ids, to share with the other managers so their audiences can be combined with the
+     * ones made here
+     * @return the ids of all users
+     */
+    public IdDictionary getUserIds(){
+        return userIds();
+    }
+
+    /**
+     * Replace each username in the friend lists with the user's own copy of it. Friend lists read from a saved
+     * conference may hold several copies of the same username, so this is done once when it is loaded.
+     */
+    public void shareUsernames(){
+        for (User user: usersByName().values()){
+            user.getFriends().replaceAll(friend -> usersByName.containsKey(friend)
+                    ? usersByName.get(friend).getUsername() : friend);
         }
-        return "Invalid Username";
+    }
+
+    /**
+     * Get all users of one type as an audience
+     * @param type "Attendee", "Organizer" or "Speaker"
+     * @return the users of this type
+     */
+    public Audience getUsersOfType(String type){
+        BitSet members = membersByType().get(type);
+        return new Audience(userIds(), members == null ? new BitSet() : (BitSet) members.clone());
+    }
+
+    /**
+     * Get all VIP attendees and organizers as an audience
+     * @return the VIPs
+     */
+    public Audience getVIPs(){
+        vipMembers();
+        return new Audience(userIds(), (BitSet) vipMembers.clone());
     }
 
     /**
@@ -340,5 +437,98 @@ public class UserManager implements Serializable {
         Attendee attendee = stringToAttendee(userName);
         int eventNum = attendee.getEventAttending().size();
         attendee.setVIP(eventNum >= 2);
+        vipMembers().set(userIds().idOf(userName), attendee.isVIP());
+        touch(userName);
+    }
+
+    /**
+     * Get the revision number of a user, which goes up whenever their events, VIP status or friends change
+     * @param username the username of the user
+     * @return the revision number (0 if the user has not changed since loading)
+     */
+    public int getRevision(String username){
+        return revisions == null ? 0 : revisions.getOrDefault(username, 0);
+    }
+
+
+//-----------------------------------------Private Methods-------------------------------------------
+
+    private FriendGraph friendGraph(){
+        if (friendGraph == null){
+            friendGraph = new FriendGraph(userIds());
+            for (User user: usersByName().values()){
+                for (String friend: user.getFriends()){
+                    friendGraph.addFriend(user.getUsername(), friend);
+                }
+            }
+        }
+        return friendGraph;
+    }
+
+    private Map<String, User> usersByName(){
+        if (usersByName == null){
+            rebuildIndexes();
+        }
+        return usersByName;
+    }
+
+    private IdDictionary userIds(){
+        if (userIds == null){
+            rebuildIndexes();
+        }
+        return userIds;
+    }
+
+    private Map<String, BitSet> membersByType(){
+        if (membersByType == null){
+            rebuildIndexes();
+        }
+        return membersByType;
+    }
+
+    private BitSet vipMembers(){
+        if (vipMembers == null){
+            rebuildIndexes();
+        }
+        return vipMembers;
+    }
+
+    private void rebuildIndexes(){
+        usersByName = new HashMap<>();
+        userIds = new IdDictionary();
+        friendGraph = null;
+        membersByType = new HashMap<>();
+        vipMembers = new BitSet();
+        for (Attendee attendee: allAttendee){ indexUser(attendee); }
+        for (Organizer organizer: allOrganizer){ indexUser(organizer); }
+        for (Speaker speaker: allSpeaker){ indexUser(speaker); }
+    }
+
+    private void indexUser(User user){
+        usersByName().put(user.getUsername(), user);
+        int id = userIds().intern(user.getUsername());
+        membersByType().computeIfAbsent(typeOf(user), t -> new BitSet()).set(id);
+        if (user instanceof Attendee && ((Attendee) user).isVIP()){
+            vipMembers().set(id);
+        }
+    }
+
+    private void touch(String username){
+        if (revisions == null){
+            revisions = new HashMap<>();
+        }
+        revisions.merge(username, 1, Integer::sum);
+        if (listeners != null){
+            for (ChangeListener listener : listeners){
+                listener.changed(DomainChange.user(username));
+            }
+        }
+    }
+
+    private static String typeOf(User user){
+        if (user instanceof Organizer) {return "Organizer";}
+        if (user instanceof Attendee) {return "Attendee";}
+        if (user instanceof Speaker) {return "Speaker";}
+        return "Invalid Username";
     }
 }